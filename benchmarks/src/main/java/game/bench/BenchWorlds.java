@@ -0,0 +1,42 @@
+package game.bench;
+
+import game.characters.PlayerCharacter;
+import game.characters.Warrior;
+import game.engine.GameLogger;
+import game.engine.GameWorld;
+import game.engine.MapPopulator;
+import game.map.GameMap;
+import game.map.Position;
+
+import java.util.Random;
+
+/**
+ * Builds populated worlds for the benchmarks.
+ * GameMap is a singleton, so every call clears it first.
+ */
+final class BenchWorlds {
+
+    static final long SEED = 42;
+
+    private BenchWorlds() {
+    }
+
+    /**
+     * Returns a world whose map is size x size and populated with the default probabilities.
+     * The player stands in the middle of the map.
+     */
+    static GameWorld populated(int size) {
+        GameLogger.setMinimumLevel(GameLogger.Level.WARN);
+        PlayerCharacter.setDefeatHandler(p -> p.setHealth(100));
+
+        GameMap map = GameMap.getInstance();
+        map.clear();
+        GameWorld world = new GameWorld(map);
+
+        PlayerCharacter player = new Warrior("Bench", 100, 10, Position.of(size / 2, size / 2));
+        world.addPlayer(player);
+        map.addEntity(player);
+        MapPopulator.populateMap(world, size, player.getPosition(), new Random(SEED), MapPopulator.DEFAULT_ENEMY_PERCENT);
+        return world;
+    }
+}
@@ -0,0 +1,75 @@
+package game.bench;
+
+import game.characters.AbstractCharacter;
+import game.characters.Archer;
+import game.characters.Dragon;
+import game.characters.Goblin;
+import game.characters.Mage;
+import game.characters.Orc;
+import game.characters.Warrior;
+import game.combat.CombatSystem;
+import game.engine.GameWorld;
+import game.map.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CombatSystem.resolveCombat for every attacker/defender class pair.
+ * Health is reset before each exchange so nobody dies and every call takes the full path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true", "-Dgame.log.mode=batched"})
+public class CombatBenchmark {
+
+    @Param({"Warrior", "Mage", "Archer", "Goblin", "Orc", "Dragon"})
+    public String attackerClass;
+
+    @Param({"Warrior", "Mage", "Archer", "Goblin", "Orc", "Dragon"})
+    public String defenderClass;
+
+    private GameWorld world;
+    private AbstractCharacter attacker;
+    private AbstractCharacter defender;
+
+    @Setup
+    public void setUp() {
+        world = BenchWorlds.populated(10);
+        attacker = create(attackerClass, Position.of(0, 0));
+        defender = create(defenderClass, Position.of(0, 1));
+    }
+
+    private static AbstractCharacter create(String type, Position pos) {
+        return switch (type) {
+            case "Warrior" -> new Warrior("W", 100, 10, pos);
+            case "Mage" -> new Mage("M", 100, 10, pos);
+            case "Archer" -> new Archer("A", 100, 10, pos);
+            case "Goblin" -> new Goblin(100, 8, pos);
+            case "Orc" -> new Orc(100, 5, pos);
+            case "Dragon" -> new Dragon(100, 15, pos);
+            default -> throw new IllegalArgumentException(type);
+        };
+    }
+
+    @Benchmark
+    public int resolveCombat() {
+        attacker.setHealth(100);
+        defender.setHealth(100);
+        CombatSystem.resolveCombat(attacker, defender, world);
+        return defender.getHealth();
+    }
+}
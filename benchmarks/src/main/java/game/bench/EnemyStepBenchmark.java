@@ -0,0 +1,87 @@
+package game.bench;
+
+import game.characters.Enemy;
+import game.characters.Goblin;
+import game.characters.PlayerCharacter;
+import game.core.GameEntity;
+import game.engine.EnemyThread;
+import game.engine.GameWorld;
+import game.map.GameMap;
+import game.map.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A single EnemyThread decision on a populated 100x100 map.
+ * <ul>
+ *     <li>{@code far}: the enemy cannot see the player and wanders or idles.</li>
+ *     <li>{@code chase}: the enemy sees the player and steps toward it.</li>
+ *     <li>{@code attack}: the enemy stands next to the player and attacks.</li>
+ * </ul>
+ * The enemy is put back on its start cell before every step so each call makes the same decision.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true", "-Dgame.log.mode=batched"})
+public class EnemyStepBenchmark {
+
+    private static final int SIZE = 100;
+
+    @Param({"far", "chase", "attack"})
+    public String scenario;
+
+    private GameMap map;
+    private PlayerCharacter player;
+    private Enemy enemy;
+    private Position start;
+    private EnemyThread task;
+
+    @Setup
+    public void setUp() {
+        GameWorld world = BenchWorlds.populated(SIZE);
+        map = world.getMap();
+        player = world.getPlayers().get(0);
+        Position p = player.getPosition();
+
+        int offset = switch (scenario) {
+            case "far" -> 20;
+            case "chase" -> 4;
+            default -> 1;
+        };
+        start = Position.of(p.getRow(), p.getCol() + offset);
+        for (GameEntity entity : map.getEntitiesAt(start).toArray(new GameEntity[0])) {
+            map.removeEntity(entity);
+        }
+        enemy = new Goblin(100, 1, start);
+        map.addEntity(enemy);
+        task = new EnemyThread(enemy, player, map, world, new AtomicBoolean(true));
+    }
+
+    @Benchmark
+    public Position step() {
+        if (!enemy.getPosition().equals(start)) {
+            map.removeEntity(enemy);
+            enemy.setPosition(start);
+            map.addEntity(enemy);
+        }
+        player.setHealth(100);
+        enemy.setHealth(100);
+        task.step();
+        return enemy.getPosition();
+    }
+}
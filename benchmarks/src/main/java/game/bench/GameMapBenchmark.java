@@ -0,0 +1,91 @@
+package game.bench;
+
+import game.core.GameEntity;
+import game.engine.GameWorld;
+import game.items.Potion;
+import game.map.GameMap;
+import game.map.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cell operations of GameMap on populated maps of several sizes.
+ * Every operation picks its cell from a precomputed random sequence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true", "-Dgame.log.mode=batched"})
+public class GameMapBenchmark {
+
+    private static final int CELLS = 4096; // power of two
+
+    @Param({"50", "500", "2000"})
+    public int size;
+
+    private GameMap map;
+    private Position[] cells;
+    private Potion[] potions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        GameWorld world = BenchWorlds.populated(size);
+        map = world.getMap();
+
+        Random random = new Random(BenchWorlds.SEED);
+        cells = new Position[CELLS];
+        potions = new Potion[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            cells[i] = Position.of(random.nextInt(size), random.nextInt(size));
+            potions[i] = new Potion(cells[i]);
+        }
+    }
+
+    private int nextIndex() {
+        return next++ & (CELLS - 1);
+    }
+
+    @Benchmark
+    public boolean addThenRemoveEntity() {
+        Potion potion = potions[nextIndex()];
+        map.addEntity(potion);
+        return map.removeEntity(potion);
+    }
+
+    @Benchmark
+    public List<GameEntity> getEntitiesAt() {
+        return map.getEntitiesAt(cells[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean isOccupied() {
+        return map.isOccupied(cells[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean canMoveTo() {
+        return map.canMoveTo(cells[nextIndex()], null);
+    }
+
+    @Benchmark
+    public List<GameEntity> getEntitiesAtFreshPosition() {
+        int i = nextIndex();
+        return map.getEntitiesAt(new Position(cells[i].getRow(), cells[i].getCol()));
+    }
+}
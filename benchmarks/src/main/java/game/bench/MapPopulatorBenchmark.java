@@ -0,0 +1,35 @@
+package game.bench;
+
+import game.engine.GameWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full MapPopulator.populateMap runs, including clearing the map beforehand.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true", "-Dgame.log.mode=batched", "-Xmx4g"})
+public class MapPopulatorBenchmark {
+
+    @Param({"50", "200", "500"})
+    public int size;
+
+    @Benchmark
+    public GameWorld populateMap() {
+        return BenchWorlds.populated(size);
+    }
+}
@@ -0,0 +1,53 @@
+package game.bench;
+
+import game.map.GameMap;
+import game.map.memento.GameMapMemento;
+import game.map.memento.MapMemento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of taking a GameMapMemento of a populated map, as a delta snapshot and
+ * as a full copy of the grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true", "-Dgame.log.mode=batched", "-Xmx4g"})
+public class MementoBenchmark {
+
+    @Param({"50", "200", "500"})
+    public int size;
+
+    private GameMap map;
+
+    @Setup
+    public void setUp() {
+        map = BenchWorlds.populated(size).getMap();
+    }
+
+    @Benchmark
+    public MapMemento saveState() {
+        MapMemento memento = map.saveState();
+        map.releaseState(memento);
+        return memento;
+    }
+
+    @Benchmark
+    public GameMapMemento saveFullState() {
+        return map.saveFullState();
+    }
+}
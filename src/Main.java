@@ -3,7 +3,9 @@
 import game.characters.*;
 import game.combat.CombatSystem;
 import game.core.GameEntity;
+import game.core.GameRandom;
 import game.engine.EnemyManager;
+import game.engine.GameJournal;
 import game.engine.GameLogger;
 import game.engine.GameWorld;
 import game.engine.MapPopulator;
@@ -16,8 +18,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
-import java.util.Random;
 
 public class Main {
     private static void clearLogFile() {
@@ -32,6 +34,7 @@ public class Main {
 
         clearLogFile();
         GameLogger.log("=== Game Started ===");
+        GameLogger.log("Random seed: " + GameRandom.getSeed() + " (repeat with -D" + GameRandom.PROPERTY + ")");
 
 
         SwingUtilities.invokeLater(() -> {
@@ -50,8 +53,7 @@ public class Main {
             GameWorld world = new GameWorld(map);
 
             // randomize player position
-            Random rand = new Random();
-            Position playerPos = new Position(rand.nextInt(mapSize), rand.nextInt(mapSize));
+            Position playerPos = new Position(GameRandom.nextInt(mapSize), GameRandom.nextInt(mapSize));
             player.setPosition(playerPos);
             world.addPlayer(player);
             map.addEntity(player);
@@ -60,18 +62,30 @@ public class Main {
             MapPopulator.populateMap(world, mapSize, playerPos);
             EnemyManager enemyManager = new EnemyManager(world.getEnemies(), player, map, world);
             enemyManager.startAll();
+            startJournal(world);
 
 
             // 7. GUI
-            MapPanel mapPanel = new MapPanel(mapSize, map);
+            MapPanel mapPanel = new MapPanel(mapSize, map, MapPanel.RenderMode.forMapSize(mapSize));
             StatusPanel statusPanel = new StatusPanel();
             GameController controller = new GameController(world, map, player, mapPanel, statusPanel);
-            GameFrame frame = new GameFrame(mapPanel, statusPanel, map, player);
+            GameFrame frame = new GameFrame(mapPanel, statusPanel, map, player, world, enemyManager);
             frame.setVisible(true);
 
         });
 
     }
+    // Records the session when started with -Dgame.journal=FILE.
+    private static void startJournal(GameWorld world) {
+        String file = System.getProperty(GameJournal.PROPERTY);
+        if (file == null) return;
+        try {
+            GameJournal.start(world, Path.of(file));
+        } catch (IOException e) {
+            System.err.println("Failed to start game journal: " + e.getMessage());
+        }
+    }
+
     private static String promptForName() {
         JDialog dialog = new JDialog();
         BackgroundPanel panel = new BackgroundPanel("images/choose_name_character.png");
@@ -2,22 +2,25 @@
 
 package game.characters;
 
+import game.combat.CombatMatrix;
+import game.combat.CombatState;
 import game.combat.Combatant;
 import game.combat.MagicElement;
 import game.combat.PhysicalAttacker;
+import game.core.ActionRandom;
 import game.core.GameEntity;
+import game.core.GameRandom;
 import game.map.Position;
 
-import java.util.Random;
-
 /**
  * An abstract base class for all characters in the game.
  * Implements basic combat and map behaviors common to both players and enemies.
  */
 public abstract class AbstractCharacter implements Combatant, GameEntity {
 
-    private Position position;
-    private int health;
+    // Read by enemy threads while the owner moves.
+    private volatile Position position;
+    private final CombatState combatState;
     private int power;
     private double evasionChance = 0.25;
     private boolean visible;
@@ -30,8 +33,23 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     public AbstractCharacter(Position position) {
         this.position = position;
-        this.health = 100; // default
-        this.power = new Random().nextInt(11) + 4; // 4–14
+        this.combatState = new CombatState(100); // default
+        this.power = GameRandom.nextInt(11) + 4; // 4–14
+        this.visible = false;
+    }
+
+    /**
+     * Constructs a character with the given health and power, e.g. when a saved
+     * game is loaded. Nothing is randomized.
+     *
+     * @param position the starting position of the character
+     * @param health   the character's health
+     * @param power    the character's power
+     */
+    protected AbstractCharacter(Position position, int health, int power) {
+        this.position = position;
+        this.combatState = new CombatState(health);
+        this.power = power;
         this.visible = false;
     }
 
@@ -87,7 +105,7 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     @Override
     public Boolean tryEvade() {
-        return Math.random() < evasionChance;
+        return ActionRandom.nextDouble() < evasionChance;
     }
     /**
      * Handles receiving damage from an attacker.
@@ -98,9 +116,18 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     @Override
     public void receiveDamage(int amount, Combatant source) {
-        int finalDamage = Math.max(0, amount); // Ensure at least 1 damage
-        this.health -= finalDamage;
-        if (this.health < 0) this.health = 0;
+        applyDamage(Math.max(0, amount));
+    }
+
+    /**
+     * Takes damage off the character's health atomically, so hits landing
+     * from several threads at once are all counted.
+     *
+     * @param amount the damage to take
+     * @return the health left
+     */
+    protected int applyDamage(int amount) {
+        return combatState.damage(amount);
     }
 
     /**
@@ -111,7 +138,7 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
     @Override
     public void heal(int amount) {
         if (amount < 0) return;
-        this.health = Math.min(100, this.health + amount);
+        combatState.heal(amount, 100);
     }
     /**
      * Checks if the character is dead.
@@ -120,7 +147,18 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     @Override
     public boolean isDead() {
-        return health <= 0; 
+        return combatState.getHealth() <= 0;
+    }
+
+    /**
+     * Claims the character's defeat once its health is gone. Only one caller
+     * succeeds, however many attacks landed the killing blow at the same time.
+     *
+     * @return true if the caller should handle the defeat
+     */
+    @Override
+    public boolean claimDefeat() {
+        return combatState.claimDefeat();
     }
     /**
      * Gets the character's power value.
@@ -138,7 +176,7 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     @Override
     public int getHealth() {
-        return health;
+        return combatState.getHealth();
     }
     /**
      * Gets the character's evasion chance.
@@ -157,7 +195,7 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     @Override
     public boolean setHealth(int health) {
-        this.health = Math.max(0, Math.min(health, 100));
+        combatState.setHealth(Math.min(health, 100));
         return true;
     }
 
@@ -174,6 +212,18 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
         return true;
     }
 
+    /**
+     * Puts back health and power saved in a snapshot, bypassing the usual
+     * limits on how they may change.
+     *
+     * @param health the saved health
+     * @param power  the saved power
+     */
+    public void restoreStats(int health, int power) {
+        combatState.setHealth(health);
+        this.power = power;
+    }
+
     /**
      * Sets the evasion chance.
      *
@@ -192,7 +242,7 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
      */
     @Override
     public String toString() {
-        return getClass().getSimpleName() + " at " + position + " | HP: " + health + " | Power: " + power;
+        return getClass().getSimpleName() + " at " + position + " | HP: " + getHealth() + " | Power: " + power;
     }
 
     @Override
@@ -200,7 +250,7 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
         if (this == obj) return true;
         if (!(obj instanceof AbstractCharacter)) return false;
         AbstractCharacter other = (AbstractCharacter) obj;
-        return this.health == other.health &&
+        return this.getHealth() == other.getHealth() &&
                 this.power == other.power &&
                 this.position.equals(other.position);
     }
@@ -214,17 +264,17 @@ public abstract class AbstractCharacter implements Combatant, GameEntity {
     @Override
     public boolean evadePhysicalAttack(PhysicalAttacker attacker) {
         double adjustedChance = evasionChance * (1 - attacker.getAccuracy());
-        return Math.random() < adjustedChance;
+        return ActionRandom.nextDouble() < adjustedChance;
     }
     /**
-     * Gets the elemental modifier for an attack based on the attacker's element.
-     * Default behavior is to return 1.0 (no modifier).
+     * Gets the elemental modifier for an attack based on the attacker's element,
+     * as {@link CombatMatrix#spellModifier} has it for this kind of character.
      *
      * @param attackerElement the element of the attack
      * @return the elemental modifier
      */
     @Override
     public double getElementalModifier(MagicElement attackerElement) {
-        return 1.0; // default behavior – unaffected by element
+        return CombatMatrix.spellModifier(attackerElement, this);
     }
 }
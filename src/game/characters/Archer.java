@@ -2,13 +2,15 @@
 
 package game.characters;
 
+import game.combat.CombatMatrix;
 import game.combat.Combatant;
+import game.combat.CombatantKind;
 import game.combat.PhysicalAttacker;
 import game.combat.RangedFighter;
+import game.core.ActionRandom;
+import game.core.GameRandom;
 import game.map.Position;
 
-import java.util.Random;
-
 /**
  * Represents an Archer player character.
  * Archers deal physical ranged damage and have an accuracy stat
@@ -27,7 +29,7 @@ public class Archer extends PlayerCharacter implements PhysicalAttacker, RangedF
      */
     public Archer(String name, Position position) {
         super(name, position);
-        this.accuracy = new Random().nextDouble() * 0.8;
+        this.accuracy = GameRandom.nextDouble() * 0.8;
     }
 
     public Archer(String name, int hp, int power, Position position) {
@@ -49,12 +51,7 @@ public class Archer extends PlayerCharacter implements PhysicalAttacker, RangedF
         if (target.evadePhysicalAttack(this)) {
             return; // evaded
         }
-
-        int damage = getPower();
-        if (isCriticalHit()) {
-            damage *= 2;
-        }
-        target.receiveDamage(damage, this);
+        target.receiveDamage(CombatMatrix.strikeDamage(this, target), this);
     }
 
     @Override
@@ -74,7 +71,7 @@ public class Archer extends PlayerCharacter implements PhysicalAttacker, RangedF
 
     @Override
     public boolean isCriticalHit() {
-        return Math.random() < 0.10;
+        return ActionRandom.nextDouble() < 0.10;
     }
 
     /**
@@ -87,11 +84,25 @@ public class Archer extends PlayerCharacter implements PhysicalAttacker, RangedF
         return accuracy;
     }
 
+    /**
+     * Puts back the accuracy saved in a snapshot.
+     *
+     * @param accuracy the saved accuracy
+     */
+    public void restoreAccuracy(double accuracy) {
+        this.accuracy = accuracy;
+    }
+
     @Override
     public String getDisplaySymbol() {
         return "Archer";
     }
 
+    @Override
+    public CombatantKind getCombatantKind() {
+        return CombatantKind.ARCHER;
+    }
+
     @Override
     public String toString() {
         return super.toString() + " | Class: Archer | Accuracy: " + String.format("%.2f", accuracy);
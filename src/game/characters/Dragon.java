@@ -2,16 +2,18 @@
 
 package game.characters;
 
+import game.combat.CombatMatrix;
 import game.combat.Combatant;
+import game.combat.CombatantKind;
 import game.combat.MagicAttacker;
 import game.combat.MeleeFighter;
 import game.combat.PhysicalAttacker;
 import game.combat.RangedFighter;
 import game.combat.MagicElement;
+import game.core.ActionRandom;
+import game.core.GameRandom;
 import game.map.Position;
 
-import java.util.Random;
-
 /**
  * Represents the Dragon boss enemy.
  * The Dragon can attack with both magic and physical damage, at melee or ranged distance.
@@ -27,7 +29,15 @@ public class Dragon extends Enemy implements PhysicalAttacker, MagicAttacker, Me
      */
     public Dragon(Position position) {
         super(position);
-        this.element = MagicElement.values()[new Random().nextInt(MagicElement.values().length)];
+        this.element = MagicElement.values()[GameRandom.nextInt(MagicElement.values().length)];
+    }
+
+    /**
+     * Constructs a Dragon with every stat given, e.g. when a saved game is loaded.
+     */
+    public Dragon(Position position, int hp, int power, int loot, MagicElement element) {
+        super(position, hp, power, loot);
+        this.element = element;
     }
 
     public Dragon(int hp, int power, Position position) {
@@ -63,11 +73,7 @@ public class Dragon extends Enemy implements PhysicalAttacker, MagicAttacker, Me
      */
     @Override
     public void calculateMagicDamage(Combatant target) {
-        double baseDamage = getPower() * 1.5;
-        double modifier = target.getElementalModifier(this.element);
-        int finalDamage = (int)Math.round(baseDamage * modifier);
-        finalDamage = Math.max(1, finalDamage); // Ensure at least 1 damage
-        target.receiveDamage(finalDamage, this);
+        target.receiveDamage(CombatMatrix.spellDamage(this, target), this);
     }
     /**
      * Casts a spell on a target, dealing magic damage.
@@ -98,10 +104,7 @@ public class Dragon extends Enemy implements PhysicalAttacker, MagicAttacker, Me
      */
     @Override
     public void fightClose(Combatant target) {
-        int damage = getPower();
-        if (isCriticalHit()) damage *= 2;
-        if (damage <= 0) damage = 1;
-        target.receiveDamage(damage, this);
+        target.receiveDamage(CombatMatrix.strikeDamage(this, target), this);
     }
 
     @Override
@@ -126,7 +129,7 @@ public class Dragon extends Enemy implements PhysicalAttacker, MagicAttacker, Me
 
     @Override
     public boolean isCriticalHit() {
-        return Math.random() < 0.10;
+        return ActionRandom.nextDouble() < 0.10;
     }
 
     @Override
@@ -134,6 +137,11 @@ public class Dragon extends Enemy implements PhysicalAttacker, MagicAttacker, Me
         return "Dragon";
     }
 
+    @Override
+    public CombatantKind getCombatantKind() {
+        return CombatantKind.DRAGON;
+    }
+
     @Override
     public String toString() {
         return super.toString() + " | Dragon | Element: " + element;
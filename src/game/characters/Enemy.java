@@ -2,12 +2,13 @@
 
 package game.characters;
 
+import game.combat.CombatantKind;
 import game.combat.LootDropper;
+import game.core.GameRandom;
+import game.engine.GameLogger;
 import game.items.Treasure;
 import game.map.Position;
 
-import java.util.Random;
-
 /**
  * Represents a base class for enemy characters in the game.
  * Enemies have limited health and can drop treasure upon defeat.
@@ -23,11 +24,24 @@ public class Enemy extends AbstractCharacter implements LootDropper {
      */
     public Enemy(Position position) {
         super(position);
-        if (!setHealth(new Random().nextInt(51))) {
+        if (!setHealth(GameRandom.nextInt(51))) {
             this.setHealth(30); // default health if random fails
         }
         // 0–50
-        this.loot = new Random().nextInt(201) + 100; // 100–300
+        this.loot = GameRandom.nextInt(201) + 100; // 100–300
+    }
+
+    /**
+     * Constructs an Enemy with the given stats, e.g. when a saved game is loaded.
+     *
+     * @param position the position of the enemy on the map
+     * @param health   the enemy's health
+     * @param power    the enemy's power
+     * @param loot     the loot value dropped on defeat
+     */
+    protected Enemy(Position position, int health, int power, int loot) {
+        super(position, health, power);
+        this.loot = loot;
     }
 
     /**
@@ -44,7 +58,7 @@ public class Enemy extends AbstractCharacter implements LootDropper {
      * Called when the enemy is defeated.
      */
     public void defeat() {
-        System.out.println(getClass().getSimpleName() + " defeated at " + getPosition());
+        GameLogger.log(GameLogger.Category.COMBAT, GameLogger.Level.INFO, "{} defeated at {}", getClass().getSimpleName(), getPosition());
     }
 
     /**
@@ -62,6 +76,11 @@ public class Enemy extends AbstractCharacter implements LootDropper {
         return "E";
     }
 
+    @Override
+    public CombatantKind getCombatantKind() {
+        return CombatantKind.ENEMY;
+    }
+
     @Override
     public String toString() {
         return super.toString() + " | Enemy | Loot: " + loot;
@@ -2,13 +2,15 @@
 
 package game.characters;
 
+import game.combat.CombatMatrix;
 import game.combat.Combatant;
+import game.combat.CombatantKind;
 import game.combat.MeleeFighter;
 import game.combat.PhysicalAttacker;
+import game.core.ActionRandom;
+import game.core.GameRandom;
 import game.map.Position;
 
-import java.util.Random;
-
 /**
  * Represents a Goblin enemy character.
  * Goblins fight with melee attacks and rely on agility to evade damage.
@@ -24,8 +26,16 @@ public class Goblin extends Enemy implements PhysicalAttacker, MeleeFighter {
      */
     public Goblin(Position position) {
         super(position);
-        this.agility = new Random().nextInt(81); // 0–80
+        this.agility = GameRandom.nextInt(81); // 0–80
+    }
+    /**
+     * Constructs a Goblin with every stat given, e.g. when a saved game is loaded.
+     */
+    public Goblin(Position position, int hp, int power, int loot, int agility) {
+        super(position, hp, power, loot);
+        this.agility = agility;
     }
+
     public Goblin(int hp, int power, Position position) {
         super(position);
         this.setHealth(hp);
@@ -42,7 +52,7 @@ public class Goblin extends Enemy implements PhysicalAttacker, MeleeFighter {
     @Override
     public Boolean tryEvade() {
         double evasionChance = Math.min(0.8, agility / 100.0);
-        return Math.random() < evasionChance;
+        return ActionRandom.nextDouble() < evasionChance;
     }
 
     /**
@@ -62,8 +72,7 @@ public class Goblin extends Enemy implements PhysicalAttacker, MeleeFighter {
      */
     @Override
     public void attack(Combatant target) {
-        int damage = Math.max(1, calculateDamage()); // Ensure minimum 1 damage
-        target.receiveDamage(damage, this);
+        target.receiveDamage(CombatMatrix.strikeDamage(this, target), this);
     }
 
 
@@ -97,7 +106,7 @@ public class Goblin extends Enemy implements PhysicalAttacker, MeleeFighter {
      */
     @Override
     public boolean isCriticalHit() {
-        return Math.random() < 0.10;
+        return ActionRandom.nextDouble() < 0.10;
     }
 
     /**
@@ -114,6 +123,11 @@ public class Goblin extends Enemy implements PhysicalAttacker, MeleeFighter {
         return "Goblin";
     }
 
+    @Override
+    public CombatantKind getCombatantKind() {
+        return CombatantKind.GOBLIN;
+    }
+
     @Override
     public String toString() {
         return super.toString() + " | Goblin | Agility: " + agility;
@@ -2,10 +2,13 @@
 
 package game.characters;
 
+import game.combat.CombatMatrix;
 import game.combat.Combatant;
+import game.combat.CombatantKind;
 import game.combat.MagicAttacker;
 import game.combat.RangedFighter;
 import game.combat.MagicElement;
+import game.core.GameRandom;
 import game.map.Position;
 
 /**
@@ -23,7 +26,7 @@ public class Mage extends PlayerCharacter implements MagicAttacker, RangedFighte
      */
     public Mage(String name, Position position) {
         super(name, position);
-        this.element = MagicElement.values()[(int)(Math.random() * MagicElement.values().length)];
+        this.element = MagicElement.values()[GameRandom.nextInt(MagicElement.values().length)];
     }
 
     public Mage(String name, int hp, int power, Position position) {
@@ -43,6 +46,15 @@ public class Mage extends PlayerCharacter implements MagicAttacker, RangedFighte
         return element;
     }
 
+    /**
+     * Puts back the element saved in a snapshot.
+     *
+     * @param element the saved element
+     */
+    public void restoreElement(MagicElement element) {
+        this.element = element;
+    }
+
     /**
      * Determines if this mage's element is stronger than the opponent's.
      *
@@ -62,19 +74,7 @@ public class Mage extends PlayerCharacter implements MagicAttacker, RangedFighte
      */
     @Override
     public void calculateMagicDamage(Combatant target) {
-        double baseDamage = getPower() * 1.5;
-
-        if (target instanceof MagicAttacker) {
-            MagicAttacker enemy = (MagicAttacker) target;
-
-            if (this.isElementStrongerThan(enemy)) {
-                baseDamage *= 1.2;
-            } else if (enemy.isElementStrongerThan(this)) {
-                baseDamage *= 0.8;
-            }
-        }
-
-        target.receiveDamage((int) baseDamage, this);
+        target.receiveDamage(CombatMatrix.spellDamage(this, target), this);
     }
 
     /**
@@ -129,6 +129,11 @@ public class Mage extends PlayerCharacter implements MagicAttacker, RangedFighte
         return "Mage";
     }
 
+    @Override
+    public CombatantKind getCombatantKind() {
+        return CombatantKind.MAGE;
+    }
+
     /**
      * Returns a string representation of the mage.
      *
@@ -156,24 +161,7 @@ public class Mage extends PlayerCharacter implements MagicAttacker, RangedFighte
     @Override
     public void receiveDamage(int amount, Combatant source) {
         if (tryEvade()) return;
-
-        int finalDamage = amount;
-
-        if (source instanceof MagicAttacker attacker) {
-            double modifier = getElementalModifier(attacker.getElement());
-            finalDamage = (int) Math.round(amount * modifier);
-        }
-
-        finalDamage = Math.max(1, finalDamage);
-        setHealth(getHealth() - finalDamage);
-    }
-
-
-    @Override
-    public double getElementalModifier(MagicElement attackerElement) {
-        if (attackerElement.isStrongerThan(this.element)) return 1.2;
-        if (this.element.isStrongerThan(attackerElement)) return 0.8;
-        return 1.0;
+        applyDamage(CombatMatrix.damageTaken(amount, source, this));
     }
 
 }
@@ -3,10 +3,12 @@
 package game.characters;
 
 import game.combat.*;
+import game.combat.CombatantKind;
+import game.core.ActionRandom;
+import game.core.GameRandom;
+import game.engine.GameLogger;
 import game.map.Position;
 
-import java.util.Random;
-
 /**
  * Represents an Orc enemy character.
  * Orcs are melee fighters with natural resistance to magic damage.
@@ -22,7 +24,15 @@ public class Orc extends Enemy implements PhysicalAttacker, MeleeFighter {
      */
     public Orc(Position position) {
         super(position);
-        this.resistance = new Random().nextDouble() * 0.5;
+        this.resistance = GameRandom.nextDouble() * 0.5;
+    }
+
+    /**
+     * Constructs an Orc with every stat given, e.g. when a saved game is loaded.
+     */
+    public Orc(Position position, int hp, int power, int loot, double resistance) {
+        super(position, hp, power, loot);
+        this.resistance = resistance;
     }
 
     public Orc(int hp, int power, Position position) {
@@ -38,7 +48,7 @@ public class Orc extends Enemy implements PhysicalAttacker, MeleeFighter {
      */
     @Override
     public boolean isCriticalHit() {
-        return Math.random() < 0.10;
+        return ActionRandom.nextDouble() < 0.10;
     }
 
     /**
@@ -57,11 +67,7 @@ public class Orc extends Enemy implements PhysicalAttacker, MeleeFighter {
      */
     @Override
     public void attack(Combatant target) {
-        int damage = calculateDamage();
-        if (isCriticalHit()) {
-            damage *= 2;
-        }
-        target.receiveDamage(damage, this);
+        target.receiveDamage(CombatMatrix.strikeDamage(this, target), this);
     }
 
     /**
@@ -74,16 +80,10 @@ public class Orc extends Enemy implements PhysicalAttacker, MeleeFighter {
     public void receiveDamage(int amount, Combatant source) {
         if (tryEvade()) return;
 
-        int finalDamage = amount;
-
-        if (source instanceof MagicAttacker) {
-            finalDamage = (int) Math.round(amount * (1 - resistance));
-        }
-
-        finalDamage = Math.max(1, finalDamage);
-        int newHealth = getHealth() - finalDamage;
-        setHealth(Math.max(0, newHealth));
-        System.out.println("Orc received " + finalDamage + " damage. New HP: " + getHealth());    }
+        int finalDamage = CombatMatrix.damageTaken(amount, source, this);
+        int newHealth = applyDamage(finalDamage);
+        GameLogger.log(GameLogger.Category.COMBAT, GameLogger.Level.DEBUG, "Orc received {} damage. New HP: {}", finalDamage, newHealth);
+    }
 
 
     /**
@@ -123,6 +123,11 @@ public class Orc extends Enemy implements PhysicalAttacker, MeleeFighter {
         return "Orc";
     }
 
+    @Override
+    public CombatantKind getCombatantKind() {
+        return CombatantKind.ORC;
+    }
+
     @Override
     public String toString() {
         return super.toString() + " | Orc | Resistance: " + String.format("%.2f", resistance);
@@ -137,10 +142,6 @@ public class Orc extends Enemy implements PhysicalAttacker, MeleeFighter {
                 Double.compare(this.resistance, other.resistance) == 0;
     }
     @Override
-    public double getElementalModifier(MagicElement attackerElement) {
-        return 1.0 - resistance;
-    }
-    @Override
     public double getAccuracy() {
         return 0.0;
     }
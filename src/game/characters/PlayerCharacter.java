@@ -1,14 +1,19 @@
 package game.characters;
 
 import game.combat.Combatant;
+import game.combat.CombatantKind;
 import game.core.Inventory;
 import game.engine.GameLogger;
+import game.engine.GameLogger.Category;
+import game.engine.GameLogger.Level;
 import game.items.GameItem;
 import game.items.Potion;
 import game.items.PowerPotion;
 import game.map.Position;
 
 import javax.swing.*;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Represents a player-controlled character in the game.
@@ -16,6 +21,8 @@ import javax.swing.*;
  */
 public class PlayerCharacter extends AbstractCharacter {
 
+    private static volatile Consumer<PlayerCharacter> defeatHandler = PlayerCharacter::showGameOverAndExit;
+
     private String name;
     private Inventory inventory;
     private int treasurePoints;
@@ -51,7 +58,7 @@ public class PlayerCharacter extends AbstractCharacter {
     public boolean addToInventory(GameItem item) {
         if (item == null) return false;
         inventory.addItem(item);
-        GameLogger.log("Player picked up item: " + item.getClass().getSimpleName());
+        GameLogger.log(Category.PLAYER, Level.INFO, "Player picked up item: {}", item.getClass().getSimpleName());
         return true;
     }
 
@@ -65,7 +72,7 @@ public class PlayerCharacter extends AbstractCharacter {
             if (item instanceof Potion p && !(p instanceof PowerPotion)) {
                 p.interact(this);
                 inventory.removeItem(p);
-                GameLogger.log("Player used Potion.");
+                GameLogger.log(Category.PLAYER, Level.INFO, "Player used Potion.");
                 return true;
             }
         }
@@ -82,7 +89,7 @@ public class PlayerCharacter extends AbstractCharacter {
             if (item instanceof PowerPotion p) {
                 p.interact(this);
                 inventory.removeItem(p);
-                GameLogger.log("Player used PowerPotion.");
+                GameLogger.log(Category.PLAYER, Level.INFO, "Player used PowerPotion.");
                 return true;
             }
         }
@@ -98,7 +105,7 @@ public class PlayerCharacter extends AbstractCharacter {
     public boolean updateTreasurePoint(int amount) {
         if (amount == 0) return false;
         this.treasurePoints += amount;
-        GameLogger.log("Player treasure updated by " + amount + ". Total: " + treasurePoints);
+        GameLogger.log(Category.PLAYER, Level.INFO, "Player treasure updated by {}. Total: {}", amount, treasurePoints);
         return true;
     }
 
@@ -111,6 +118,15 @@ public class PlayerCharacter extends AbstractCharacter {
         return treasurePoints;
     }
 
+    /**
+     * Puts back treasure points saved in a snapshot.
+     *
+     * @param treasurePoints the saved treasure points
+     */
+    public void restoreTreasurePoints(int treasurePoints) {
+        this.treasurePoints = treasurePoints;
+    }
+
     /**
      * Increases the player's power by the specified amount.
      *
@@ -119,7 +135,7 @@ public class PlayerCharacter extends AbstractCharacter {
      */
     public boolean increasePower(int amount) {
         if (amount <= 0) return false;
-        GameLogger.log("Player increased power by " + amount);
+        GameLogger.log(Category.PLAYER, Level.INFO, "Player increased power by {}", amount);
         return setPower(getPower() + amount);
     }
 
@@ -132,16 +148,14 @@ public class PlayerCharacter extends AbstractCharacter {
     @Override
     public void receiveDamage(int amount, Combatant source) {
         if (tryEvade()) {
-            GameLogger.log("Player evaded attack from " + source.getDisplaySymbol());
+            GameLogger.log(Category.PLAYER, Level.INFO, "Player evaded attack from {}", source.getDisplaySymbol());
             return;
         }
 
         int finalDamage = Math.max(1, amount);
-        int newHealth = getHealth() - finalDamage;
-        newHealth = Math.max(0, newHealth);
-        setHealth(newHealth);
+        int newHealth = applyDamage(finalDamage);
 
-        GameLogger.log("Player received " + finalDamage + " damage from " + source.getDisplaySymbol() + ". HP now: " + newHealth);
+        GameLogger.log(Category.PLAYER, Level.INFO, "Player received {} damage from {}. HP now: {}", finalDamage, source.getDisplaySymbol(), newHealth);
     }
 
     /**
@@ -154,6 +168,11 @@ public class PlayerCharacter extends AbstractCharacter {
         return name.substring(0, 1).toUpperCase();
     }
 
+    @Override
+    public CombatantKind getCombatantKind() {
+        return CombatantKind.PLAYER;
+    }
+
     /**
      * Returns a string representation of the player.
      *
@@ -181,13 +200,28 @@ public class PlayerCharacter extends AbstractCharacter {
     }
 
     /**
-     * Handles player defeat, shows a game over dialog, and exits the game.
+     * Handles player defeat by passing the player to the current defeat handler.
+     * By default this shows a game over dialog and exits the game.
      */
     @Override
     public void defeat() {
-        GameLogger.log("Player defeated. Final treasure: " + getTreasurePoints());
+        GameLogger.log(Category.PLAYER, Level.INFO, "Player defeated. Final treasure: {}", getTreasurePoints());
+        defeatHandler.accept(this);
+    }
+
+    /**
+     * Replaces what happens when a player is defeated, e.g. for headless runs
+     * where no dialog can be shown.
+     *
+     * @param handler called with the defeated player
+     */
+    public static void setDefeatHandler(Consumer<PlayerCharacter> handler) {
+        defeatHandler = Objects.requireNonNull(handler);
+    }
+
+    private static void showGameOverAndExit(PlayerCharacter player) {
         JOptionPane.showMessageDialog(null,
-                "Game Over!\nYour treasure: " + getTreasurePoints(),
+                "Game Over!\nYour treasure: " + player.getTreasurePoints(),
                 "Game Over",
                 JOptionPane.INFORMATION_MESSAGE);
 
@@ -2,13 +2,15 @@
 
 package game.characters;
 
+import game.combat.CombatMatrix;
 import game.combat.Combatant;
+import game.combat.CombatantKind;
 import game.combat.MeleeFighter;
 import game.combat.PhysicalAttacker;
+import game.core.ActionRandom;
+import game.core.GameRandom;
 import game.map.Position;
 
-import java.util.Random;
-
 /**
  * Represents a Warrior player character.
  * Warriors are melee fighters that rely on physical attacks
@@ -27,7 +29,7 @@ public class Warrior extends PlayerCharacter implements MeleeFighter, PhysicalAt
      */
     public Warrior(String name, Position position) {
         super(name, position);
-        this.defense = new Random().nextInt(121); // 0–120
+        this.defense = GameRandom.nextInt(121); // 0–120
     }
 
     public Warrior(String name, int hp, int power, Position position) {
@@ -38,21 +40,10 @@ public class Warrior extends PlayerCharacter implements MeleeFighter, PhysicalAt
 
 
 
-    /**
-     * Calculates the damage after applying the warrior's defense.
-     * The reduction factor is: min(0.6, defense / 200.0), up to 60%.
-     *
-     * @param rawDamage the incoming damage before defense
-     * @return the adjusted damage after defense is applied
-     */
-    private int calculateReducedDamage(int rawDamage) {
-        double reductionFactor = Math.min(0.6, defense / 200.0);
-        return (int) Math.round(rawDamage * (1 - reductionFactor));
-    }
-
     /**
      * Handles receiving damage, factoring in evasion and defense.
-     * If evasion fails, the damage is reduced based on defense.
+     * If evasion fails, the damage is reduced based on defense, by up to 60%
+     * (see {@link CombatMatrix}).
      *
      * @param amount the raw damage received
      * @param source the attacker
@@ -60,8 +51,7 @@ public class Warrior extends PlayerCharacter implements MeleeFighter, PhysicalAt
     @Override
     public void receiveDamage(int amount, Combatant source) {
         if (tryEvade()) return;
-        int finalDamage = calculateReducedDamage(amount);
-        setHealth(getHealth() - finalDamage);
+        applyDamage(CombatMatrix.damageTaken(amount, source, this));
     }
 
     /**
@@ -72,12 +62,7 @@ public class Warrior extends PlayerCharacter implements MeleeFighter, PhysicalAt
      */
     @Override
     public void attack(Combatant target) {
-        int damage = getPower();
-        if (isCriticalHit()) {
-            damage *= 2;
-        }
-        damage = Math.max(1, damage); // Ensure at least 1 damage
-        target.receiveDamage(damage, this);
+        target.receiveDamage(CombatMatrix.strikeDamage(this, target), this);
     }
 
     /**
@@ -88,7 +73,7 @@ public class Warrior extends PlayerCharacter implements MeleeFighter, PhysicalAt
      */
     @Override
     public boolean isCriticalHit() {
-        return Math.random() < 0.10;
+        return ActionRandom.nextDouble() < 0.10;
     }
 
     /**
@@ -123,6 +108,15 @@ public class Warrior extends PlayerCharacter implements MeleeFighter, PhysicalAt
         return defense;
     }
 
+    /**
+     * Puts back the defense saved in a snapshot.
+     *
+     * @param defense the saved defense
+     */
+    public void restoreDefense(int defense) {
+        this.defense = defense;
+    }
+
     /**
      * Returns the display symbol for this character on the map.
      *
@@ -133,6 +127,11 @@ public class Warrior extends PlayerCharacter implements MeleeFighter, PhysicalAt
         return "Warrior";
     }
 
+    @Override
+    public CombatantKind getCombatantKind() {
+        return CombatantKind.WARRIOR;
+    }
+
     /**
      * Returns a string representation of the Warrior, including name, health, power, and defense.
      *
@@ -0,0 +1,263 @@
+package game.combat;
+
+import game.characters.Orc;
+import game.characters.PlayerCharacter;
+import game.characters.Warrior;
+
+/**
+ * CombatMatrix: The combat rules for every pair of combatant kinds and every
+ * pair of magic elements, worked out once when the class loads so that
+ * {@link CombatSystem} looks them up instead of testing interfaces on each
+ * attack.
+ * <p>
+ * A kind's rules follow from the interfaces of its class, in the order
+ * combat has always checked them: a {@link MeleeFighter} reaches targets at
+ * distance 1, otherwise a {@link RangedFighter} reaches up to
+ * {@link #RANGED_REACH}; a {@link MagicAttacker} casts a spell, otherwise a
+ * {@link PhysicalAttacker} attacks; and only a physical attacker strikes back.
+ * <p>
+ * The rules also hold the damage formulas. A strike deals the attacker's
+ * power, doubled on a critical hit; a spell deals {@value #SPELL_POWER} times
+ * the caster's power, times an element modifier. The defender then takes off
+ * what its kind resists: a warrior its defense, a mage or an orc its
+ * {@link #spellModifier spell modifier} when the attacker casts spells. The
+ * combatants' attack and receiveDamage methods roll the dice and apply the
+ * result; the numbers come from here.
+ */
+public final class CombatMatrix {
+
+    /** How the attacker deals its damage. */
+    public enum AttackMode {
+        NONE, MAGIC, PHYSICAL
+    }
+
+    /** How far a ranged fighter reaches, as every ranged fighter's isInRange has it. */
+    public static final int RANGED_REACH = 2;
+    /** How many times the caster's power a spell deals before modifiers. */
+    public static final double SPELL_POWER = 1.5;
+    /** How many times the damage a critical hit deals. */
+    public static final int CRITICAL_MULTIPLIER = 2;
+    /** The most of the damage a warrior's defense takes off. */
+    public static final double MAX_DEFENSE_REDUCTION = 0.6;
+
+    /** What a spell's damage is multiplied by before the defender takes its share off. */
+    private enum SpellAim {
+        /** Nothing. */
+        NONE,
+        /** The modifier of the caster's element against the defender's, if the defender casts spells too. */
+        DEFENDER_ELEMENT,
+        /** The defender's {@link #spellModifier spell modifier}. */
+        SPELL_MODIFIER
+    }
+
+    /** What a defender takes off the damage that reaches it. */
+    private enum Reduction {
+        NONE,
+        /** A share of the damage, growing with the warrior's defense. */
+        DEFENSE,
+        /** The defender's {@link #spellModifier spell modifier}. */
+        SPELL_MODIFIER
+    }
+
+    private static final CombatantKind[] KINDS = CombatantKind.values();
+    private static final MagicElement[] ELEMENTS = MagicElement.values();
+
+    // Indexed by attacker kind * KINDS.length + defender kind.
+    private static final Rule[] RULES = new Rule[KINDS.length * KINDS.length];
+    // Indexed by attacking element * ELEMENTS.length + defending element.
+    private static final double[] ELEMENT_MODIFIERS = new double[ELEMENTS.length * ELEMENTS.length];
+
+    static {
+        for (CombatantKind attacker : KINDS) {
+            for (CombatantKind defender : KINDS) {
+                RULES[attacker.ordinal() * KINDS.length + defender.ordinal()] = ruleFor(attacker, defender);
+            }
+        }
+        for (MagicElement attacking : ELEMENTS) {
+            for (MagicElement defending : ELEMENTS) {
+                double modifier = 1.0;
+                if (attacking.isStrongerThan(defending)) modifier = 1.2;
+                else if (defending.isStrongerThan(attacking)) modifier = 0.8;
+                ELEMENT_MODIFIERS[attacking.ordinal() * ELEMENTS.length + defending.ordinal()] = modifier;
+            }
+        }
+    }
+
+    private CombatMatrix() {
+    }
+
+    /**
+     * Returns the rules for an attack by one kind of combatant on another.
+     */
+    public static Rule rule(CombatantKind attacker, CombatantKind defender) {
+        return RULES[attacker.ordinal() * KINDS.length + defender.ordinal()];
+    }
+
+    /**
+     * Returns the damage one strike by a physical attacker deals the
+     * defender before the defender's reductions, rolling for a critical hit
+     * if the attacker can land one.
+     */
+    public static int strikeDamage(Combatant attacker, Combatant defender) {
+        return rule(attacker.getCombatantKind(), defender.getCombatantKind()).strikeDamage(attacker);
+    }
+
+    /**
+     * Returns the damage a spell deals the defender before the defender's reductions.
+     */
+    public static int spellDamage(Combatant caster, Combatant defender) {
+        return rule(caster.getCombatantKind(), defender.getCombatantKind()).spellDamage(caster, defender);
+    }
+
+    /**
+     * Returns the damage the defender takes of an attack that reached it.
+     *
+     * @param amount the damage the attack dealt
+     */
+    public static int damageTaken(int amount, Combatant attacker, Combatant defender) {
+        return rule(attacker.getCombatantKind(), defender.getCombatantKind()).damageTaken(amount, attacker, defender);
+    }
+
+    /**
+     * Returns what a combatant multiplies the damage of a spell of the given
+     * element by: a mage the modifier of that element against its own, an
+     * orc one minus its resistance, and every other combatant 1.0.
+     */
+    public static double spellModifier(MagicElement attacking, Combatant defender) {
+        switch (defender.getCombatantKind()) {
+            case MAGE:
+                return elementModifier(attacking, ((MagicAttacker) defender).getElement());
+            case ORC:
+                return 1.0 - ((Orc) defender).getResistance();
+            default:
+                return 1.0;
+        }
+    }
+
+    /**
+     * Returns the damage multiplier for a spell of one element hitting a
+     * combatant of another: 1.2 if the spell's element is stronger, 0.8 if
+     * it is weaker, 1.0 otherwise.
+     */
+    public static double elementModifier(MagicElement attacking, MagicElement defending) {
+        return ELEMENT_MODIFIERS[attacking.ordinal() * ELEMENTS.length + defending.ordinal()];
+    }
+
+    private static Rule ruleFor(CombatantKind attacker, CombatantKind defender) {
+        Class<?> a = attacker.getType();
+        Class<?> d = defender.getType();
+
+        int minReach = 1;
+        int maxReach = 0; // reaches nothing
+        if (MeleeFighter.class.isAssignableFrom(a)) {
+            maxReach = 1;
+        } else if (RangedFighter.class.isAssignableFrom(a)) {
+            minReach = 0;
+            maxReach = RANGED_REACH;
+        }
+
+        AttackMode mode = AttackMode.NONE;
+        if (MagicAttacker.class.isAssignableFrom(a)) mode = AttackMode.MAGIC;
+        else if (PhysicalAttacker.class.isAssignableFrom(a)) mode = AttackMode.PHYSICAL;
+
+        // Goblins never land critical hits; archers' and orcs' strikes may deal nothing.
+        boolean critical = attacker != CombatantKind.GOBLIN;
+        int minStrike = attacker == CombatantKind.ARCHER || attacker == CombatantKind.ORC ? 0 : 1;
+
+        SpellAim aim = SpellAim.NONE;
+        if (attacker == CombatantKind.DRAGON) aim = SpellAim.SPELL_MODIFIER;
+        else if (MagicAttacker.class.isAssignableFrom(d)) aim = SpellAim.DEFENDER_ELEMENT;
+
+        Reduction reduction = Reduction.NONE;
+        if (defender == CombatantKind.WARRIOR) {
+            reduction = Reduction.DEFENSE;
+        } else if ((defender == CombatantKind.MAGE || defender == CombatantKind.ORC)
+                && MagicAttacker.class.isAssignableFrom(a)) {
+            reduction = Reduction.SPELL_MODIFIER;
+        }
+        // Players other than warriors, and orcs, always take at least 1.
+        int minTaken = PlayerCharacter.class.isAssignableFrom(d) && defender != CombatantKind.WARRIOR
+                || defender == CombatantKind.ORC ? 1 : 0;
+
+        return new Rule(minReach, maxReach, mode, PhysicalAttacker.class.isAssignableFrom(d),
+                critical, minStrike, aim, reduction, minTaken);
+    }
+
+    /**
+     * What happens when one kind of combatant attacks another.
+     */
+    public static final class Rule {
+        private final int minReach;
+        private final int maxReach;
+        private final AttackMode mode;
+        private final boolean defenderCounters;
+        private final boolean critical;
+        private final int minStrike;
+        private final SpellAim aim;
+        private final Reduction reduction;
+        private final int minTaken;
+
+        Rule(int minReach, int maxReach, AttackMode mode, boolean defenderCounters,
+             boolean critical, int minStrike, SpellAim aim, Reduction reduction, int minTaken) {
+            this.minReach = minReach;
+            this.maxReach = maxReach;
+            this.mode = mode;
+            this.defenderCounters = defenderCounters;
+            this.critical = critical;
+            this.minStrike = minStrike;
+            this.aim = aim;
+            this.reduction = reduction;
+            this.minTaken = minTaken;
+        }
+
+        /**
+         * Returns true if the attacker reaches a defender at the given distance.
+         */
+        public boolean inReach(int distance) {
+            return distance >= minReach && distance <= maxReach;
+        }
+
+        public AttackMode getMode() {
+            return mode;
+        }
+
+        /**
+         * Returns true if a defender that survives the attack strikes back.
+         */
+        public boolean defenderCounters() {
+            return defenderCounters;
+        }
+
+        int strikeDamage(Combatant attacker) {
+            int damage = attacker.getPower();
+            if (critical && ((PhysicalAttacker) attacker).isCriticalHit()) {
+                damage *= CRITICAL_MULTIPLIER;
+            }
+            return Math.max(minStrike, damage);
+        }
+
+        int spellDamage(Combatant caster, Combatant defender) {
+            MagicElement element = ((MagicAttacker) caster).getElement();
+            double damage = caster.getPower() * SPELL_POWER;
+            switch (aim) {
+                case DEFENDER_ELEMENT:
+                    return (int) (damage * elementModifier(element, ((MagicAttacker) defender).getElement()));
+                case SPELL_MODIFIER:
+                    return Math.max(1, (int) Math.round(damage * spellModifier(element, defender)));
+                default:
+                    return (int) damage;
+            }
+        }
+
+        int damageTaken(int amount, Combatant attacker, Combatant defender) {
+            int damage = amount;
+            if (reduction == Reduction.DEFENSE) {
+                double reductionFactor = Math.min(MAX_DEFENSE_REDUCTION, ((Warrior) defender).getDefense() / 200.0);
+                damage = (int) Math.round(amount * (1 - reductionFactor));
+            } else if (reduction == Reduction.SPELL_MODIFIER) {
+                damage = (int) Math.round(amount * spellModifier(((MagicAttacker) attacker).getElement(), defender));
+            }
+            return Math.max(minTaken, damage);
+        }
+    }
+}
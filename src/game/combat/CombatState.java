@@ -0,0 +1,90 @@
+package game.combat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The health of a combatant and whether its defeat has been handled, kept in
+ * one atomic word so that enemy threads and the player can hit the same
+ * combatant at once without a lock.
+ * <p>
+ * Damage and healing are compare-and-set loops, so no hit is lost. Once health
+ * reaches 0, {@link #claimDefeat()} succeeds for exactly one caller, which is
+ * the one that runs the defeat and drops the loot. Setting the health above 0
+ * again (a revive or a restored save) starts a new life that can be defeated
+ * once more.
+ */
+public final class CombatState {
+
+    // Low 31 bits: health. Top bit: the defeat of this life has been claimed.
+    private static final int DEFEATED = 1 << 31;
+    private static final int HEALTH = ~DEFEATED;
+
+    private final AtomicInteger state;
+
+    public CombatState(int health) {
+        this.state = new AtomicInteger(Math.max(0, health));
+    }
+
+    public int getHealth() {
+        return state.get() & HEALTH;
+    }
+
+    /**
+     * Sets the health outright. A positive health clears a claimed defeat.
+     */
+    public void setHealth(int health) {
+        int h = Math.max(0, health);
+        state.updateAndGet(s -> h > 0 ? h : (s & DEFEATED));
+    }
+
+    /**
+     * Takes damage off the health, stopping at 0.
+     *
+     * @return the health left
+     */
+    public int damage(int amount) {
+        if (amount <= 0) return getHealth();
+        int s;
+        int next;
+        do {
+            s = state.get();
+            int h = s & HEALTH;
+            if (h == 0) return 0;
+            next = (s & DEFEATED) | Math.max(0, h - amount);
+        } while (!state.compareAndSet(s, next));
+        return next & HEALTH;
+    }
+
+    /**
+     * Adds health up to {@code max}. A combatant whose defeat has been claimed
+     * stays defeated.
+     *
+     * @return the health after healing
+     */
+    public int heal(int amount, int max) {
+        int s;
+        int next;
+        do {
+            s = state.get();
+            if ((s & DEFEATED) != 0) return s & HEALTH;
+            int h = s & HEALTH;
+            next = Math.max(h, Math.min(max, h + Math.max(0, amount)));
+        } while (!state.compareAndSet(s, next));
+        return next;
+    }
+
+    /**
+     * Claims the defeat of a combatant with no health left.
+     *
+     * @return true for exactly one caller per life, false if health is left
+     *         or another caller claimed it first
+     */
+    public boolean claimDefeat() {
+        // 0 is the only state with no health left and the defeat unclaimed.
+        return state.compareAndSet(0, DEFEATED);
+    }
+
+    public boolean isDefeated() {
+        return (state.get() & DEFEATED) != 0;
+    }
+}
@@ -5,57 +5,69 @@ package game.combat;
 import game.characters.Enemy;
 import game.characters.PlayerCharacter;
 import game.engine.GameLogger;
+import game.engine.GameLogger.Category;
+import game.engine.GameLogger.Level;
 import game.engine.GameWorld;
 import game.items.Treasure;
 import game.map.Position;
 
 /**
  * Handles combat logic between two entities in the game world.
+ * Who reaches whom, how the attacker strikes and whether the defender strikes
+ * back are looked up in {@link CombatMatrix}. Health changes are atomic, so combats on the same combatant may run on
+ * several threads at once; a defeat, and its loot, is handled by exactly one
+ * of them (see {@link Combatant#claimDefeat()}).
  */
 public class CombatSystem {
 
-    public static void resolveCombat(Combatant attacker, Combatant defender, GameWorld world) {
+    /**
+     * Resolves one attack, and the defender's counterattack if it survives.
+     *
+     * @return true if this attack defeated the defender
+     */
+    public static boolean resolveCombat(Combatant attacker, Combatant defender, GameWorld world) {
         Position attackerPos = attacker.getPosition();
         Position defenderPos = defender.getPosition();
+        CombatMatrix.Rule rule = CombatMatrix.rule(attacker.getCombatantKind(), defender.getCombatantKind());
 
-        boolean inRange = false;
-
-        if (attacker instanceof MeleeFighter mf) {
-            inRange = mf.isInMeleeRange(attackerPos, defenderPos);
-        } else if (attacker instanceof RangedFighter rf) {
-            inRange = rf.isInRange(attackerPos, defenderPos);
-        }
-
-        if (!inRange) {
-            GameLogger.log("Combat skipped: Target out of range.");
-            return;
+        if (!rule.inReach(attackerPos.distanceTo(defenderPos))) {
+            GameLogger.log(Category.COMBAT, Level.DEBUG, "Combat skipped: Target out of range.");
+            return false;
         }
 
+        world.markChanged(attacker);
+        world.markChanged(defender);
         if (defender.tryEvade()) {
-            GameLogger.log("Combat: " + defender.getDisplaySymbol() + " evaded attack from " + attacker.getDisplaySymbol());
-            return;
+            GameLogger.log(Category.COMBAT, Level.INFO, "Combat: {} evaded attack from {}", defender.getDisplaySymbol(), attacker.getDisplaySymbol());
+            return false;
         }
 
         int preHP = defender.getHealth();
 
-        if (attacker instanceof MagicAttacker ma) {
-            ma.castSpell(defender);
-        } else if (attacker instanceof PhysicalAttacker pa) {
-            pa.attack(defender);
-        } else {
-            GameLogger.log("Combat failed: Attacker cannot attack.");
-            return;
+        switch (rule.getMode()) {
+            case MAGIC -> ((MagicAttacker) attacker).castSpell(defender);
+            case PHYSICAL -> ((PhysicalAttacker) attacker).attack(defender);
+            default -> {
+                GameLogger.log(Category.COMBAT, Level.WARN, "Combat failed: Attacker cannot attack.");
+                return false;
+            }
         }
 
         int postHP = defender.getHealth();
         int damageDealt = preHP - postHP;
 
-        GameLogger.log("Combat: " + attacker.getDisplaySymbol() + " dealt " + damageDealt +
-                " to " + defender.getDisplaySymbol() + ". Remaining HP: " + postHP);
+        if (GameLogger.isEnabled(Category.COMBAT, Level.INFO)) {
+            GameLogger.log("Combat: " + attacker.getDisplaySymbol() + " dealt " + damageDealt +
+                    " to " + defender.getDisplaySymbol() + ". Remaining HP: " + postHP);
+        }
 
         if (defender.isDead()) {
+            if (!defender.claimDefeat()) {
+                // Another attack landed the killing blow and handles the defeat.
+                return false;
+            }
             defender.defeat();
-            GameLogger.log("Combat: " + defender.getDisplaySymbol() + " defeated at " + defenderPos);
+            GameLogger.log(Category.COMBAT, Level.INFO, "Combat: {} defeated at {}", defender.getDisplaySymbol(), defenderPos);
 
             if (defender instanceof LootDropper dropper) {
                 Treasure loot = dropper.generateLoot();
@@ -65,33 +77,37 @@ public class CombatSystem {
 
                     if (attacker instanceof PlayerCharacter pc) {
                         pc.updateTreasurePoint(loot.getValue());
-                        GameLogger.log("Loot: Player collected treasure worth " + loot.getValue());
+                        GameLogger.log(Category.COMBAT, Level.INFO, "Loot: Player collected treasure worth {}", loot.getValue());
                     } else {
-                        GameLogger.log("Loot: Treasure dropped at " + loot.getPosition());
+                        GameLogger.log(Category.COMBAT, Level.INFO, "Loot: Treasure dropped at {}", loot.getPosition());
                     }
                 } else {
-                    GameLogger.log("Loot: No treasure dropped.");
+                    GameLogger.log(Category.COMBAT, Level.INFO, "Loot: No treasure dropped.");
                 }
             }
 
             if (defender instanceof Enemy) {
                 world.removeEnemy((Enemy) defender);
             }
+            return true;
 
-        } else if (defender instanceof PhysicalAttacker counter && defender instanceof Combatant) {
-            GameLogger.log("Combat: " + defender.getDisplaySymbol() + " counterattacks.");
+        } else if (rule.defenderCounters()) {
+            GameLogger.log(Category.COMBAT, Level.INFO, "Combat: {} counterattacks.", defender.getDisplaySymbol());
 
             int attackerHPBefore = attacker.getHealth();
-            counter.attack(attacker);
+            ((PhysicalAttacker) defender).attack(attacker);
             int attackerHPAfter = attacker.getHealth();
             int damageTaken = attackerHPBefore - attackerHPAfter;
 
-            GameLogger.log("Combat: " + defender.getDisplaySymbol() + " dealt " + damageTaken +
-                    " in retaliation. " + attacker.getDisplaySymbol() + " now has " + attackerHPAfter + " HP.");
+            if (GameLogger.isEnabled(Category.COMBAT, Level.INFO)) {
+                GameLogger.log("Combat: " + defender.getDisplaySymbol() + " dealt " + damageTaken +
+                        " in retaliation. " + attacker.getDisplaySymbol() + " now has " + attackerHPAfter + " HP.");
+            }
 
-            if (attacker instanceof PlayerCharacter pc && attacker.isDead()) {
+            if (attacker instanceof PlayerCharacter pc && attacker.isDead() && pc.claimDefeat()) {
                 pc.defeat();
             }
         }
+        return false;
     }
 }
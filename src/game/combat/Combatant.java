@@ -21,6 +21,13 @@ public interface Combatant extends GameEntity {
 
     boolean isDead();
 
+    /**
+     * Claims the handling of this combatant's defeat once it has no health left.
+     *
+     * @return true for exactly one caller per defeat
+     */
+    boolean claimDefeat();
+
     int getPower();
 
     Boolean tryEvade();
@@ -43,6 +50,11 @@ public interface Combatant extends GameEntity {
 
     double getElementalModifier(MagicElement attackerElement);
 
+    /**
+     * Returns the kind of this combatant, which selects its rules in {@link CombatMatrix}.
+     */
+    CombatantKind getCombatantKind();
+
      void defeat();
 
 
@@ -0,0 +1,39 @@
+package game.combat;
+
+import game.characters.Archer;
+import game.characters.Dragon;
+import game.characters.Enemy;
+import game.characters.Goblin;
+import game.characters.Mage;
+import game.characters.Orc;
+import game.characters.PlayerCharacter;
+import game.characters.Warrior;
+
+/**
+ * The kinds of combatant in the game, one per concrete class. A combatant
+ * reports its kind through {@link Combatant#getCombatantKind()}, and
+ * {@link CombatMatrix} keys its rules by it.
+ */
+public enum CombatantKind {
+    WARRIOR(Warrior.class),
+    MAGE(Mage.class),
+    ARCHER(Archer.class),
+    PLAYER(PlayerCharacter.class),
+    ORC(Orc.class),
+    GOBLIN(Goblin.class),
+    DRAGON(Dragon.class),
+    ENEMY(Enemy.class);
+
+    private final Class<? extends Combatant> type;
+
+    CombatantKind(Class<? extends Combatant> type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the class whose instances are of this kind.
+     */
+    public Class<? extends Combatant> getType() {
+        return type;
+    }
+}
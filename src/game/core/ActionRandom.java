@@ -0,0 +1,63 @@
+package game.core;
+
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Random source for the rolls made while one game action is resolved, such as
+ * a combat or opening a treasure. An action run through {@link #call(long, Supplier)}
+ * draws every roll from a generator seeded with the given seed, so recording
+ * the seed is enough to replay the action with the same outcome.
+ * Rolls made outside an action come from the calling thread's {@link GameRandom} stream.
+ */
+public final class ActionRandom {
+
+    private static final ThreadLocal<SplittableRandom> current = new ThreadLocal<>();
+
+    private ActionRandom() {
+    }
+
+    /**
+     * Returns a fresh seed for an action.
+     */
+    public static long newSeed() {
+        return GameRandom.nextLong();
+    }
+
+    /**
+     * Runs an action with all of its rolls drawn from the given seed.
+     */
+    public static <T> T call(long seed, Supplier<T> action) {
+        SplittableRandom outer = current.get();
+        current.set(new SplittableRandom(seed));
+        try {
+            return action.get();
+        } finally {
+            if (outer == null) current.remove();
+            else current.set(outer);
+        }
+    }
+
+    public static void run(long seed, Runnable action) {
+        call(seed, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns a roll in [0, 1).
+     */
+    public static double nextDouble() {
+        SplittableRandom r = current.get();
+        return r != null ? r.nextDouble() : GameRandom.nextDouble();
+    }
+
+    /**
+     * Returns a roll in [0, bound).
+     */
+    public static int nextInt(int bound) {
+        SplittableRandom r = current.get();
+        return r != null ? r.nextInt(bound) : GameRandom.nextInt(bound);
+    }
+}
@@ -0,0 +1,102 @@
+package game.core;
+
+import java.util.SplittableRandom;
+
+/**
+ * The random source for all gameplay rolls. Every thread draws from its own
+ * {@link SplittableRandom}, split off one master generator the first time the
+ * thread rolls, so threads never contend on a shared generator and entities
+ * do not allocate one each.
+ * <p>
+ * The master seed comes from the {@value #PROPERTY} system property, or is
+ * random if it is not set, and can be changed with {@link #setSeed(long)}.
+ * With a fixed seed, everything rolled on one thread (building and populating
+ * the map, a headless run's bot) comes out the same on every run. Rolls made
+ * while an action is resolved go through {@link ActionRandom} instead, which
+ * seeds each action from here.
+ */
+public final class GameRandom {
+
+    /** System property holding the master seed, e.g. {@code -Dgame.seed=42}. */
+    public static final String PROPERTY = "game.seed";
+
+    private static final Object lock = new Object();
+    // Guarded by lock. SplittableRandom.split is not thread-safe.
+    private static SplittableRandom master;
+    private static long seed;
+    // Bumped by setSeed so threads drop streams split from the old master.
+    private static volatile int generation;
+
+    private static final ThreadLocal<Stream> streams = new ThreadLocal<>();
+
+    static {
+        Long fromProperty = Long.getLong(PROPERTY);
+        setSeed(fromProperty != null ? fromProperty : System.nanoTime() ^ 0x9E3779B97F4A7C15L);
+    }
+
+    private GameRandom() {
+    }
+
+    /**
+     * Restarts every thread's stream from the given master seed.
+     */
+    public static void setSeed(long newSeed) {
+        synchronized (lock) {
+            seed = newSeed;
+            master = new SplittableRandom(newSeed);
+            generation++;
+        }
+    }
+
+    /**
+     * Returns the master seed, e.g. to log it so a run can be repeated.
+     */
+    public static long getSeed() {
+        synchronized (lock) {
+            return seed;
+        }
+    }
+
+    /**
+     * Returns the calling thread's generator. It must not be handed to other threads.
+     */
+    public static SplittableRandom current() {
+        Stream stream = streams.get();
+        int gen = generation;
+        if (stream == null || stream.generation != gen) {
+            synchronized (lock) {
+                stream = new Stream(master.split(), generation);
+            }
+            streams.set(stream);
+        }
+        return stream.random;
+    }
+
+    /**
+     * Returns a roll in [0, bound).
+     */
+    public static int nextInt(int bound) {
+        return current().nextInt(bound);
+    }
+
+    /**
+     * Returns a roll in [0, 1).
+     */
+    public static double nextDouble() {
+        return current().nextDouble();
+    }
+
+    public static long nextLong() {
+        return current().nextLong();
+    }
+
+    private static final class Stream {
+        final SplittableRandom random;
+        final int generation;
+
+        Stream(SplittableRandom random, int generation) {
+            this.random = random;
+            this.generation = generation;
+        }
+    }
+}
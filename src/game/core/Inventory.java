@@ -51,6 +51,15 @@ public class Inventory {
         return new ArrayList<>(items); // return a copy to preserve encapsulation
     }
 
+    /**
+     * Replaces the content of the inventory, e.g. when a saved game is restored.
+     *
+     * @param items the items the inventory should hold
+     */
+    public void setItems(List<GameItem> items) {
+        this.items = new ArrayList<>(items);
+    }
+
     @Override
     public String toString() {
         return "Inventory: " + items;
@@ -0,0 +1,305 @@
+package game.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * AutosaveService: Periodically saves the world to disk in the background.
+ * <p>
+ * Each save captures a {@link WorldSnapshot} with {@link SlicedCapture}, which
+ * pauses enemy AI and player actions only while it copies one slice of the
+ * world at a time, never for the whole world. Encoding, compression
+ * and the disk write then run on the autosave thread while the game goes on.
+ * Saves alternate between two slot files, and each slot carries a sequence
+ * number and a CRC, so a crash in the middle of a write can only damage the
+ * slot being written; {@link #loadLatest} falls back to the other one.
+ * <p>
+ * Slot layout (big-endian): int magic "DDAS", short version, short flags,
+ * long sequence, long savedAtMillis, int rawLength, int payloadLength,
+ * int crc32 of the preceding header bytes and the payload, then the
+ * deflated {@link WorldSaveFile} bytes.
+ */
+public class AutosaveService {
+
+    /** System property holding the autosave interval in seconds; missing or 0 leaves autosave off. */
+    public static final String PROPERTY = "game.autosaveSeconds";
+
+    static final int MAGIC = 0x44444153; // "DDAS"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 36;
+    private static final int CRC_OFFSET = 32;
+    private static final String[] SLOT_NAMES = {"autosave-a.dat", "autosave-b.dat"};
+
+    private final GameWorld world;
+    private final Path[] slots;
+    private final long intervalMillis;
+    private final ScheduledExecutorService executor;
+    private final LatencyRecorder pauses = new LatencyRecorder();
+    private final LatencyRecorder writes = new LatencyRecorder();
+
+    // Touched only by the autosave thread.
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private byte[] compressed = new byte[64 * 1024];
+    private boolean slotsScanned;
+    private long sequence;
+    private int nextSlot;
+
+    private volatile boolean running;
+
+    /**
+     * @param world          the world to save
+     * @param directory      where the two slot files are kept
+     * @param intervalMillis time between the end of one save and the start of the next
+     */
+    public AutosaveService(GameWorld world, Path directory, long intervalMillis) {
+        this.world = world;
+        this.slots = new Path[]{directory.resolve(SLOT_NAMES[0]), directory.resolve(SLOT_NAMES[1])};
+        this.intervalMillis = intervalMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Autosave");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Returns the interval set by the {@value #PROPERTY} system property in
+     * milliseconds, or 0 if autosave is off: the property is missing, 0 or invalid.
+     */
+    public static long intervalFromSystemProperty() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null) return 0;
+        try {
+            return Math.max(0, (long) (Double.parseDouble(value.trim()) * 1000));
+        } catch (NumberFormatException e) {
+            GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.WARN,
+                    "Invalid autosave interval '{}', autosave is off", value);
+            return 0;
+        }
+    }
+
+    public void start() {
+        running = true;
+        executor.scheduleWithFixedDelay(this::saveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops autosaving. A save already in progress is allowed to finish.
+     */
+    public void stop() {
+        running = false;
+        executor.shutdown();
+    }
+
+    /**
+     * Queues a save to run on the autosave thread as soon as it is free.
+     */
+    public void saveNow() {
+        if (!executor.isShutdown()) {
+            executor.execute(this::saveQuietly);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the time the world was paused for each slice of each capture.
+     */
+    public LatencyRecorder getPauses() {
+        return pauses;
+    }
+
+    /**
+     * Returns the time each save spent encoding, compressing and writing.
+     */
+    public LatencyRecorder getWrites() {
+        return writes;
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException | RuntimeException e) {
+            GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.WARN, "Autosave failed: {}", e.toString());
+        }
+    }
+
+    private void save() throws IOException {
+        if (!slotsScanned) {
+            scanSlots();
+        }
+        long captureStart = System.nanoTime();
+        WorldSnapshot snapshot = SlicedCapture.capture(world, pauses);
+        long writeStart = System.nanoTime();
+
+        ByteBuffer raw = WorldSaveFile.encode(snapshot);
+        int rawLength = raw.remaining();
+        int payloadLength = deflate(raw);
+
+        long seq = sequence + 1;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) 0)
+                .putLong(seq)
+                .putLong(snapshot.getTakenAtMillis())
+                .putInt(rawLength)
+                .putInt(payloadLength);
+        crc.reset();
+        crc.update(header.array(), 0, CRC_OFFSET);
+        crc.update(compressed, 0, payloadLength);
+        header.putInt((int) crc.getValue());
+        header.flip();
+
+        // Written in place: only the older slot is touched, and a torn write
+        // fails its CRC check on load.
+        Path slot = slots[nextSlot];
+        try (FileChannel channel = FileChannel.open(slot, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] data = {header, ByteBuffer.wrap(compressed, 0, payloadLength)};
+            while (data[1].hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        }
+        sequence = seq;
+        nextSlot = 1 - nextSlot;
+        writes.record(System.nanoTime() - writeStart);
+
+        GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.DEBUG,
+                "Autosaved to {} ({} bytes, captured in {} us)", slot.getFileName(),
+                HEADER_BYTES + payloadLength, (writeStart - captureStart) / 1000);
+    }
+
+    private int deflate(ByteBuffer raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return length;
+    }
+
+    /**
+     * Continues the sequence of the newest valid slot and writes the next save
+     * over the other one, so the newest good save is never the one overwritten.
+     */
+    private void scanSlots() {
+        long newest = -1;
+        for (int i = 0; i < slots.length; i++) {
+            Slot s = readSlot(slots[i]);
+            if (s != null && s.sequence > newest) {
+                newest = s.sequence;
+                nextSlot = 1 - i;
+            }
+        }
+        sequence = Math.max(0, newest);
+        slotsScanned = true;
+    }
+
+    /**
+     * Reads the newest intact autosave in a directory into a snapshot that can
+     * be restored into the given world.
+     *
+     * @return the snapshot, or null if neither slot holds an intact save
+     * @throws IOException if the newest intact save does not fit the world
+     */
+    public static WorldSnapshot loadLatest(Path directory, GameWorld world) throws IOException {
+        Slot newest = null;
+        for (String name : SLOT_NAMES) {
+            Slot s = readSlot(directory.resolve(name));
+            if (s != null && (newest == null || s.sequence > newest.sequence)) {
+                newest = s;
+            }
+        }
+        return newest == null ? null : WorldSaveFile.decode(ByteBuffer.wrap(newest.data), world);
+    }
+
+    /**
+     * Returns true if the directory holds at least one intact autosave.
+     */
+    public static boolean hasSave(Path directory) {
+        for (String name : SLOT_NAMES) {
+            if (readSlot(directory.resolve(name)) != null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads, checks and inflates one slot file. Returns null if the file is
+     * missing, truncated or fails its CRC.
+     */
+    private static Slot readSlot(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) return null;
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buf.getInt() != MAGIC || buf.getShort() != VERSION) return null;
+            buf.getShort(); // flags, none defined yet
+            long sequence = buf.getLong();
+            buf.getLong(); // savedAtMillis
+            int rawLength = buf.getInt();
+            int payloadLength = buf.getInt();
+            int expectedCrc = buf.getInt();
+            if (rawLength < 0 || payloadLength < 0 || HEADER_BYTES + (long) payloadLength != size) return null;
+
+            CRC32 crc = new CRC32();
+            crc.update(buf.duplicate().position(0).limit(CRC_OFFSET));
+            crc.update(buf.duplicate().position(HEADER_BYTES));
+            if ((int) crc.getValue() != expectedCrc) return null;
+
+            byte[] data = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(buf.position(HEADER_BYTES));
+                int n = 0;
+                while (n < rawLength && !inflater.finished()) {
+                    int read = inflater.inflate(data, n, rawLength - n);
+                    if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) return null;
+                    n += read;
+                }
+                if (n != rawLength || !inflater.finished()) return null;
+            } finally {
+                inflater.end();
+            }
+            return new Slot(sequence, data);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | DataFormatException | RuntimeException e) {
+            GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.WARN,
+                    "Ignoring unreadable autosave {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    private static final class Slot {
+        final long sequence;
+        final byte[] data;
+
+        Slot(long sequence, byte[] data) {
+            this.sequence = sequence;
+            this.data = data;
+        }
+    }
+}
@@ -4,39 +4,155 @@ import game.characters.Enemy;
 import game.characters.PlayerCharacter;
 import game.map.GameMap;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * EnemyManager: Responsible for managing and launching EnemyThreads.
  * Holds the isRunning flag to control all enemy threads globally.
+ * Enemies are either advanced in ticks by a {@link SimulationScheduler}
+ * or each run on a thread of their own (platform or virtual), depending on the {@link Mode}.
  */
 public class EnemyManager {
 
+    /**
+     * How enemy AI is executed.
+     */
+    public enum Mode {
+        /** All enemies are stepped in batched ticks on a small worker pool. */
+        SCHEDULED,
+        /** Every enemy runs its own EnemyThread loop on a pooled platform thread. */
+        THREAD_PER_ENEMY,
+        /** Every enemy runs its own EnemyThread loop on a virtual thread (a platform thread before JDK 21). */
+        VIRTUAL_THREAD;
+
+        /** System property used to pick the mode, e.g. {@code -Dgame.enemyMode=VIRTUAL_THREAD}. */
+        public static final String PROPERTY = "game.enemyMode";
+
+        /**
+         * Returns the mode named by the {@value #PROPERTY} system property,
+         * or {@link #SCHEDULED} if it is missing or unknown.
+         */
+        public static Mode fromSystemProperty() {
+            String value = System.getProperty(PROPERTY);
+            if (value != null) {
+                for (Mode m : values()) {
+                    if (m.name().equalsIgnoreCase(value.trim())) return m;
+                }
+                GameLogger.log("Unknown enemy mode '" + value + "', using " + SCHEDULED);
+            }
+            return SCHEDULED;
+        }
+
+        /**
+         * Creates the executor used to run one EnemyThread per task in this mode.
+         * Returns null for {@link #SCHEDULED}, which does not run enemies as tasks.
+         */
+        ExecutorService newTaskExecutor() {
+            return switch (this) {
+                case THREAD_PER_ENEMY -> Executors.newCachedThreadPool();
+                case VIRTUAL_THREAD -> newVirtualThreadExecutor(Executors::newCachedThreadPool);
+                case SCHEDULED -> null;
+            };
+        }
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread per task. Virtual
+     * threads need JDK 21, and the game also builds and runs on JDK 17, so
+     * the factory is looked up at run time; without it the fallback executor
+     * is used instead.
+     */
+    static ExecutorService newVirtualThreadExecutor(Supplier<ExecutorService> fallback) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.WARN,
+                    "Virtual threads need JDK 21 or later; running enemies on platform threads");
+            return fallback.get();
+        }
+    }
+
     private final List<Enemy> enemies;
+    private final Mode mode;
     private final ExecutorService executor;
+    private final SimulationScheduler scheduler;
     private final AtomicBoolean isRunning;
     private final PlayerCharacter player;
     private final GameMap map;
     private final GameWorld world;
+    // The task driving each enemy, so a restore can tell which enemies need one.
+    private final Map<Enemy, EnemyThread> tasks = new IdentityHashMap<>();
 
     public EnemyManager(List<Enemy> enemies, PlayerCharacter player, GameMap map, GameWorld world) {
+        this(enemies, player, map, world, Mode.fromSystemProperty());
+    }
+
+    public EnemyManager(List<Enemy> enemies, PlayerCharacter player, GameMap map, GameWorld world, Mode mode) {
         this.enemies = enemies;
         this.player = player;
         this.map = map;
         this.world = world;
-        this.executor = Executors.newCachedThreadPool();
+        this.mode = mode;
+        this.executor = mode.newTaskExecutor();
+        this.scheduler = mode == Mode.SCHEDULED ? new SimulationScheduler() : null;
         this.isRunning = new AtomicBoolean(true);
     }
 
     /**
      * Starts all enemy threads.
      */
-    public void startAll() {
+    public synchronized void startAll() {
         for (Enemy enemy : enemies) {
-            executor.submit(new EnemyThread(enemy, player, map, world, isRunning));
+            launch(enemy);
+        }
+        if (mode == Mode.SCHEDULED) {
+            scheduler.start();
+        }
+    }
+
+    /**
+     * Brings the running tasks in line with the enemy list after it was replaced,
+     * e.g. by restoring a saved game: enemies that left the list stop acting,
+     * and living enemies whose task already ended (because they had died) get a new one.
+     */
+    public synchronized void reconcile() {
+        if (!isRunning.get()) return;
+
+        Set<Enemy> current = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(current, enemies.toArray(new Enemy[0]));
+        tasks.entrySet().removeIf(entry -> {
+            if (current.contains(entry.getKey())) return false;
+            entry.getValue().cancel();
+            return true;
+        });
+
+        int restarted = 0;
+        for (Enemy enemy : current) {
+            if (enemy == null || enemy.isDead()) continue;
+            EnemyThread task = tasks.get(enemy);
+            if (task == null || task.isFinished()) {
+                launch(enemy);
+                restarted++;
+            }
+        }
+        GameLogger.log(GameLogger.Category.ENEMY_AI, GameLogger.Level.INFO, "Enemy tasks reconciled, {} restarted", restarted);
+    }
+
+    private void launch(Enemy enemy) {
+        EnemyThread task = new EnemyThread(enemy, player, map, world, isRunning);
+        tasks.put(enemy, task);
+        if (mode == Mode.SCHEDULED) {
+            scheduler.schedule(task);
+        } else {
+            executor.submit(task);
         }
     }
 
@@ -45,7 +161,11 @@ public class EnemyManager {
      */
     public void stopAll() {
         isRunning.set(false);
-        executor.shutdownNow();
+        if (mode == Mode.SCHEDULED) {
+            scheduler.stop();
+        } else {
+            executor.shutdownNow();
+        }
     }
 
     /**
@@ -54,4 +174,8 @@ public class EnemyManager {
     public AtomicBoolean getIsRunning() {
         return isRunning;
     }
+
+    public Mode getMode() {
+        return mode;
+    }
 }
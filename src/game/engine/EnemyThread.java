@@ -3,17 +3,21 @@ package game.engine;
 import game.characters.Enemy;
 import game.characters.PlayerCharacter;
 import game.combat.CombatSystem;
+import game.core.ActionRandom;
+import game.core.GameRandom;
+import game.engine.GameLogger.Category;
+import game.engine.GameLogger.Level;
 import game.map.GameMap;
 import game.map.Position;
 
-import java.util.List;
-import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * EnemyThread: Represents the AI logic of a single enemy.
  * Runs in a loop, performing periodic actions such as movement or attack.
+ * A single action can also be driven from outside via {@link #step()}.
  */
 public class EnemyThread implements Runnable {
 
@@ -22,103 +26,197 @@ public class EnemyThread implements Runnable {
     private final GameMap map;
     private final GameWorld world;
     private final AtomicBoolean isRunning;
-    private final Random random = new Random();
-
-    private static final int VISION_RANGE = 5;
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+    private final FlowField flowField;
+    private final PathfindingService pathfinder;
+    // Steps are never run concurrently for one enemy.
+    private final PathfindingService.Route route = new PathfindingService.Route();
+
+    static final int VISION_RANGE = 5;
     private static final int MELEE_RANGE = 1;
 
+    // Optional, set by headless runs to measure AI cost.
+    private static volatile LatencyRecorder stepRecorder;
+
     public EnemyThread(Enemy enemy, PlayerCharacter player, GameMap map, GameWorld world, AtomicBoolean isRunning) {
         this.enemy = enemy;
         this.player = player;
         this.map = map;
         this.world = world;
         this.isRunning = isRunning;
+        this.flowField = world.getFlowField(player);
+        this.pathfinder = new PathfindingService(map);
     }
 
     @Override
     public void run() {
-        while (isRunning.get() && !enemy.isDead()) {
+        while (isActive()) {
             try {
-                long delay = 500 + random.nextInt(1000);
-                Thread.sleep(delay);
-
-                Position enemyPos = enemy.getPosition();
-                Position playerPos = player.getPosition();
-
-                int distance = enemyPos.distanceTo(playerPos);
-
-                if (distance <= VISION_RANGE) {
-                    if (distance <= MELEE_RANGE) {
-                        ReentrantLock playerLock = world.getPlayerLock();
-                        if (playerLock.tryLock()) {
-                            try {
-                                GameLogger.log("Enemy at " + enemyPos + " attacks player at " + playerPos);
-                                CombatSystem.resolveCombat(enemy, player, world);
-                            } finally {
-                                playerLock.unlock();
-                            }
-                        } else {
-                            GameLogger.log("Enemy at " + enemyPos + " wanted to attack but player is busy.");
-                        }
-                    } else {
-                        Position nextStep = calculateStepTowards(enemyPos, playerPos);
-                        if (nextStep != null && tryMoveWithLock(nextStep)) {
-                            GameLogger.log("Enemy at " + enemyPos + " moved toward player to " + nextStep);
-                        }
-                    }
-                } else {
-                    if (random.nextInt(100) < 20) {
-                        Position randomMove = getRandomAdjacentPosition(enemyPos);
-                        if (randomMove != null && tryMoveWithLock(randomMove)) {
-                            GameLogger.log("Enemy at " + enemyPos + " moved randomly to " + randomMove);
-                        }
-                    } else {
-                        GameLogger.log("Enemy at " + enemyPos + " idles.");
-                    }
-                }
-
+                Thread.sleep(nextDelayMillis());
+                step();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
-                GameLogger.log("Enemy thread interrupted.");
+                GameLogger.log(Category.ENEMY_AI, Level.DEBUG, "Enemy thread interrupted.");
             }
         }
 
-        GameLogger.log("Enemy thread stopped for enemy at " + enemy.getPosition());
+        markFinished();
+        GameLogger.log(Category.ENEMY_AI, Level.DEBUG, "Enemy thread stopped for enemy at {}", enemy.getPosition());
     }
 
-    private boolean tryMoveWithLock(Position targetPos) {
-        boolean locked = map.tryLockPosition(targetPos, 50);
-        if (!locked) return false;
+    /**
+     * Returns how long the enemy waits before its next action (500–1500 ms).
+     */
+    public long nextDelayMillis() {
+        return 500 + GameRandom.nextInt(1000);
+    }
+
+    /**
+     * Returns true while this enemy should keep acting.
+     */
+    public boolean isActive() {
+        return isRunning.get() && !cancelled && !enemy.isDead();
+    }
+
+    /**
+     * Stops this task for good, even if the enemy is still alive.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns true once the task has stopped acting and will not act again.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    void markFinished() {
+        finished = true;
+    }
 
+    public Enemy getEnemy() {
+        return enemy;
+    }
+
+    /**
+     * Performs a single AI decision: attack the player if in melee range,
+     * chase the player around obstacles if in sight, otherwise
+     * wander or idle.
+     */
+    public void step() {
+        // Shared with other steps; a world snapshot takes it exclusively.
+        Lock stateLock = world.getStateLock().readLock();
+        stateLock.lock();
         try {
-            synchronized (map) {
-                if (!map.isOccupied(targetPos)) {
-                    map.removeEntity(enemy);
-                    enemy.setPosition(targetPos);
-                    map.addEntity(enemy);
-                    world.notifyGameStateChanged(world);
-                    return true;
+            world.markChanged(enemy);
+            LatencyRecorder recorder = stepRecorder;
+            if (recorder == null) {
+                decide();
+                return;
+            }
+            long start = System.nanoTime();
+            decide();
+            recorder.record(System.nanoTime() - start);
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Records the duration of every step into the given recorder, or stops recording if null.
+     */
+    public static void setStepRecorder(LatencyRecorder recorder) {
+        stepRecorder = recorder;
+    }
+
+    private void decide() {
+        Position enemyPos = enemy.getPosition();
+        Position playerPos = player.getPosition();
+
+        int distance = enemyPos.distanceTo(playerPos);
+
+        if (distance <= VISION_RANGE) {
+            if (distance <= MELEE_RANGE) {
+                attackPlayer(enemyPos, playerPos);
+            } else {
+                // The shared field is enough unless another character blocks its way.
+                Position nextStep = flowField.nextStep(enemyPos);
+                if (nextStep == null || map.isOccupied(nextStep)) {
+                    nextStep = pathfinder.nextStep(route, enemyPos, playerPos);
+                }
+                if (nextStep != null && tryMoveWithLock(nextStep)) {
+                    GameLogger.log(Category.ENEMY_AI, Level.DEBUG, "Enemy at {} moved toward player to {}", enemyPos, nextStep);
+                }
+            }
+        } else {
+            if (GameRandom.nextInt(100) < 20) {
+                Position randomMove = getRandomAdjacentPosition(enemyPos);
+                if (randomMove != null && tryMoveWithLock(randomMove)) {
+                    GameLogger.log(Category.ENEMY_AI, Level.TRACE, "Enemy at {} moved randomly to {}", enemyPos, randomMove);
                 }
+            } else {
+                GameLogger.log(Category.ENEMY_AI, Level.TRACE, "Enemy at {} idles.", enemyPos);
+            }
+        }
+    }
+
+    private void attackPlayer(Position enemyPos, Position playerPos) {
+        // Health changes are atomic, so attacks need no lock unless a journal
+        // has to record them in order.
+        ReentrantLock orderLock = GameJournal.orderLock(world);
+        if (orderLock != null && !orderLock.tryLock()) {
+            GameLogger.log(Category.ENEMY_AI, Level.DEBUG, "Enemy at {} wanted to attack but player is busy.", enemyPos);
+            return;
+        }
+        try {
+            GameLogger.log(Category.ENEMY_AI, Level.INFO, "Enemy at {} attacks player at {}", enemyPos, playerPos);
+            long seed = ActionRandom.newSeed();
+            GameJournal journal = GameJournal.active();
+            int ordinal = journal != null ? GameJournal.ordinalOf(map, enemy) : -1;
+            ActionRandom.run(seed, () -> CombatSystem.resolveCombat(enemy, player, world));
+            if (ordinal >= 0) {
+                journal.enemyAttacked(enemyPos, ordinal, player, seed);
             }
         } finally {
-            map.unlockPosition(targetPos);
+            if (orderLock != null) orderLock.unlock();
         }
-        return false;
     }
 
-    private Position calculateStepTowards(Position from, Position to) {
-        int dRow = Integer.compare(to.getRow(), from.getRow());
-        int dCol = Integer.compare(to.getCol(), from.getCol());
-        return new Position(from.getRow() + dRow, from.getCol() + dCol);
+    private boolean tryMoveWithLock(Position targetPos) {
+        Position from = enemy.getPosition();
+        if (!map.tryLockMove(from, targetPos, 50)) return false;
+
+        boolean moved = false;
+        try {
+            if (!map.isOccupied(targetPos)) {
+                GameJournal journal = GameJournal.active();
+                if (journal != null) {
+                    journal.enemyMoved(from, GameJournal.ordinalOf(map, enemy), targetPos);
+                }
+                map.removeEntity(enemy);
+                enemy.setPosition(targetPos);
+                map.addEntity(enemy);
+                moved = true;
+            }
+        } finally {
+            map.unlockMove(from, targetPos);
+        }
+
+        if (moved) {
+            world.notifyGameStateChanged(world);
+        }
+        return moved;
     }
 
     private Position getRandomAdjacentPosition(Position pos) {
-        List<Position> options = List.of(
-                new Position(pos.getRow() + 1, pos.getCol()),
-                new Position(pos.getRow() - 1, pos.getCol()),
-                new Position(pos.getRow(), pos.getCol() + 1),
-                new Position(pos.getRow(), pos.getCol() - 1)
-        );
-        return options.get(random.nextInt(options.size()));
+        return switch (GameRandom.nextInt(4)) {
+            case 0 -> Position.of(pos.getRow() + 1, pos.getCol());
+            case 1 -> Position.of(pos.getRow() - 1, pos.getCol());
+            case 2 -> Position.of(pos.getRow(), pos.getCol() + 1);
+            default -> Position.of(pos.getRow(), pos.getCol() - 1);
+        };
     }
 }
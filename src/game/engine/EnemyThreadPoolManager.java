@@ -2,15 +2,17 @@ package game.engine;
 
 import game.characters.Enemy;
 import game.characters.PlayerCharacter;
+import game.core.GameRandom;
 import game.factories.EnemyFactory;
 import game.map.GameMap;
 import game.map.Position;
 
 import java.util.HashSet;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 
 public class EnemyThreadPoolManager {
 
@@ -19,24 +21,37 @@ public class EnemyThreadPoolManager {
     private static final double THREAD_RATIO = 0.03;
 
     private final ExecutorService threadPool;
+    private final int poolSize;
     private final Set<Enemy> activeEnemies = ConcurrentHashMap.newKeySet();
     private final PlayerCharacter player;
     private final GameMap map;
     private final GameWorld world;
     private final AtomicBoolean isRunning = new AtomicBoolean(true);
-    private final Random random = new Random();
+    // Spawns skipped because the map had no free cell, retried when an enemy dies.
+    private final AtomicInteger deferredSpawns = new AtomicInteger();
 
     public EnemyThreadPoolManager(PlayerCharacter player, GameMap map, GameWorld world) {
+        this(player, map, world, false);
+    }
+
+    /**
+     * @param useVirtualThreads true to run each enemy on its own virtual thread
+     *                          instead of a fixed pool of platform threads;
+     *                          ignored before JDK 21
+     */
+    public EnemyThreadPoolManager(PlayerCharacter player, GameMap map, GameWorld world, boolean useVirtualThreads) {
         this.player = player;
         this.map = map;
         this.world = world;
 
-        int poolSize = calculatePoolSize(map);
-        this.threadPool = Executors.newFixedThreadPool(poolSize);
+        this.poolSize = calculatePoolSize(map);
+        this.threadPool = useVirtualThreads
+                ? EnemyManager.newVirtualThreadExecutor(() -> Executors.newFixedThreadPool(poolSize))
+                : Executors.newFixedThreadPool(poolSize);
     }
 
     public void start() {
-        for (int i = 0; i < ((ThreadPoolExecutor) threadPool).getCorePoolSize(); i++) {
+        for (int i = 0; i < poolSize; i++) {
             spawnNewEnemy();
         }
     }
@@ -48,10 +63,21 @@ public class EnemyThreadPoolManager {
 
     private void spawnNewEnemy() {
         Position pos = getRandomFreePosition();
-        if (pos == null) return;
+        if (pos == null) {
+            int deferred = deferredSpawns.incrementAndGet();
+            GameLogger.log(GameLogger.Category.MAP, GameLogger.Level.WARN,
+                    "No free cell to spawn an enemy in; {} spawn(s) deferred", deferred);
+            return;
+        }
 
         Enemy enemy = EnemyFactory.createEnemy(pos, map);
-        map.addEntity(enemy);
+        Lock stateLock = world.getStateLock().readLock();
+        stateLock.lock();
+        try {
+            map.addEntity(enemy);
+        } finally {
+            stateLock.unlock();
+        }
         activeEnemies.add(enemy);
 
         EnemyThread task = new EnemyThread(enemy, player, map, world, isRunning) {
@@ -62,6 +88,7 @@ public class EnemyThreadPoolManager {
 
                 if (isRunning.get() && !threadPool.isShutdown()) {
                     spawnNewEnemy(); // ברגע שאויב מת – תוולד משימה חדשה
+                    retryDeferredSpawns();
                 }
             }
         };
@@ -69,17 +96,29 @@ public class EnemyThreadPoolManager {
         threadPool.submit(task);
     }
 
+    private void retryDeferredSpawns() {
+        // A failing retry defers itself again.
+        for (int n = deferredSpawns.getAndSet(0); n > 0; n--) {
+            spawnNewEnemy();
+        }
+    }
+
     private int calculatePoolSize(GameMap map) {
-        int mapSize = map.getGrid().size();
+        int mapSize = map.getOccupiedCount();
         return Math.max(MIN_THREADS, Math.min(MAX_THREADS, (int) Math.floor(mapSize * THREAD_RATIO)));
     }
 
     private Position getRandomFreePosition() {
-        // לוגיקה פשוטה למציאת מיקום פנוי (אפשר לשפר לפי הצורך)
+        if (map.isBounded()) {
+            // Constant time, and null only when every cell is taken.
+            return map.getRandomFreeCell(GameRandom.current());
+        }
+
+        // Unbounded map: probe near the origin.
         for (int i = 0; i < 100; i++) {
-            int row = random.nextInt(10);
-            int col = random.nextInt(10);
-            Position pos = new Position(row, col);
+            int row = GameRandom.nextInt(10);
+            int col = GameRandom.nextInt(10);
+            Position pos = Position.of(row, col);
             if (!map.isOccupied(pos)) {
                 return pos;
             }
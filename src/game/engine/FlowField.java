@@ -0,0 +1,168 @@
+package game.engine;
+
+import game.characters.PlayerCharacter;
+import game.core.GameEntity;
+import game.items.GameItem;
+import game.map.GameMap;
+import game.map.Position;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * FlowField: For every cell around a player, the step that leads toward the
+ * player, shared by all enemies chasing that player.
+ * <p>
+ * The field is a breadth-first search outward from the cells next to the
+ * player, over the square of {@link #RADIUS} cells around it, moving in
+ * eight directions like enemies do. Only walls and other blocking items are
+ * obstacles: they stay put, whereas characters and loot come and go every
+ * step, so the field is rebuilt only when the player moves or the map is
+ * replaced wholesale. An enemy's step is then one array lookup, whatever the
+ * number of enemies. If the cell it points to is taken, the enemy finds its
+ * own way with {@link PathfindingService}.
+ */
+public class FlowField {
+
+    /** How far from the player the field reaches: vision plus room to walk around walls. */
+    public static final int RADIUS = EnemyThread.VISION_RANGE + PathfindingService.MARGIN;
+
+    private static final int[] STEP_ROWS = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] STEP_COLS = {0, 0, -1, 1, -1, 1, -1, 1};
+
+    private final GameMap map;
+    private final PlayerCharacter player;
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private volatile Field current;
+
+    public FlowField(GameMap map, PlayerCharacter player) {
+        this.map = map;
+        this.player = player;
+    }
+
+    /**
+     * Returns the cell an enemy at {@code from} should step to toward the
+     * player, or null if it is next to the player already, out of the
+     * field's reach or walled off. The cell may be taken by another character.
+     */
+    public Position nextStep(Position from) {
+        Position target = player.getPosition();
+        if (target == null) return null;
+        return fieldFor(target).nextStep(from);
+    }
+
+    private Field fieldFor(Position target) {
+        int bulkVersion = map.getBulkVersion();
+        Field field = current;
+        if (field != null && field.isFor(target, bulkVersion)) return field;
+
+        buildLock.lock();
+        try {
+            field = current;
+            if (field == null || !field.isFor(target, bulkVersion)) {
+                field = build(target, bulkVersion);
+                current = field;
+            }
+            return field;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private Field build(Position target, int bulkVersion) {
+        int top = target.getRow() - RADIUS;
+        int left = target.getCol() - RADIUS;
+        int bottom = target.getRow() + RADIUS;
+        int right = target.getCol() + RADIUS;
+        if (map.isBounded()) {
+            top = Math.max(top, 0);
+            left = Math.max(left, 0);
+            bottom = Math.min(bottom, map.getRows() - 1);
+            right = Math.min(right, map.getCols() - 1);
+        }
+        int width = right - left + 1;
+        int cellCount = width * (bottom - top + 1);
+
+        // next[cell]: the cell to step to, GOAL next to the player, UNREACHED otherwise.
+        int[] next = new int[cellCount];
+        Arrays.fill(next, Field.UNREACHED);
+        int[] queue = new int[cellCount];
+        int head = 0;
+        int tail = 0;
+
+        for (int d = 0; d < 4; d++) { // the orthogonal neighbours are in attack range
+            int r = target.getRow() + STEP_ROWS[d];
+            int c = target.getCol() + STEP_COLS[d];
+            if (r < top || r > bottom || c < left || c > right || isBlocked(r, c)) continue;
+            int cell = (r - top) * width + (c - left);
+            next[cell] = Field.GOAL;
+            queue[tail++] = cell;
+        }
+        int targetCell = (target.getRow() - top) * width + (target.getCol() - left);
+        next[targetCell] = Field.GOAL;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int row = top + cell / width;
+            int col = left + cell % width;
+            for (int d = 0; d < STEP_ROWS.length; d++) {
+                int r = row + STEP_ROWS[d];
+                int c = col + STEP_COLS[d];
+                if (r < top || r > bottom || c < left || c > right) continue;
+                int neighbour = (r - top) * width + (c - left);
+                if (next[neighbour] != Field.UNREACHED || isBlocked(r, c)) continue;
+                next[neighbour] = cell;
+                queue[tail++] = neighbour;
+            }
+        }
+        return new Field(target, bulkVersion, top, left, width, next);
+    }
+
+    private boolean isBlocked(int row, int col) {
+        List<GameEntity> entities = map.getEntitiesAt(Position.of(row, col));
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.get(i) instanceof GameItem item && item.isBlocking()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * One built field. Never changed once published.
+     */
+    private static final class Field {
+        static final int UNREACHED = -2;
+        static final int GOAL = -1;
+
+        private final Position target;
+        private final int bulkVersion;
+        private final int top;
+        private final int left;
+        private final int width;
+        private final int rows;
+        private final int[] next;
+
+        Field(Position target, int bulkVersion, int top, int left, int width, int[] next) {
+            this.target = target;
+            this.bulkVersion = bulkVersion;
+            this.top = top;
+            this.left = left;
+            this.width = width;
+            this.rows = next.length / width;
+            this.next = next;
+        }
+
+        boolean isFor(Position target, int bulkVersion) {
+            return this.bulkVersion == bulkVersion && this.target.equals(target);
+        }
+
+        Position nextStep(Position from) {
+            int row = from.getRow() - top;
+            int col = from.getCol() - left;
+            if (row < 0 || row >= rows || col < 0 || col >= width) return null;
+            int step = next[row * width + col];
+            if (step < 0) return null;
+            return Position.of(top + step / width, left + step % width);
+        }
+    }
+}
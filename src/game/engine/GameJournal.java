@@ -0,0 +1,349 @@
+package game.engine;
+
+import game.characters.Enemy;
+import game.characters.PlayerCharacter;
+import game.core.GameEntity;
+import game.map.GameMap;
+import game.map.Position;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * GameJournal: Append-only log of everything that changes a running game, from
+ * which {@link ReplayEngine} can re-simulate the session.
+ * <p>
+ * The journal starts with a checkpoint of the whole world and then records,
+ * in the order they happened, player commands and enemy decisions. Anything
+ * decided by chance is recorded either as its outcome (where an enemy moved)
+ * or as the seed its rolls were drawn from ({@link game.core.ActionRandom}),
+ * so a replay reaches the same state. Entities are named by their cell and
+ * their place among the entities in that cell, which a replay reproduces
+ * because it applies the same map changes in the same order.
+ * <p>
+ * Events are recorded while the caller still holds the locks that order them
+ * against conflicting actions: the cell locks for moves and, while a journal
+ * is recorded, the player lock for anything touching a player (see
+ * {@link #orderLock(GameWorld)}).
+ * <p>
+ * Layout (fixed-size numbers big-endian): header int magic "DDJL", short
+ * version, short flags, long startMillis; then per event a type byte, a
+ * varint of milliseconds since the previous event and the event's fields.
+ * Positions and counts are varints, checks are zigzag varints, seeds are
+ * 8 bytes, and a checkpoint is a varint length followed by a
+ * {@link WorldSaveFile} image.
+ */
+public class GameJournal implements Closeable {
+
+    /** System property naming the journal file to record, e.g. {@code -Dgame.journal=session.journal}. */
+    public static final String PROPERTY = "game.journal";
+
+    static final int MAGIC = 0x44444A4C; // "DDJL"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    // Event types.
+    static final byte CHECKPOINT = 1;
+    static final byte PLAYER_MOVE = 2;
+    static final byte PLAYER_ATTACK = 3;
+    static final byte PLAYER_TAKE = 4;
+    static final byte PLAYER_USE_POTION = 5;
+    static final byte ENEMY_MOVE = 6;
+    static final byte ENEMY_ATTACK = 7;
+
+    private static final int FLUSH_BYTES = 64 * 1024;
+    private static final long FLUSH_NANOS = 1_000_000_000L;
+
+    private static volatile GameJournal active;
+
+    private final GameWorld world;
+    private final FileChannel channel;
+    private final long startNanos = System.nanoTime();
+
+    // Guards the buffer being appended to and the clock.
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private WorldSaveFile.Encoder out = new WorldSaveFile.Encoder(FLUSH_BYTES * 2);
+    private long lastMillis;
+    private long lastFlushNanos = startNanos;
+    private long eventCount;
+
+    // Held while a full buffer is written, so buffers reach the file in order.
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private WorldSaveFile.Encoder spare = new WorldSaveFile.Encoder(FLUSH_BYTES * 2);
+
+    private GameJournal(GameWorld world, FileChannel channel) {
+        this.world = world;
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the journal being recorded, or null if none is.
+     */
+    public static GameJournal active() {
+        return active;
+    }
+
+    /**
+     * Returns the lock that actions touching a player must hold so they are
+     * recorded in the order they took effect, or null if no journal is being
+     * recorded. Combat itself is lock-free; only the journal needs the order.
+     */
+    static ReentrantLock orderLock(GameWorld world) {
+        return active != null ? world.getPlayerLock() : null;
+    }
+
+    /**
+     * Starts recording the given world to a file, replacing any journal
+     * already being recorded. The world is checkpointed first; enemy AI is
+     * paused until recording has started, so no action falls in between.
+     */
+    public static GameJournal start(GameWorld world, Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        GameJournal journal = new GameJournal(world, channel);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(System.currentTimeMillis()).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+
+        Lock lock = world.getStateLock().writeLock();
+        lock.lock();
+        try {
+            journal.checkpoint(WorldSnapshot.capture(world));
+            GameJournal previous = active;
+            active = journal;
+            if (previous != null) previous.close();
+        } finally {
+            lock.unlock();
+        }
+        // The game usually ends with System.exit; write out what is buffered.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                journal.close();
+            } catch (IOException ignored) {
+                // nothing more can be done while exiting
+            }
+        }, "GameJournalClose"));
+        GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.INFO, "Recording game journal to {}", file);
+        return journal;
+    }
+
+    /**
+     * Records the whole world as it is in the given snapshot, e.g. after a
+     * restore. Callers must hold the world's state write lock.
+     */
+    public void checkpoint(WorldSnapshot snapshot) throws IOException {
+        ByteBuffer image = WorldSaveFile.encode(snapshot);
+        appendLock.lock();
+        try {
+            begin(CHECKPOINT);
+            out.varint(image.remaining());
+            out.put(image);
+        } finally {
+            appendLock.unlock();
+        }
+        flush();
+    }
+
+    void playerMoved(PlayerCharacter player, Position to) {
+        appendLock.lock();
+        try {
+            begin(PLAYER_MOVE);
+            out.varint(playerIndex(player));
+            putPosition(to);
+        } finally {
+            appendLock.unlock();
+        }
+        maybeFlush();
+    }
+
+    /**
+     * @param enemyPos where the enemy was when the attack started
+     * @param ordinal  the enemy's place among the entities in that cell
+     */
+    void playerAttacked(PlayerCharacter player, Position enemyPos, int ordinal, long seed, Enemy enemy) {
+        appendLock.lock();
+        try {
+            begin(PLAYER_ATTACK);
+            out.varint(playerIndex(player));
+            putPosition(enemyPos);
+            out.varint(ordinal);
+            out.putLong(seed);
+            out.zigzag(player.getHealth());
+            out.zigzag(enemy.getHealth());
+        } finally {
+            appendLock.unlock();
+        }
+        maybeFlush();
+    }
+
+    void playerTook(PlayerCharacter player, Position itemPos, int ordinal, long seed) {
+        appendLock.lock();
+        try {
+            begin(PLAYER_TAKE);
+            out.varint(playerIndex(player));
+            putPosition(itemPos);
+            out.varint(ordinal);
+            out.putLong(seed);
+            out.zigzag(player.getTreasurePoints());
+            out.varint(player.getInventory().getItems().size());
+        } finally {
+            appendLock.unlock();
+        }
+        maybeFlush();
+    }
+
+    void playerUsedPotion(PlayerCharacter player, boolean power) {
+        appendLock.lock();
+        try {
+            begin(PLAYER_USE_POTION);
+            out.varint(playerIndex(player));
+            out.put((byte) (power ? 1 : 0));
+            out.zigzag(player.getHealth());
+            out.zigzag(player.getPower());
+        } finally {
+            appendLock.unlock();
+        }
+        maybeFlush();
+    }
+
+    void enemyMoved(Position from, int ordinal, Position to) {
+        appendLock.lock();
+        try {
+            begin(ENEMY_MOVE);
+            putPosition(from);
+            out.varint(ordinal);
+            putPosition(to);
+        } finally {
+            appendLock.unlock();
+        }
+        maybeFlush();
+    }
+
+    void enemyAttacked(Position enemyPos, int ordinal, PlayerCharacter player, long seed) {
+        appendLock.lock();
+        try {
+            begin(ENEMY_ATTACK);
+            putPosition(enemyPos);
+            out.varint(ordinal);
+            out.varint(playerIndex(player));
+            out.putLong(seed);
+            out.zigzag(player.getHealth());
+        } finally {
+            appendLock.unlock();
+        }
+        maybeFlush();
+    }
+
+    /**
+     * Returns the place of an entity among the entities in its cell, or -1 if
+     * it is not on the map.
+     */
+    static int ordinalOf(GameMap map, GameEntity entity) {
+        Position pos = entity.getPosition();
+        if (pos == null) return -1;
+        List<GameEntity> cell = map.getEntitiesAt(pos);
+        for (int i = 0; i < cell.size(); i++) {
+            if (cell.get(i) == entity) return i;
+        }
+        return -1;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    private void begin(byte type) {
+        long now = (System.nanoTime() - startNanos) / 1_000_000;
+        long delta = Math.max(0, now - lastMillis);
+        lastMillis += delta;
+        out.put(type);
+        out.varint(delta);
+        eventCount++;
+    }
+
+    private void putPosition(Position pos) {
+        out.varint(pos.getRow());
+        out.varint(pos.getCol());
+    }
+
+    private int playerIndex(PlayerCharacter player) {
+        List<PlayerCharacter> players = world.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i) == player) return i;
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the buffer out once it is large or old enough. Does nothing if
+     * another thread is already writing.
+     */
+    private void maybeFlush() {
+        // Unlocked reads: at worst a flush is a little early or late.
+        if (out.buf.position() < FLUSH_BYTES && System.nanoTime() - lastFlushNanos < FLUSH_NANOS) return;
+        if (!writeLock.tryLock()) return;
+        try {
+            writeOut();
+        } catch (IOException e) {
+            GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.WARN, "Journal write failed: {}", e.toString());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every event recorded so far to the file.
+     */
+    public void flush() throws IOException {
+        writeLock.lock();
+        try {
+            writeOut();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeOut() throws IOException {
+        WorldSaveFile.Encoder full;
+        appendLock.lock();
+        try {
+            full = out;
+            out = spare;
+            lastFlushNanos = System.nanoTime();
+        } finally {
+            appendLock.unlock();
+        }
+        full.buf.flip();
+        while (full.buf.hasRemaining()) {
+            channel.write(full.buf);
+        }
+        full.buf.clear();
+        spare = full;
+    }
+
+    /**
+     * Writes out the remaining events and stops recording.
+     */
+    @Override
+    public void close() throws IOException {
+        if (active == this) active = null;
+        writeLock.lock();
+        try {
+            if (!channel.isOpen()) return;
+            writeOut();
+            channel.force(true);
+            channel.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
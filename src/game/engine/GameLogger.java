@@ -1,40 +1,311 @@
 package game.engine;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * GameLogger: Handles asynchronous logging of game events.
  * Events are written to log.txt using a dedicated thread.
+ * <p>
+ * Two modes are available, chosen with the {@code game.log.mode} system property:
+ * <ul>
+ *     <li>{@code simple} (default): unbounded queue, every line is flushed as soon as it is written.</li>
+ *     <li>{@code batched}: bounded queue drained in batches into a byte buffer, flushed when
+ *     {@code game.log.flushBytes} bytes are pending or every {@code game.log.flushMillis} ms.
+ *     When the queue ({@code game.log.capacity}) is full, {@code game.log.overflow} decides
+ *     whether new messages are dropped, block the caller, or are sampled.</li>
+ * </ul>
+ * Messages can be tagged with a {@link Category} and a {@link Level}. A message is written only
+ * if its level is at least {@code game.log.level} and its category is not listed in
+ * {@code game.log.disabled} (comma separated). The template and {@link Supplier} overloads build
+ * the message only when it will be written, so disabled call sites cost a flag check.
  */
 public class GameLogger {
 
-    private static final BlockingQueue<String> logQueue = new LinkedBlockingQueue<>();
+    /**
+     * What to do with a message when the bounded queue of the batched mode is full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the message. */
+        DROP,
+        /** Wait until the logger thread makes room. */
+        BLOCK,
+        /** Keep one message out of every {@code game.log.sampleRate}, discard the rest. */
+        SAMPLE
+    }
+
+    /**
+     * The part of the game a message comes from.
+     */
+    public enum Category {
+        GENERAL,
+        ENEMY_AI,
+        COMBAT,
+        MAP,
+        PLAYER
+    }
+
+    /**
+     * Importance of a message, from chatter to significant events.
+     */
+    public enum Level {
+        /** Per-tick chatter such as idling enemies. */
+        TRACE,
+        /** Routine state changes such as movement. */
+        DEBUG,
+        /** Significant game events. */
+        INFO,
+        /** Problems worth attention. */
+        WARN
+    }
+
     private static final String LOG_FILE = "log.txt";
+
+    // Bad game.log.* values found while the class initializes, logged once the logger runs.
+    private static final List<String> configWarnings = new ArrayList<>();
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final boolean batched = "batched".equalsIgnoreCase(System.getProperty("game.log.mode", "simple"));
+    private static final int capacity = atLeastOne("game.log.capacity", 65_536);
+    private static final int batchSize = atLeastOne("game.log.batchSize", 512);
+    private static final int flushBytes = atLeastOne("game.log.flushBytes", 64 * 1024);
+    private static final long flushMillis = Long.getLong("game.log.flushMillis", 200);
+    private static final int sampleRate = atLeastOne("game.log.sampleRate", 16);
+    private static final OverflowPolicy overflowPolicy =
+            enumProperty("game.log.overflow", OverflowPolicy.class, OverflowPolicy.DROP);
+
+    private static final BlockingQueue<String> logQueue =
+            batched ? new ArrayBlockingQueue<>(capacity) : new LinkedBlockingQueue<>();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong overflowCount = new AtomicLong();
     private static volatile boolean running = true;
 
+    private static volatile Level minimumLevel = enumProperty("game.log.level", Level.class, Level.TRACE);
+    private static volatile boolean[] categoryEnabled = new boolean[Category.values().length]; // replaced, never mutated, once published
+
+    // Timestamp cache, used only by the logger thread.
+    private static long cachedSecond = Long.MIN_VALUE;
+    private static String cachedTimestamp;
+
     static {
-        Thread loggerThread = new Thread(() -> {
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE, true))) {
-                while (running || !logQueue.isEmpty()) {
-                    String message = logQueue.take();
-                    String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                    writer.write("[" + timestamp + "] " + message);
-                    writer.newLine();
-                    writer.flush();
-                }
-            } catch (IOException | InterruptedException e) {
-                System.err.println("Logger stopped: " + e.getMessage());
-                Thread.currentThread().interrupt();
+        Arrays.fill(categoryEnabled, true);
+        for (String name : System.getProperty("game.log.disabled", "").split(",")) {
+            if (name.isBlank()) continue;
+            Category category = parseEnum(Category.class, name);
+            if (category != null) {
+                categoryEnabled[category.ordinal()] = false;
+            } else {
+                configWarnings.add("Unknown log category '" + name.trim() + "' in game.log.disabled, ignored");
             }
-        }, "GameLoggerThread");
+        }
+
+        Thread loggerThread = new Thread(batched ? GameLogger::runBatched : GameLogger::runSimple, "GameLoggerThread");
         loggerThread.setDaemon(true);
         loggerThread.start();
+
+        for (String warning : configWarnings) {
+            log(Category.GENERAL, Level.WARN, warning);
+        }
+
+        if (batched) {
+            // the batched writer holds unflushed lines; give it a moment to write them on exit
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                running = false;
+                try {
+                    loggerThread.join(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "GameLoggerShutdown"));
+        }
+    }
+
+    /**
+     * Reads an enum constant from a system property, ignoring case. An unknown
+     * value is reported and the fallback used, so a typo in a -D flag cannot
+     * stop the game from starting.
+     */
+    private static <E extends Enum<E>> E enumProperty(String property, Class<E> type, E fallback) {
+        String value = System.getProperty(property);
+        if (value == null) return fallback;
+        E parsed = parseEnum(type, value);
+        if (parsed != null) return parsed;
+        configWarnings.add("Unknown value '" + value + "' for " + property + ", using " + fallback);
+        return fallback;
+    }
+
+    /**
+     * Reads a size or rate from a system property. A value below 1 would make
+     * the queue or the write buffer throw while the class initializes, so it
+     * is reported and raised to 1.
+     */
+    private static int atLeastOne(String property, int fallback) {
+        int value = Integer.getInteger(property, fallback);
+        if (value >= 1) return value;
+        configWarnings.add("Value " + value + " for " + property + " is below 1, using 1");
+        return 1;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value.trim())) return constant;
+        }
+        return null;
+    }
+
+    private static void runSimple() {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE, true))) {
+            while (running || !logQueue.isEmpty()) {
+                String message = logQueue.take();
+                writer.write(timestamp() + message);
+                writer.newLine();
+                writer.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Logger stopped: " + e.getMessage());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void runBatched() {
+        List<String> batch = new ArrayList<>(batchSize);
+        StringBuilder text = new StringBuilder(batchSize * 64);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(LOG_FILE, true), flushBytes)) {
+            long pendingBytes = 0;
+            long lastFlush = System.currentTimeMillis();
+
+            while (running || !logQueue.isEmpty()) {
+                String first = logQueue.poll(flushMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    logQueue.drainTo(batch, batchSize - 1);
+                }
+
+                long lost = dropped.getAndSet(0);
+                if (!batch.isEmpty() || lost > 0) {
+                    String stamp = timestamp();
+                    if (lost > 0) {
+                        text.append(stamp).append("(dropped ").append(lost).append(" log messages)").append(System.lineSeparator());
+                    }
+                    for (String message : batch) {
+                        text.append(stamp).append(message).append(System.lineSeparator());
+                    }
+                    byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                    out.write(bytes);
+                    pendingBytes += bytes.length;
+                    text.setLength(0);
+                    batch.clear();
+                }
+
+                long now = System.currentTimeMillis();
+                if (pendingBytes > 0 && (pendingBytes >= flushBytes || now - lastFlush >= flushMillis)) {
+                    out.flush();
+                    pendingBytes = 0;
+                    lastFlush = now;
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Logger stopped: " + e.getMessage());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns "[yyyy-MM-dd HH:mm:ss] ", formatted at most once per second.
+     */
+    private static String timestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTimestamp = "[" + LocalDateTime.now().format(TIMESTAMP_FORMAT) + "] ";
+        }
+        return cachedTimestamp;
+    }
+
+    /**
+     * Returns true if messages of this category and level are currently written.
+     */
+    public static boolean isEnabled(Category category, Level level) {
+        return running && categoryEnabled[category.ordinal()] && level.compareTo(minimumLevel) >= 0;
+    }
+
+    /**
+     * Turns all messages of a category on or off.
+     */
+    public static void setEnabled(Category category, boolean enabled) {
+        synchronized (GameLogger.class) {
+            boolean[] updated = categoryEnabled.clone();
+            updated[category.ordinal()] = enabled;
+            categoryEnabled = updated;
+        }
+    }
+
+    /**
+     * Sets the lowest level that is written.
+     */
+    public static void setMinimumLevel(Level level) {
+        minimumLevel = level;
+    }
+
+    public static void log(Category category, Level level, String message) {
+        if (isEnabled(category, level)) log(message);
+    }
+
+    /**
+     * Logs a message built by the supplier, which is called only if the message is enabled.
+     */
+    public static void log(Category category, Level level, Supplier<String> message) {
+        if (isEnabled(category, level)) log(message.get());
+    }
+
+    /**
+     * Logs a template in which each {@code {}} is replaced by the next argument.
+     * The message is formatted only if it is enabled.
+     */
+    public static void log(Category category, Level level, String template, Object arg) {
+        if (isEnabled(category, level)) log(format(template, arg, null, null));
+    }
+
+    public static void log(Category category, Level level, String template, Object arg1, Object arg2) {
+        if (isEnabled(category, level)) log(format(template, arg1, arg2, null));
+    }
+
+    public static void log(Category category, Level level, String template, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(category, level)) log(format(template, arg1, arg2, arg3));
+    }
+
+    private static String format(String template, Object arg1, Object arg2, Object arg3) {
+        StringBuilder sb = new StringBuilder(template.length() + 32);
+        int argIndex = 0;
+        int from = 0;
+        int at;
+        while ((at = template.indexOf("{}", from)) >= 0) {
+            sb.append(template, from, at);
+            Object arg = switch (argIndex++) {
+                case 0 -> arg1;
+                case 1 -> arg2;
+                default -> arg3;
+            };
+            sb.append(arg);
+            from = at + 2;
+        }
+        return sb.append(template, from, template.length()).toString();
     }
 
     /**
@@ -42,11 +313,39 @@ public class GameLogger {
      * @param message the log message
      */
     public static void log(String message) {
-        if (running) {
-            logQueue.offer(message);
+        if (!running) return;
+        if (logQueue.offer(message)) return;
+
+        // Only the bounded queue of the batched mode can be full.
+        switch (overflowPolicy) {
+            case DROP -> dropped.incrementAndGet();
+            case BLOCK -> put(message);
+            case SAMPLE -> {
+                if (overflowCount.incrementAndGet() % sampleRate == 0) {
+                    put(message);
+                } else {
+                    dropped.incrementAndGet();
+                }
+            }
         }
     }
 
+    private static void put(String message) {
+        try {
+            logQueue.put(message);
+        } catch (InterruptedException e) {
+            dropped.incrementAndGet();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of messages dropped since the last batch was written.
+     */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
     /**
      * Shuts down the logger gracefully.
      */
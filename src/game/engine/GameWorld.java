@@ -5,13 +5,19 @@ package game.engine;
 import game.characters.PlayerCharacter;
 import game.characters.Enemy;
 import game.combat.LootDropper;
+import game.core.GameEntity;
+import game.engine.GameLogger.Category;
+import game.engine.GameLogger.Level;
 import game.items.GameItem;
 import game.items.Treasure;
 import game.map.GameMap;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Represents the central world state of the game.
@@ -29,9 +35,21 @@ public class GameWorld extends GameObservable {
     private List<GameItem> items;
     private GameMap map;
 
-    // Lock to synchronize enemy attacks on the player
+    // Orders actions touching a player while a GameJournal records them.
     private final ReentrantLock playerLock = new ReentrantLock(true);
 
+    // One per chased player, shared by every enemy chasing it.
+    private final Map<PlayerCharacter, FlowField> flowFields = new IdentityHashMap<>();
+
+    // Enemy steps and player commands (PlayerActions) hold the read lock;
+    // world snapshots hold the write lock, so they see and restore a state no
+    // action is half-way through. Code that changes the world outside those
+    // two paths must take the read lock as well.
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    // Set while an autosave copies the world in slices; see SlicedCapture.
+    private volatile WorldChangeLog changeLog;
+
     public GameWorld(GameMap map) {
         this.players = new ArrayList<>();
         this.enemies = new ArrayList<>();
@@ -60,11 +78,59 @@ public class GameWorld extends GameObservable {
         return playerLock;
     }
 
+    public ReentrantReadWriteLock getStateLock() {
+        return stateLock;
+    }
+
+    /**
+     * Tells a world snapshot being taken in slices that the entity's state
+     * may have changed, so it is copied again. Called by actions holding the
+     * state read lock for each entity they may change; costs a volatile read
+     * when no such snapshot is running.
+     */
+    public void markChanged(GameEntity entity) {
+        WorldChangeLog log = changeLog;
+        if (log != null) log.changed(entity);
+    }
+
+    // Caller holds the state write lock.
+    WorldChangeLog startChangeLog() {
+        int entities = players.size() + enemies.size() + items.size();
+        WorldChangeLog log = new WorldChangeLog(Math.max(SlicedCapture.MIN_LOG_LIMIT, entities));
+        changeLog = log;
+        return log;
+    }
+
+    void stopChangeLog() {
+        changeLog = null;
+    }
+
+    private void logJoined(GameEntity entity, byte section) {
+        WorldChangeLog log = changeLog;
+        if (log != null) log.joined(entity, section);
+    }
+
+    private void logLeft(GameEntity entity, byte section) {
+        WorldChangeLog log = changeLog;
+        if (log != null) log.left(entity, section);
+    }
+
+    /**
+     * Returns the flow field leading enemies to the given player, creating it
+     * on first use.
+     */
+    public FlowField getFlowField(PlayerCharacter player) {
+        synchronized (flowFields) {
+            return flowFields.computeIfAbsent(player, p -> new FlowField(map, p));
+        }
+    }
+
     public boolean addPlayer(PlayerCharacter p) {
         if (p == null) return false;
         boolean added = players.add(p);
         if (added) {
-            GameLogger.log("Player added to world: " + p.getName());
+            logJoined(p, SlicedCapture.PLAYERS);
+            GameLogger.log(Category.MAP, Level.INFO, "Player added to world: {}", p.getName());
             notifyGameStateChanged(this);
         }
         return added;
@@ -74,7 +140,8 @@ public class GameWorld extends GameObservable {
         if (e == null) return false;
         boolean added = enemies.add(e);
         if (added) {
-            GameLogger.log("Enemy added to world at position: " + e.getPosition());
+            logJoined(e, SlicedCapture.ENEMIES);
+            GameLogger.log(Category.MAP, Level.DEBUG, "Enemy added to world at position: {}", e.getPosition());
             notifyGameStateChanged(this);
         }
         return added;
@@ -84,7 +151,8 @@ public class GameWorld extends GameObservable {
         if (item == null) return false;
         boolean added = items.add(item);
         if (added) {
-            GameLogger.log("Item added to world: " + item.getClass().getSimpleName());
+            logJoined(item, SlicedCapture.ITEMS);
+            GameLogger.log(Category.MAP, Level.DEBUG, "Item added to world: {}", item.getClass().getSimpleName());
             notifyGameStateChanged(this);
         }
         return added;
@@ -93,7 +161,8 @@ public class GameWorld extends GameObservable {
     public boolean removeEnemy(Enemy e) {
         boolean removed = enemies.remove(e);
         if (removed) {
-            GameLogger.log("Enemy removed from world at position: " + e.getPosition());
+            logLeft(e, SlicedCapture.ENEMIES);
+            GameLogger.log(Category.MAP, Level.DEBUG, "Enemy removed from world at position: {}", e.getPosition());
             notifyGameStateChanged(this);
         }
         return removed;
@@ -102,12 +171,31 @@ public class GameWorld extends GameObservable {
     public boolean removeItem(GameItem item) {
         boolean removed = items.remove(item);
         if (removed) {
-            GameLogger.log("Item removed from world: " + item.getClass().getSimpleName());
+            logLeft(item, SlicedCapture.ITEMS);
+            GameLogger.log(Category.MAP, Level.DEBUG, "Item removed from world: {}", item.getClass().getSimpleName());
             notifyGameStateChanged(this);
         }
         return removed;
     }
 
+    /**
+     * Replaces the players, enemies and items of the world in place, so code
+     * holding the lists sees the new content, and notifies listeners once.
+     * Used when a saved game is restored; the map is not touched.
+     */
+    public void restoreContents(List<PlayerCharacter> players, List<Enemy> enemies, List<GameItem> items) {
+        WorldChangeLog log = changeLog;
+        if (log != null) log.invalidate();
+        this.players.clear();
+        this.players.addAll(players);
+        this.enemies.clear();
+        this.enemies.addAll(enemies);
+        this.items.clear();
+        this.items.addAll(items);
+        GameLogger.log(Category.MAP, Level.INFO, "World restored: {}", this);
+        notifyGameStateChanged(this);
+    }
+
     public boolean handleLootDrop(LootDropper source) {
         if (source == null) return false;
         Treasure t = source.generateLoot();
@@ -115,7 +203,7 @@ public class GameWorld extends GameObservable {
 
         boolean added = addItem(t);
         map.addEntity(t);
-        GameLogger.log("Treasure dropped at: " + t.getPosition());
+        GameLogger.log(Category.MAP, Level.INFO, "Treasure dropped at: {}", t.getPosition());
         return added;
     }
 
@@ -3,10 +3,11 @@
 package game.engine;
 
 import game.characters.*;
+import game.core.GameRandom;
 import game.items.*;
 import game.map.*;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Populates the game map with enemies, walls, and potions
@@ -19,9 +20,13 @@ import java.util.Random;
  *     <li>5% chance: power potion</li>
  * </ul>
  * The player's position is left untouched.
+ * The enemy share can be changed, in which case the empty share shrinks or grows to match.
  */
 public class MapPopulator {
 
+    public static final int DEFAULT_ENEMY_PERCENT = 30;
+    public static final int MAX_ENEMY_PERCENT = 70;
+
     /**
      * Fills the game map grid with entities randomly based on probabilities.
      *
@@ -30,12 +35,30 @@ public class MapPopulator {
      * @param playerPos the starting position of the player, which should remain empty
      */
     public static void populateMap(GameWorld world, int size, Position playerPos) {
+        populateMap(world, size, playerPos, GameRandom.current(), DEFAULT_ENEMY_PERCENT);
+    }
+
+    /**
+     * Fills the game map grid using the given random source and enemy share.
+     *
+     * @param world        the GameWorld object containing the map, items, and enemies
+     * @param size         the size of the square map (size x size)
+     * @param playerPos    the starting position of the player, which should remain empty
+     * @param rand         the random source used for all rolls
+     * @param enemyPercent chance (0–70) that a cell holds an enemy
+     */
+    public static void populateMap(GameWorld world, int size, Position playerPos, RandomGenerator rand, int enemyPercent) {
+        if (enemyPercent < 0 || enemyPercent > MAX_ENEMY_PERCENT) {
+            throw new IllegalArgumentException("Enemy percent must be between 0 and " + MAX_ENEMY_PERCENT + ": " + enemyPercent);
+        }
+        int emptyBelow = MAX_ENEMY_PERCENT - enemyPercent;
+
         GameMap map = world.getMap();
-        Random rand = new Random();
+        map.useBoundedGrid(size, size); // size is known here, so switch to array-backed cells
 
         for (int row = 0; row < size; row++) {
             for (int col = 0; col < size; col++) {
-                Position pos = new Position(row, col);
+                Position pos = Position.of(row, col);
 
                 if (map.isOccupied(pos)) continue; // skip if occupied
 
@@ -45,11 +68,11 @@ public class MapPopulator {
 
                 int roll = rand.nextInt(100); // roll between 0–99
 
-                if (roll < 40) {
-                    // 0–39: 40% chance → leave empty
+                if (roll < emptyBelow) {
+                    // 0–39 by default: 40% chance → leave empty
                     continue;
-                } else if (roll < 70) {
-                    // 40–69: 30% chance → enemy
+                } else if (roll < MAX_ENEMY_PERCENT) {
+                    // 40–69 by default: 30% chance → enemy
                     int enemyType = rand.nextInt(3); // 0–2
                     Enemy enemy = switch (enemyType) {
                         case 0 -> new Goblin(pos);
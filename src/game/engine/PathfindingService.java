@@ -0,0 +1,273 @@
+package game.engine;
+
+import game.map.GameMap;
+import game.map.Position;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * PathfindingService: Finds the way for an enemy to reach the player around
+ * walls, items and other characters, using A* over the cells the map reports
+ * as occupied.
+ * <p>
+ * A search covers the box spanned by the enemy and the player, grown by
+ * {@link #MARGIN} cells on every side, and moves in eight directions like
+ * the old straight-line chase did. It ends next to the player, where the
+ * enemy can attack. The arrays a search works in are borrowed from a shared
+ * pool for the length of one search, so there are only as many of them as
+ * searches ever ran at once, however many threads or enemies there are.
+ * <p>
+ * Each enemy keeps its path in a {@link Route}. The route remembers the
+ * version of every cell on it ({@link GameMap#getCellVersion(Position)}) and
+ * is only searched again once one of the cells still ahead changes, the
+ * player moves out of reach of its end, or the enemy is not where the route
+ * left it. When no path exists, the enemy waits a few steps before it
+ * searches again.
+ */
+public class PathfindingService {
+
+    /** Cells of slack around the enemy and the player that a search may detour through. */
+    public static final int MARGIN = 4;
+
+    // Steps to wait after a search that found no path.
+    private static final int RETRY_STEPS = 4;
+
+    private static final int[] STEP_ROWS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] STEP_COLS = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    // Searches not in use by any thread.
+    private static final ConcurrentLinkedQueue<Search> idleSearches = new ConcurrentLinkedQueue<>();
+
+    private final GameMap map;
+
+    public PathfindingService(GameMap map) {
+        this.map = map;
+    }
+
+    /**
+     * Returns the cell an enemy at {@code from} should step to next on its
+     * way to {@code target}, or null if it is already next to the target or
+     * no path is known. The caller is expected to try the step; if it fails
+     * because the cell was taken, the route notices the change next time.
+     */
+    public Position nextStep(Route route, Position from, Position target) {
+        if (from.distanceTo(target) <= 1) return null;
+
+        if (route.isValid(map, from, target)) {
+            return route.cells[route.next];
+        }
+        if (route.retryIn > 0 && from.equals(route.start) && target.equals(route.goal)) {
+            route.retryIn--;
+            return null;
+        }
+
+        Search search = idleSearches.poll();
+        if (search == null) search = new Search();
+        try {
+            search.find(map, from, target, route);
+        } finally {
+            idleSearches.offer(search);
+        }
+        if (route.length == 0) {
+            route.retryIn = RETRY_STEPS;
+            GameLogger.log(GameLogger.Category.ENEMY_AI, GameLogger.Level.TRACE, "No path from {} to {}", from, target);
+            return null;
+        }
+        return route.cells[0];
+    }
+
+    /**
+     * The path one enemy is following. Not thread-safe; each enemy owns one.
+     */
+    public static final class Route {
+        private Position[] cells = new Position[16];
+        private long[] versions = new long[16];
+        private int length;
+        private int next;
+        private Position start;
+        private Position goal;
+        private int retryIn;
+
+        /**
+         * Forgets the path, so the next step searches again.
+         */
+        public void clear() {
+            length = 0;
+            next = 0;
+            retryIn = 0;
+        }
+
+        private boolean isValid(GameMap map, Position from, Position target) {
+            // Step past the cell the enemy moved into since the last call.
+            if (next < length && cells[next].equals(from)) next++;
+            if (next >= length) return false;
+
+            Position at = next == 0 ? start : cells[next - 1];
+            if (!at.equals(from)) return false;
+            if (cells[length - 1].distanceTo(target) > 1) return false;
+            for (int i = next; i < length; i++) {
+                if (map.getCellVersion(cells[i]) != versions[i]) return false;
+            }
+            return true;
+        }
+
+        private void reset(Position start, Position goal, int length) {
+            if (cells.length < length) {
+                cells = new Position[Math.max(length, cells.length * 2)];
+                versions = new long[cells.length];
+            }
+            this.start = start;
+            this.goal = goal;
+            this.length = length;
+            this.next = 0;
+            this.retryIn = 0;
+        }
+    }
+
+    /**
+     * The working set of a search, used by one thread at a time: g-scores, parents and a
+     * binary heap over the cells of the search box, indexed by cell. Marks
+     * are compared against a counter bumped per search instead of clearing
+     * the arrays each time.
+     */
+    private static final class Search {
+        private int[] g = new int[0];
+        private int[] parent = new int[0];
+        private int[] seen = new int[0];   // == mark: g and parent are set
+        private int[] closed = new int[0]; // == mark: expanded
+        private int mark;
+
+        // Min-heap of (key, cell) pairs.
+        private int[] heapKeys = new int[0];
+        private int[] heapCells = new int[0];
+        private int heapSize;
+
+        void find(GameMap map, Position from, Position target, Route route) {
+            int top = Math.min(from.getRow(), target.getRow()) - MARGIN;
+            int left = Math.min(from.getCol(), target.getCol()) - MARGIN;
+            int bottom = Math.max(from.getRow(), target.getRow()) + MARGIN;
+            int right = Math.max(from.getCol(), target.getCol()) + MARGIN;
+            if (map.isBounded()) {
+                top = Math.max(top, 0);
+                left = Math.max(left, 0);
+                bottom = Math.min(bottom, map.getRows() - 1);
+                right = Math.min(right, map.getCols() - 1);
+            }
+            int width = right - left + 1;
+            int cellCount = width * (bottom - top + 1);
+            prepare(cellCount);
+
+            int targetRow = target.getRow();
+            int targetCol = target.getCol();
+            int startCell = (from.getRow() - top) * width + (from.getCol() - left);
+            g[startCell] = 0;
+            parent[startCell] = -1;
+            seen[startCell] = mark;
+            push(heuristic(from.getRow(), from.getCol(), targetRow, targetCol), startCell);
+
+            int goalCell = -1;
+            while (heapSize > 0) {
+                int cell = pop();
+                if (closed[cell] == mark) continue; // stale heap entry
+                closed[cell] = mark;
+
+                int row = top + cell / width;
+                int col = left + cell % width;
+                if (cell != startCell && Math.abs(row - targetRow) + Math.abs(col - targetCol) <= 1) {
+                    goalCell = cell;
+                    break;
+                }
+
+                int nextG = g[cell] + 1;
+                for (int d = 0; d < STEP_ROWS.length; d++) {
+                    int r = row + STEP_ROWS[d];
+                    int c = col + STEP_COLS[d];
+                    if (r < top || r > bottom || c < left || c > right) continue;
+                    int neighbour = (r - top) * width + (c - left);
+                    if (closed[neighbour] == mark) continue;
+                    if (seen[neighbour] == mark && g[neighbour] <= nextG) continue;
+                    if (map.isOccupied(Position.of(r, c))) continue;
+                    g[neighbour] = nextG;
+                    parent[neighbour] = cell;
+                    seen[neighbour] = mark;
+                    push(nextG + heuristic(r, c, targetRow, targetCol), neighbour);
+                }
+            }
+
+            if (goalCell < 0) {
+                route.reset(from, target, 0);
+                return;
+            }
+            int length = g[goalCell];
+            route.reset(from, target, length);
+            for (int cell = goalCell, i = length - 1; i >= 0; cell = parent[cell], i--) {
+                Position pos = Position.of(top + cell / width, left + cell % width);
+                route.cells[i] = pos;
+                route.versions[i] = map.getCellVersion(pos);
+            }
+        }
+
+        /**
+         * A lower bound on the steps left: one step closes at most one row
+         * and one column, and the path ends one cell short of the target.
+         */
+        private static int heuristic(int row, int col, int targetRow, int targetCol) {
+            return Math.max(0, Math.max(Math.abs(row - targetRow), Math.abs(col - targetCol)) - 1);
+        }
+
+        private void prepare(int cellCount) {
+            if (g.length < cellCount) {
+                int size = Math.max(cellCount, g.length * 2);
+                g = new int[size];
+                parent = new int[size];
+                seen = new int[size];
+                closed = new int[size];
+                mark = 0;
+            }
+            if (++mark == 0) { // wrapped around; old marks could match again
+                Arrays.fill(seen, 0);
+                Arrays.fill(closed, 0);
+                mark = 1;
+            }
+            heapSize = 0;
+        }
+
+        private void push(int key, int cell) {
+            if (heapSize == heapKeys.length) {
+                int size = Math.max(16, heapSize * 2);
+                heapKeys = Arrays.copyOf(heapKeys, size);
+                heapCells = Arrays.copyOf(heapCells, size);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int up = (i - 1) >>> 1;
+                if (heapKeys[up] <= key) break;
+                heapKeys[i] = heapKeys[up];
+                heapCells[i] = heapCells[up];
+                i = up;
+            }
+            heapKeys[i] = key;
+            heapCells[i] = cell;
+        }
+
+        private int pop() {
+            int result = heapCells[0];
+            int key = heapKeys[--heapSize];
+            int cell = heapCells[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) break;
+                if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) child++;
+                if (heapKeys[child] >= key) break;
+                heapKeys[i] = heapKeys[child];
+                heapCells[i] = heapCells[child];
+                i = child;
+            }
+            heapKeys[i] = key;
+            heapCells[i] = cell;
+            return result;
+        }
+    }
+}
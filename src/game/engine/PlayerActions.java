@@ -0,0 +1,181 @@
+package game.engine;
+
+import game.characters.Enemy;
+import game.characters.PlayerCharacter;
+import game.combat.CombatSystem;
+import game.core.ActionRandom;
+import game.items.GameItem;
+import game.items.Interactable;
+import game.items.Potion;
+import game.map.GameMap;
+import game.map.Position;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PlayerActions: The commands a player can give, applied to the world.
+ * Shared by the GUI, the headless bot and {@link ReplayEngine}, so that a
+ * recorded session replays through the same code it was played with.
+ * Every command is recorded in the active {@link GameJournal}, if any, and
+ * then runs under the journal's order lock; otherwise combat needs no lock
+ * beyond the cells involved. Like an enemy step, every command holds the
+ * world's state read lock, so a world snapshot never sees one half-way.
+ */
+public final class PlayerActions {
+
+    private static final long CELL_LOCK_TIMEOUT_MILLIS = 50;
+
+    private PlayerActions() {
+    }
+
+    /**
+     * Moves the player to a free cell.
+     *
+     * @return true if the player moved, false if the cell was taken or locked
+     */
+    public static boolean move(GameWorld world, PlayerCharacter player, Position target) {
+        // Shared with enemy steps; a world snapshot takes it exclusively.
+        Lock stateLock = world.getStateLock().readLock();
+        stateLock.lock();
+        try {
+            GameMap map = world.getMap();
+            Position from = player.getPosition();
+            if (!map.tryLockMove(from, target, CELL_LOCK_TIMEOUT_MILLIS)) return false;
+            ReentrantLock orderLock = GameJournal.orderLock(world);
+            if (orderLock != null) orderLock.lock();
+            try {
+                if (!map.canMoveTo(target, player)) return false; // an enemy stepped in first
+                world.markChanged(player);
+                map.removeEntity(player);
+                player.setPosition(target);
+                map.addEntity(player);
+                GameJournal journal = GameJournal.active();
+                if (journal != null) journal.playerMoved(player, target);
+                return true;
+            } finally {
+                if (orderLock != null) orderLock.unlock();
+                map.unlockMove(from, target);
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * The player attacks an enemy, which strikes back if it survives.
+     * A defeated enemy is taken off the map.
+     *
+     * @return true if this attack defeated the enemy
+     */
+    public static boolean attack(GameWorld world, PlayerCharacter player, Enemy enemy) {
+        return attack(world, player, enemy, ActionRandom.newSeed());
+    }
+
+    static boolean attack(GameWorld world, PlayerCharacter player, Enemy enemy, long seed) {
+        Lock stateLock = world.getStateLock().readLock();
+        stateLock.lock();
+        try {
+            GameMap map = world.getMap();
+            // Holding the enemy's cell keeps it from moving away mid-fight.
+            Position at = enemy.getPosition();
+            boolean cellLocked = map.tryLockPosition(at, CELL_LOCK_TIMEOUT_MILLIS);
+            ReentrantLock orderLock = GameJournal.orderLock(world);
+            if (orderLock != null) orderLock.lock();
+            try {
+                int ordinal = GameJournal.ordinalOf(map, enemy);
+                boolean defeated = ActionRandom.call(seed, () -> {
+                    if (CombatSystem.resolveCombat(player, enemy, world)) return true;
+                    if (!enemy.isDead()) {
+                        CombatSystem.resolveCombat(enemy, player, world);
+                    }
+                    return false;
+                });
+                if (defeated) {
+                    world.removeEnemy(enemy);
+                    map.removeEntity(enemy);
+                }
+                GameJournal journal = GameJournal.active();
+                if (journal != null && ordinal >= 0) journal.playerAttacked(player, at, ordinal, seed, enemy);
+                return defeated;
+            } finally {
+                if (orderLock != null) orderLock.unlock();
+                if (cellLocked) map.unlockPosition(at);
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * The player takes an item from the map: a potion goes into the
+     * inventory, anything else interactable is used on the spot.
+     *
+     * @return true if the item was taken off the map
+     */
+    public static boolean take(GameWorld world, PlayerCharacter player, GameItem item) {
+        return take(world, player, item, ActionRandom.newSeed());
+    }
+
+    static boolean take(GameWorld world, PlayerCharacter player, GameItem item, long seed) {
+        if (!(item instanceof Interactable interactable)) return false;
+        Lock stateLock = world.getStateLock().readLock();
+        stateLock.lock();
+        try {
+            GameMap map = world.getMap();
+            Position at = item.getPosition();
+            boolean cellLocked = map.tryLockPosition(at, CELL_LOCK_TIMEOUT_MILLIS);
+            ReentrantLock orderLock = GameJournal.orderLock(world);
+            if (orderLock != null) orderLock.lock();
+            try {
+                int ordinal = GameJournal.ordinalOf(map, item);
+                world.markChanged(player);
+                world.markChanged(item);
+                boolean taken = ActionRandom.call(seed, () -> {
+                    if (item instanceof Potion) {
+                        return player.addToInventory(item);
+                    }
+                    interactable.interact(player);
+                    return true;
+                });
+                if (taken) {
+                    world.removeItem(item);
+                    map.removeEntity(item);
+                }
+                GameJournal journal = GameJournal.active();
+                if (journal != null && ordinal >= 0) journal.playerTook(player, at, ordinal, seed);
+                return taken;
+            } finally {
+                if (orderLock != null) orderLock.unlock();
+                if (cellLocked) map.unlockPosition(at);
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Drinks a healing potion, or a power potion if {@code power} is set.
+     *
+     * @return true if a potion was used
+     */
+    public static boolean usePotion(GameWorld world, PlayerCharacter player, boolean power) {
+        Lock stateLock = world.getStateLock().readLock();
+        stateLock.lock();
+        try {
+            ReentrantLock orderLock = GameJournal.orderLock(world);
+            if (orderLock != null) orderLock.lock();
+            try {
+                world.markChanged(player);
+                boolean used = power ? player.usePowerPotion() : player.usePotion();
+                GameJournal journal = GameJournal.active();
+                if (used && journal != null) journal.playerUsedPotion(player, power);
+                return used;
+            } finally {
+                if (orderLock != null) orderLock.unlock();
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package game.engine;
+
+import game.characters.Enemy;
+import game.characters.PlayerCharacter;
+import game.combat.CombatSystem;
+import game.core.ActionRandom;
+import game.core.GameEntity;
+import game.items.GameItem;
+import game.map.GameMap;
+import game.map.Position;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReplayEngine: Re-simulates a session recorded by {@link GameJournal} on a
+ * single thread, applying events as fast as it can instead of at their
+ * recorded times.
+ * <p>
+ * Player commands and enemy attacks are re-run through the same code as in
+ * the game with their recorded seeds; enemy moves are applied as recorded.
+ * Wherever the journal holds a check value (health, treasure points) the
+ * replayed value is compared with it, and mismatches are reported as
+ * divergences. An optional trace with one line per event can be diffed
+ * against the trace of another replay.
+ * <p>
+ * Usage: {@code java game.engine.ReplayEngine session.journal --trace=replay.txt --revive=100}
+ * <ul>
+ *     <li>{@code trace}: file to write the per-event trace to (default: none)</li>
+ *     <li>{@code revive}: health to revive a defeated player with, as the
+ *     recording run did; 0 leaves the player defeated (default 0)</li>
+ * </ul>
+ */
+public class ReplayEngine {
+
+    private final GameWorld world;
+    private final GameMap map;
+    private PrintWriter trace;
+
+    private long eventCount;
+    private long simulatedMillis;
+    private long divergenceCount;
+    private String firstDivergence;
+
+    public ReplayEngine(GameWorld world) {
+        this.world = world;
+        this.map = world.getMap();
+    }
+
+    /**
+     * Writes one line per replayed event to the given writer, or stops tracing if null.
+     */
+    public void setTrace(PrintWriter trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Replays a journal file into this engine's world.
+     *
+     * @throws IOException if the file is not a journal or is cut off mid-event
+     */
+    public void replay(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.remaining() < GameJournal.HEADER_BYTES || buf.getInt() != GameJournal.MAGIC) {
+                throw new IOException("Not a game journal");
+            }
+            short version = buf.getShort();
+            if (version != GameJournal.VERSION) {
+                throw new IOException("Unsupported journal version " + version);
+            }
+            buf.getShort(); // flags, none defined yet
+            buf.getLong(); // startMillis
+
+            while (buf.hasRemaining()) {
+                int start = buf.position();
+                try {
+                    replayEvent(buf);
+                } catch (BufferUnderflowException e) {
+                    // The game was stopped while the last event was written.
+                    GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.WARN,
+                            "Journal ends with a partial event at byte {}", start);
+                    break;
+                }
+            }
+        }
+        if (trace != null) trace.flush();
+    }
+
+    private void replayEvent(ByteBuffer buf) throws IOException {
+        byte type = buf.get();
+        simulatedMillis += WorldSaveFile.varint(buf);
+        eventCount++;
+
+        switch (type) {
+            case GameJournal.CHECKPOINT -> {
+                int length = (int) WorldSaveFile.varint(buf);
+                ByteBuffer image = buf.slice(buf.position(), length);
+                buf.position(buf.position() + length);
+                WorldSaveFile.fitMap(image, map);
+                WorldSaveFile.decode(image, world).restore(world);
+                trace("CHECKPOINT " + world.getEnemies().size() + " enemies " + world.getItems().size() + " items");
+            }
+            case GameJournal.PLAYER_MOVE -> {
+                PlayerCharacter player = player(buf);
+                Position to = position(buf);
+                if (player != null && !PlayerActions.move(world, player, to)) {
+                    diverged("player could not move to " + to);
+                }
+                trace("PLAYER_MOVE " + to);
+            }
+            case GameJournal.PLAYER_ATTACK -> {
+                PlayerCharacter player = player(buf);
+                Position at = position(buf);
+                int ordinal = (int) WorldSaveFile.varint(buf);
+                long seed = buf.getLong();
+                int playerHealth = WorldSaveFile.zigzag(buf);
+                int enemyHealth = WorldSaveFile.zigzag(buf);
+                if (entityAt(at, ordinal) instanceof Enemy enemy && player != null) {
+                    PlayerActions.attack(world, player, enemy, seed);
+                    check("player health", playerHealth, player.getHealth());
+                    check("enemy health", enemyHealth, enemy.getHealth());
+                } else {
+                    diverged("no enemy to attack at " + at);
+                }
+                trace("PLAYER_ATTACK " + at);
+            }
+            case GameJournal.PLAYER_TAKE -> {
+                PlayerCharacter player = player(buf);
+                Position at = position(buf);
+                int ordinal = (int) WorldSaveFile.varint(buf);
+                long seed = buf.getLong();
+                int treasure = WorldSaveFile.zigzag(buf);
+                int inventorySize = (int) WorldSaveFile.varint(buf);
+                if (entityAt(at, ordinal) instanceof GameItem item && player != null) {
+                    PlayerActions.take(world, player, item, seed);
+                    check("treasure points", treasure, player.getTreasurePoints());
+                    check("inventory size", inventorySize, player.getInventory().getItems().size());
+                } else {
+                    diverged("no item to take at " + at);
+                }
+                trace("PLAYER_TAKE " + at);
+            }
+            case GameJournal.PLAYER_USE_POTION -> {
+                PlayerCharacter player = player(buf);
+                boolean power = buf.get() != 0;
+                int health = WorldSaveFile.zigzag(buf);
+                int playerPower = WorldSaveFile.zigzag(buf);
+                if (player != null) {
+                    if (!PlayerActions.usePotion(world, player, power)) {
+                        diverged("no potion to use");
+                    }
+                    check("player health", health, player.getHealth());
+                    check("player power", playerPower, player.getPower());
+                }
+                trace("PLAYER_USE_POTION " + (power ? "power" : "healing"));
+            }
+            case GameJournal.ENEMY_MOVE -> {
+                Position from = position(buf);
+                int ordinal = (int) WorldSaveFile.varint(buf);
+                Position to = position(buf);
+                if (entityAt(from, ordinal) instanceof Enemy enemy) {
+                    if (map.isOccupied(to)) {
+                        diverged("enemy moved into occupied cell " + to);
+                    }
+                    map.removeEntity(enemy);
+                    enemy.setPosition(to);
+                    map.addEntity(enemy);
+                } else {
+                    diverged("no enemy to move at " + from);
+                }
+                trace("ENEMY_MOVE " + from + " -> " + to);
+            }
+            case GameJournal.ENEMY_ATTACK -> {
+                Position at = position(buf);
+                int ordinal = (int) WorldSaveFile.varint(buf);
+                PlayerCharacter player = player(buf);
+                long seed = buf.getLong();
+                int playerHealth = WorldSaveFile.zigzag(buf);
+                if (entityAt(at, ordinal) instanceof Enemy enemy && player != null) {
+                    ActionRandom.run(seed, () -> CombatSystem.resolveCombat(enemy, player, world));
+                    check("player health", playerHealth, player.getHealth());
+                } else {
+                    diverged("no enemy attacking from " + at);
+                }
+                trace("ENEMY_ATTACK " + at);
+            }
+            default -> throw new IOException("Unknown journal event type " + type + " at byte " + (buf.position() - 1));
+        }
+    }
+
+    private PlayerCharacter player(ByteBuffer buf) throws IOException {
+        int index = (int) WorldSaveFile.varint(buf);
+        List<PlayerCharacter> players = world.getPlayers();
+        if (index < players.size()) return players.get(index);
+        diverged("no player " + index);
+        return null;
+    }
+
+    private static Position position(ByteBuffer buf) throws IOException {
+        int row = (int) WorldSaveFile.varint(buf);
+        int col = (int) WorldSaveFile.varint(buf);
+        return Position.of(row, col);
+    }
+
+    private GameEntity entityAt(Position pos, int ordinal) {
+        List<GameEntity> cell = map.getEntitiesAt(pos);
+        return ordinal < cell.size() ? cell.get(ordinal) : null;
+    }
+
+    private void check(String what, int recorded, int replayed) {
+        if (recorded != replayed) {
+            diverged(what + " is " + replayed + ", recorded " + recorded);
+        }
+    }
+
+    private void diverged(String message) {
+        String line = "event " + eventCount + " at " + simulatedMillis + " ms: " + message;
+        if (divergenceCount++ == 0) firstDivergence = line;
+        GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.WARN, "Replay diverged: {}", line);
+        if (trace != null) trace.println("! " + message);
+    }
+
+    private void trace(String event) {
+        if (trace == null) return;
+        PlayerCharacter player = world.getPlayers().isEmpty() ? null : world.getPlayers().get(0);
+        trace.print(eventCount);
+        trace.print(' ');
+        trace.print(simulatedMillis);
+        trace.print(' ');
+        trace.print(event);
+        if (player != null) {
+            trace.print(" | hp=" + player.getHealth() + " power=" + player.getPower()
+                    + " treasure=" + player.getTreasurePoints() + " at " + player.getPosition());
+        }
+        trace.println();
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the recorded length of the replayed session in milliseconds.
+     */
+    public long getSimulatedMillis() {
+        return simulatedMillis;
+    }
+
+    public long getDivergenceCount() {
+        return divergenceCount;
+    }
+
+    /**
+     * Returns a description of the first divergence, or null if there was none.
+     */
+    public String getFirstDivergence() {
+        return firstDivergence;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty("game.log.mode") == null) System.setProperty("game.log.mode", "batched");
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.err.println("Usage: ReplayEngine <journal> [--trace=FILE] [--revive=HP]");
+            System.exit(2);
+        }
+        Path journal = Path.of(args[0]);
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        int revive = Integer.parseInt(options.getOrDefault("revive", "0"));
+        PlayerCharacter.setDefeatHandler(p -> {
+            if (revive > 0) p.setHealth(revive);
+        });
+
+        ReplayEngine engine = new ReplayEngine(new GameWorld(GameMap.getInstance()));
+        PrintWriter trace = null;
+        if (options.containsKey("trace")) {
+            trace = new PrintWriter(Files.newBufferedWriter(Path.of(options.get("trace"))));
+            engine.setTrace(trace);
+        }
+
+        long start = System.nanoTime();
+        engine.replay(journal);
+        double wallMillis = (System.nanoTime() - start) / 1e6;
+        if (trace != null) trace.close();
+
+        System.out.printf("Replayed %d events covering %.1f s in %.1f ms (%.0fx real time)%n",
+                engine.getEventCount(), engine.getSimulatedMillis() / 1000.0, wallMillis,
+                engine.getSimulatedMillis() / Math.max(wallMillis, 0.001));
+        if (engine.getDivergenceCount() == 0) {
+            System.out.println("No divergence from the recording.");
+        } else {
+            System.out.println(engine.getDivergenceCount() + " divergence(s), first: " + engine.getFirstDivergence());
+        }
+        GameLogger.shutdown();
+        System.exit(engine.getDivergenceCount() == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,191 @@
+package game.engine;
+
+import game.builders.PlayerBuilder;
+import game.characters.Enemy;
+import game.characters.PlayerCharacter;
+import game.core.GameEntity;
+import game.core.GameRandom;
+import game.map.GameMap;
+import game.map.Position;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * SimulationRunner: Headless entry point for load testing the engine without Swing.
+ * Builds a world from command-line parameters, runs the enemies together with a
+ * simple bot player for a fixed duration, and prints throughput and latency.
+ * <p>
+ * Usage: {@code java game.engine.SimulationRunner --size=500 --enemies=30 --seed=42 --duration=30 --mode=SCHEDULED}
+ * <ul>
+ *     <li>{@code size}: map side length (default 100)</li>
+ *     <li>{@code enemies}: percent of cells holding an enemy, 0–70 (default 30)</li>
+ *     <li>{@code seed}: seed for map population and the bot (default: random)</li>
+ *     <li>{@code duration}: run time in seconds (default 10)</li>
+ *     <li>{@code mode}: an {@link EnemyManager.Mode} (default SCHEDULED)</li>
+ *     <li>{@code class}: player class, Warrior, Mage or Archer (default Warrior)</li>
+ *     <li>{@code botInterval}: milliseconds between bot actions (default 100)</li>
+ *     <li>{@code journal}: file to record a {@link GameJournal} of the run to; replay it with
+ *     {@code ReplayEngine FILE --revive=100} (default: none)</li>
+ *     <li>{@code autosave}: seconds between background autosaves to a temporary directory, 0 for none (default 0)</li>
+ * </ul>
+ */
+public class SimulationRunner {
+
+    private final GameWorld world;
+    private final GameMap map;
+    private final PlayerCharacter player;
+    private final RandomGenerator random;
+    private final LatencyRecorder botLatency = new LatencyRecorder();
+    private final AtomicInteger playerDeaths = new AtomicInteger();
+
+    private SimulationRunner(GameWorld world, PlayerCharacter player, RandomGenerator random) {
+        this.world = world;
+        this.map = world.getMap();
+        this.player = player;
+        this.random = random;
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        // Keep the log writer off the critical path unless told otherwise.
+        if (System.getProperty("game.log.mode") == null) System.setProperty("game.log.mode", "batched");
+
+        Map<String, String> options = parseArgs(args);
+        int size = Integer.parseInt(options.getOrDefault("size", "100"));
+        int enemyPercent = Integer.parseInt(options.getOrDefault("enemies", String.valueOf(MapPopulator.DEFAULT_ENEMY_PERCENT)));
+        long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(GameRandom.getSeed())));
+        double durationSeconds = Double.parseDouble(options.getOrDefault("duration", "10"));
+        EnemyManager.Mode mode = EnemyManager.Mode.valueOf(options.getOrDefault("mode", "SCHEDULED").toUpperCase());
+        String playerClass = options.getOrDefault("class", "Warrior");
+        long botIntervalMillis = Long.parseLong(options.getOrDefault("botInterval", "100"));
+        double autosaveSeconds = Double.parseDouble(options.getOrDefault("autosave", "0"));
+        String journalFile = options.get("journal");
+
+        // Population, entity stats and the bot all roll on this thread's stream.
+        GameRandom.setSeed(seed);
+        RandomGenerator random = GameRandom.current();
+        GameMap map = GameMap.getInstance();
+        GameWorld world = new GameWorld(map);
+
+        Position playerPos = Position.of(random.nextInt(size), random.nextInt(size));
+        PlayerCharacter player = new PlayerBuilder()
+                .setName("Bot")
+                .setClassType(playerClass)
+                .setHP(100)
+                .setPower(10)
+                .setPosition(playerPos)
+                .build();
+        world.addPlayer(player);
+        map.addEntity(player);
+
+        long populateStart = System.nanoTime();
+        MapPopulator.populateMap(world, size, playerPos, random, enemyPercent);
+        long populateNanos = System.nanoTime() - populateStart;
+        int enemyCount = world.getEnemies().size();
+
+        SimulationRunner runner = new SimulationRunner(world, player, random);
+        PlayerCharacter.setDefeatHandler(p -> {
+            runner.playerDeaths.incrementAndGet();
+            p.setHealth(100); // revive so the load keeps running
+        });
+
+        LatencyRecorder stepLatency = new LatencyRecorder();
+        EnemyThread.setStepRecorder(stepLatency);
+        EnemyManager enemyManager = new EnemyManager(world.getEnemies(), player, map, world, mode);
+
+        System.out.printf("Running %dx%d map, %d enemies, mode %s, seed %d, for %.1fs%n",
+                size, size, enemyCount, mode, seed, durationSeconds);
+
+        AutosaveService autosave = null;
+        Path autosaveDir = null;
+        if (autosaveSeconds > 0) {
+            autosaveDir = Files.createTempDirectory("autosave");
+            autosave = new AutosaveService(world, autosaveDir, (long) (autosaveSeconds * 1000));
+        }
+
+        GameJournal journal = journalFile != null ? GameJournal.start(world, Path.of(journalFile)) : null;
+
+        long start = System.nanoTime();
+        long end = start + (long) (durationSeconds * 1_000_000_000L);
+        enemyManager.startAll();
+        if (autosave != null) autosave.start();
+        while (System.nanoTime() < end) {
+            long actionStart = System.nanoTime();
+            runner.botStep();
+            runner.botLatency.record(System.nanoTime() - actionStart);
+            Thread.sleep(botIntervalMillis);
+        }
+        if (autosave != null) autosave.stop();
+        enemyManager.stopAll();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        if (journal != null) journal.close();
+        EnemyThread.setStepRecorder(null);
+
+        System.out.println("=== Simulation finished ===");
+        System.out.printf("populate:     %.1f ms%n", populateNanos / 1e6);
+        System.out.printf("enemy steps:  %.0f/s  %s%n", stepLatency.getCount() / elapsed, stepLatency.summary());
+        System.out.printf("bot actions:  %.0f/s  %s%n", runner.botLatency.getCount() / elapsed, runner.botLatency.summary());
+        System.out.printf("player deaths: %d, enemies left: %d of %d, log messages dropped: %d%n",
+                runner.playerDeaths.get(), world.getEnemies().size(), enemyCount, GameLogger.getDroppedCount());
+        if (journal != null) {
+            System.out.printf("journal: %d events, %d bytes in %s%n", journal.getEventCount(), Files.size(Path.of(journalFile)), journalFile);
+        }
+        if (autosave != null) {
+            System.out.printf("autosave pause: %d saves, %d slices  %s%n", autosave.getWrites().getCount(),
+                    autosave.getPauses().getCount(), autosave.getPauses().summary());
+            System.out.printf("autosave write: %s  (%s)%n", autosave.getWrites().summary(), autosaveDir);
+        }
+
+        GameLogger.shutdown();
+        System.exit(0);
+    }
+
+    /**
+     * One bot decision: attack an adjacent enemy if there is one, otherwise step to a random free neighbour.
+     */
+    private void botStep() {
+        Position pos = player.getPosition();
+        int first = random.nextInt(4);
+        for (int i = 0; i < 4; i++) {
+            Position target = neighbour(pos, (first + i) % 4);
+            for (GameEntity entity : map.getEntitiesAt(target)) {
+                if (entity instanceof Enemy enemy && !enemy.isDead()) {
+                    PlayerActions.attack(world, player, enemy);
+                    return;
+                }
+            }
+        }
+
+        for (int i = 0; i < 4; i++) {
+            Position target = neighbour(pos, (first + i) % 4);
+            if (!map.isInBounds(target) || !map.canMoveTo(target, player)) continue;
+            if (PlayerActions.move(world, player, target)) return;
+        }
+    }
+
+    private static Position neighbour(Position pos, int direction) {
+        return switch (direction) {
+            case 0 -> Position.of(pos.getRow() + 1, pos.getCol());
+            case 1 -> Position.of(pos.getRow() - 1, pos.getCol());
+            case 2 -> Position.of(pos.getRow(), pos.getCol() + 1);
+            default -> Position.of(pos.getRow(), pos.getCol() - 1);
+        };
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
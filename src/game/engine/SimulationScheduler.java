@@ -0,0 +1,165 @@
+package game.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SimulationScheduler: Advances all enemies in fixed-rate ticks.
+ * Instead of one sleeping thread per enemy, every enemy has a next-action time
+ * kept in a priority queue. On each tick the enemies that are due are split into
+ * batches and stepped in parallel on a worker pool sized to the CPU count.
+ */
+public class SimulationScheduler {
+
+    public static final long DEFAULT_TICK_MILLIS = 50;
+
+    private final long tickMillis;
+    private final int workerCount;
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService workers;
+
+    // Touched only by the ticker thread.
+    private final PriorityQueue<Entry> timeline = new PriorityQueue<>();
+    private final List<Entry> due = new ArrayList<>();
+    // Enemies handed in from other threads, moved to the timeline on the next tick.
+    private final Queue<Entry> incoming = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running;
+
+    public SimulationScheduler() {
+        this(DEFAULT_TICK_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param tickMillis  the tick period in milliseconds
+     * @param workerCount number of worker threads stepping enemies
+     */
+    public SimulationScheduler(long tickMillis, int workerCount) {
+        this.tickMillis = tickMillis;
+        this.workerCount = Math.max(1, workerCount);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "SimulationTicker"));
+        this.workers = Executors.newFixedThreadPool(this.workerCount, r -> daemon(r, "SimulationWorker"));
+    }
+
+    /**
+     * Adds an enemy to the simulation. Its first action happens after its usual random delay.
+     */
+    public void schedule(EnemyThread task) {
+        incoming.add(new Entry(task, System.currentTimeMillis() + task.nextDelayMillis()));
+    }
+
+    public void start() {
+        running = true;
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        running = false;
+        ticker.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Runs one tick. An exception escaping the periodic task would cancel it
+     * for good and freeze every enemy, so a failed tick is logged, the enemies
+     * it took off the timeline are put back, and the next tick runs as usual.
+     */
+    private void tick() {
+        try {
+            advance();
+        } catch (RuntimeException e) {
+            GameLogger.log(GameLogger.Category.ENEMY_AI, GameLogger.Level.WARN, "Simulation tick failed: {}", e);
+            for (Entry entry : due) {
+                if (!timeline.contains(entry)) timeline.add(entry);
+            }
+            due.clear();
+        }
+    }
+
+    private void advance() {
+        if (!running) return;
+        long now = System.currentTimeMillis();
+
+        Entry added;
+        while ((added = incoming.poll()) != null) {
+            timeline.add(added);
+        }
+
+        due.clear();
+        while (!timeline.isEmpty() && timeline.peek().nextActionAt <= now) {
+            due.add(timeline.poll());
+        }
+        if (due.isEmpty()) return;
+
+        try {
+            workers.invokeAll(batches(due));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        for (Entry entry : due) {
+            if (entry.task.isActive()) {
+                entry.nextActionAt = now + entry.task.nextDelayMillis();
+                timeline.add(entry);
+            } else {
+                entry.task.markFinished();
+            }
+        }
+    }
+
+    private List<Callable<Void>> batches(List<Entry> entries) {
+        int batchCount = Math.min(workerCount, entries.size());
+        int batchSize = (entries.size() + batchCount - 1) / batchCount;
+        List<Callable<Void>> batches = new ArrayList<>(batchCount);
+        for (int start = 0; start < entries.size(); start += batchSize) {
+            List<Entry> slice = entries.subList(start, Math.min(entries.size(), start + batchSize));
+            batches.add(() -> {
+                for (Entry entry : slice) {
+                    if (entry.task.isActive()) {
+                        try {
+                            entry.task.step();
+                        } catch (RuntimeException e) {
+                            GameLogger.log(GameLogger.Category.ENEMY_AI, GameLogger.Level.WARN, "Enemy step failed: {}", e);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        return batches;
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final EnemyThread task;
+        long nextActionAt;
+
+        Entry(EnemyThread task, long nextActionAt) {
+            this.task = task;
+            this.nextActionAt = nextActionAt;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(nextActionAt, other.nextActionAt);
+        }
+    }
+}
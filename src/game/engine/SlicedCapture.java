@@ -0,0 +1,382 @@
+package game.engine;
+
+import game.characters.PlayerCharacter;
+import game.core.GameEntity;
+import game.items.GameItem;
+import game.map.GameMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Takes a {@link WorldSnapshot} without stopping the world for the whole copy.
+ * The world's state write lock is held for one slice of about
+ * {@value #SLICE_NANOS} ns at a time, and actions run in between.
+ * <p>
+ * While the copy runs, the world reports each entity an action may change
+ * and each entity that joins or leaves its lists to a {@link WorldChangeLog}.
+ * Once every entity has been copied, the logged entities are copied again,
+ * in slices too, until few enough are left to finish in one short hold. The
+ * result is the world as it was at the end of that last hold.
+ * <p>
+ * Entities are copied into slots. Each entity in the world's lists has a
+ * slot, as does each item held in a player's inventory. A slot whose entity
+ * has left the world stays in place but is no longer a member.
+ * {@link #finish()} lays the members out the way
+ * {@link WorldSnapshot#capture(GameWorld)} does.
+ */
+final class SlicedCapture {
+
+    static final byte PLAYERS = 0;
+    static final byte ENEMIES = 1;
+    static final byte ITEMS = 2;
+    private static final byte HELD = 3;
+
+    /** How long one hold of the write lock copies for, in nanoseconds. */
+    static final long SLICE_NANOS = 100_000;
+    /** Fewest changed entities the world logs before it asks for a full copy instead. */
+    static final int MIN_LOG_LIMIT = 512;
+    // Entities copied between two looks at the clock.
+    private static final int CHECK_EVERY = 16;
+    // Rounds of copying logged entities again before the rest is copied in one hold regardless.
+    private static final int MAX_ROUNDS = 8;
+    // Restarts after a restore before falling back to a stop-the-world capture.
+    private static final int MAX_RESTARTS = 3;
+    // Attempts to find no action running before queueing for the lock.
+    private static final int LOCK_ATTEMPTS = 50;
+    private static final long LOCK_RETRY_NANOS = 100_000;
+
+    private final GameWorld world;
+    private final GameMap map;
+    private final Lock lock;
+    private final LatencyRecorder pauses;
+    private long holdStart;
+    // Most logged changes a slice has applied before its time ran out; a guess until one has.
+    private int appliedPerSlice = MIN_LOG_LIMIT;
+
+    private GameEntity[] entities = new GameEntity[256];
+    private byte[] sections = new byte[256];
+    private boolean[] members = new boolean[256];
+    private byte[] flags = new byte[256];
+    private int[] rows = new int[256];
+    private int[] cols = new int[256];
+    private int[] health = new int[256];
+    private int[] power = new int[256];
+    // Players only: treasure points and the items held, as of the last copy.
+    private int[] treasurePoints = new int[256];
+    private GameItem[][] inventories = new GameItem[256][];
+    // Which round last copied the slot, so a round copies each slot once.
+    private int[] copiedInRound = new int[256];
+    private int size;
+    private int round;
+
+    private final IdentityHashMap<GameEntity, Integer> slotOf = new IdentityHashMap<>();
+    private final IdentityHashMap<GameEntity, Integer> heldSlotOf = new IdentityHashMap<>();
+
+    private SlicedCapture(GameWorld world, LatencyRecorder pauses) {
+        this.world = world;
+        this.map = world.getMap();
+        this.lock = world.getStateLock().writeLock();
+        this.pauses = pauses;
+    }
+
+    /**
+     * Captures the world a slice at a time.
+     *
+     * @param pauses records how long each hold of the write lock paused the world; may be null
+     */
+    static WorldSnapshot capture(GameWorld world, LatencyRecorder pauses) {
+        for (int attempt = 0; attempt < MAX_RESTARTS; attempt++) {
+            WorldSnapshot snapshot = new SlicedCapture(world, pauses).run();
+            if (snapshot != null) return snapshot;
+            GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.DEBUG, "World restored during capture, starting over");
+        }
+        return WorldSnapshot.capture(world);
+    }
+
+    /**
+     * @return the snapshot, or null if the world was restored meanwhile
+     */
+    private WorldSnapshot run() {
+        WorldChangeLog log;
+        // Allocated before the hold, so the hold only copies into them; a list that grew
+        // meanwhile gets a new array. Plain Object arrays take a straight memory copy,
+        // where typed ones would check the type of every element.
+        Object[] players = new Object[spare(world.getPlayers().size())];
+        Object[] enemies = new Object[spare(world.getEnemies().size())];
+        Object[] items = new Object[spare(world.getItems().size())];
+        hold();
+        try {
+            log = world.startChangeLog();
+            players = world.getPlayers().toArray(players);
+            enemies = world.getEnemies().toArray(enemies);
+            items = world.getItems().toArray(items);
+        } finally {
+            release();
+        }
+
+        try {
+            addMembers(players, PLAYERS);
+            addMembers(enemies, ENEMIES);
+            addMembers(items, ITEMS);
+
+            if (!copyAll(log, size)) return null;
+
+            List<WorldChangeLog.Change> pending = new ArrayList<>();
+            while (true) {
+                round++;
+                boolean last = round >= MAX_ROUNDS;
+                boolean complete;
+                int copied = size;
+                // Most of the log is moved out before the hold, so the hold only takes the rest.
+                log.pollTo(pending);
+                hold();
+                try {
+                    if (log.isInvalid()) return null;
+                    // An incomplete log dropped some changes, so every entity is copied again.
+                    complete = log.drainTo(pending);
+                    // Finishes once half a slice's worth is left, so the last hold is no longer than the others.
+                    if ((complete ? 0 : copied) + pending.size() <= appliedPerSlice / 2 || last) {
+                        if (!complete) copy(0, copied);
+                        apply(pending, 0, pending.size(), false);
+                        world.stopChangeLog();
+                        break;
+                    }
+                } finally {
+                    release();
+                }
+                // Too many to copy in one hold: copy them a slice at a time, then look again.
+                if (!complete && !copyAll(log, copied)) return null;
+                for (int start = 0; start < pending.size(); ) {
+                    hold();
+                    try {
+                        if (log.isInvalid()) return null;
+                        start = apply(pending, start, pending.size(), true);
+                    } finally {
+                        release();
+                    }
+                }
+                pending.clear();
+            }
+        } finally {
+            world.stopChangeLog();
+        }
+        return finish();
+    }
+
+    // Room for a list read without the lock to grow a little before the hold.
+    private static int spare(int size) {
+        return size + size / 8 + 16;
+    }
+
+    /**
+     * Copies slots {@code [0, end)} a slice at a time.
+     *
+     * @return false if the world was restored meanwhile
+     */
+    private boolean copyAll(WorldChangeLog log, int end) {
+        for (int start = 0; start < end; ) {
+            hold();
+            try {
+                if (log.isInvalid()) return false;
+                start = copySlice(start, end);
+            } finally {
+                release();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies slots from {@code from} on until {@code to} or until the slice's
+     * time is up. Held items are copied with their players. Caller holds the lock.
+     *
+     * @return the first slot not copied
+     */
+    private int copySlice(int from, int to) {
+        int slot = from;
+        while (slot < to) {
+            int stop = Math.min(to, slot + CHECK_EVERY);
+            for (; slot < stop; slot++) {
+                if (sections[slot] != HELD) copy(slot);
+            }
+            if (slot < to && timeUp()) break;
+        }
+        return slot;
+    }
+
+    // Copies every slot in [from, to) in this hold. Caller holds the lock.
+    private void copy(int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            if (sections[slot] != HELD) copy(slot);
+        }
+    }
+
+    private boolean timeUp() {
+        return System.nanoTime() - holdStart >= SLICE_NANOS;
+    }
+
+    private void hold() {
+        // Gives the CPU away first, so the hold is less likely to be cut short by the scheduler.
+        LockSupport.parkNanos(1);
+        for (int attempt = 0; attempt < LOCK_ATTEMPTS; attempt++) {
+            if (lock.tryLock()) {
+                holdStart = System.nanoTime();
+                return;
+            }
+            LockSupport.parkNanos(LOCK_RETRY_NANOS);
+        }
+        // Waits for the actions already running; new ones wait behind it that long.
+        holdStart = System.nanoTime();
+        lock.lock();
+    }
+
+    private void release() {
+        // Read before unlocking: the actions woken by the unlock may run before this thread does again.
+        long end = System.nanoTime();
+        lock.unlock();
+        if (pauses != null) pauses.record(end - holdStart);
+    }
+
+    private void addMembers(Object[] source, byte section) {
+        for (Object o : source) {
+            if (o == null) continue; // past the end of the list
+            GameEntity e = (GameEntity) o;
+            slotOf.put(e, newSlot(e, section));
+        }
+    }
+
+    private int newSlot(GameEntity e, byte section) {
+        if (size == entities.length) {
+            int capacity = size * 2;
+            entities = Arrays.copyOf(entities, capacity);
+            sections = Arrays.copyOf(sections, capacity);
+            members = Arrays.copyOf(members, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+            cols = Arrays.copyOf(cols, capacity);
+            health = Arrays.copyOf(health, capacity);
+            power = Arrays.copyOf(power, capacity);
+            treasurePoints = Arrays.copyOf(treasurePoints, capacity);
+            inventories = Arrays.copyOf(inventories, capacity);
+            copiedInRound = Arrays.copyOf(copiedInRound, capacity);
+        }
+        entities[size] = e;
+        sections[size] = section;
+        members[size] = true;
+        return size++;
+    }
+
+    /**
+     * Copies one slot. A player's copy also copies its inventory. Caller holds the lock.
+     */
+    private void copy(int slot) {
+        copiedInRound[slot] = round;
+        GameEntity e = entities[slot];
+        WorldSnapshot.captureEntity(map, e, slot, flags, rows, cols, health, power);
+        if (e instanceof PlayerCharacter player) {
+            treasurePoints[slot] = player.getTreasurePoints();
+            GameItem[] held = player.getInventory().getItems().toArray(new GameItem[0]);
+            inventories[slot] = held;
+            for (GameItem item : held) {
+                Integer heldSlot = heldSlotOf.get(item);
+                if (heldSlot == null) {
+                    heldSlot = newSlot(item, HELD);
+                    heldSlotOf.put(item, heldSlot);
+                }
+                WorldSnapshot.captureEntity(map, item, heldSlot, flags, rows, cols, health, power);
+            }
+        }
+    }
+
+    /**
+     * Applies logged changes {@code [from, to)}: updates list membership and
+     * copies each affected entity again. Caller holds the lock.
+     *
+     * @param sliced whether to stop once the slice's time is up
+     * @return the first change not applied
+     */
+    private int apply(List<WorldChangeLog.Change> changes, int from, int to, boolean sliced) {
+        for (int i = from; i < to; i++) {
+            if (sliced && i > from && (i - from) % CHECK_EVERY == 0 && timeUp()) {
+                appliedPerSlice = i - from;
+                return i;
+            }
+            WorldChangeLog.Change c = changes.get(i);
+            Integer slot = slotOf.get(c.entity);
+            if (c.kind == WorldChangeLog.JOINED) {
+                // A list appends what joins it, so an entity that left and came back moves to the end.
+                if (slot == null || !members[slot]) {
+                    slot = newSlot(c.entity, c.section);
+                    slotOf.put(c.entity, slot);
+                    copiedInRound[slot] = -1;
+                }
+            } else if (c.kind == WorldChangeLog.LEFT) {
+                if (slot != null) members[slot] = false;
+            }
+            if (slot != null && copiedInRound[slot] != round) copy(slot);
+        }
+        return to;
+    }
+
+    /**
+     * Lays the members out as players, enemies, items and held items, each in
+     * the order of the world's lists, and builds the snapshot.
+     */
+    private WorldSnapshot finish() {
+        int[] order = new int[size];
+        int count = 0;
+        int[] counts = new int[3];
+        for (byte section = PLAYERS; section <= ITEMS; section++) {
+            for (int slot = 0; slot < size; slot++) {
+                if (sections[slot] == section && members[slot]) {
+                    order[count++] = slot;
+                    counts[section]++;
+                }
+            }
+        }
+        int playerCount = counts[PLAYERS];
+
+        int[] treasure = new int[playerCount];
+        int[] inventoryStart = new int[playerCount + 1];
+        List<Integer> heldSlots = new ArrayList<>();
+        for (int p = 0; p < playerCount; p++) {
+            int slot = order[p];
+            treasure[p] = treasurePoints[slot];
+            GameItem[] held = inventories[slot];
+            for (GameItem item : held) {
+                heldSlots.add(heldSlotOf.get(item));
+            }
+            inventoryStart[p + 1] = inventoryStart[p] + held.length;
+        }
+        int[] inventoryItems = new int[heldSlots.size()];
+        if (order.length < count + heldSlots.size()) order = Arrays.copyOf(order, count + heldSlots.size());
+        for (int k = 0; k < inventoryItems.length; k++) {
+            inventoryItems[k] = count;
+            order[count++] = heldSlots.get(k);
+        }
+
+        GameEntity[] outEntities = new GameEntity[count];
+        byte[] outFlags = new byte[count];
+        int[] outRows = new int[count];
+        int[] outCols = new int[count];
+        int[] outHealth = new int[count];
+        int[] outPower = new int[count];
+        for (int i = 0; i < count; i++) {
+            int slot = order[i];
+            outEntities[i] = entities[slot];
+            outFlags[i] = flags[slot];
+            outRows[i] = rows[slot];
+            outCols[i] = cols[slot];
+            outHealth[i] = health[slot];
+            outPower[i] = power[slot];
+        }
+        return new WorldSnapshot(outEntities, playerCount, counts[ENEMIES], counts[ITEMS],
+                outFlags, outRows, outCols, outHealth, outPower,
+                treasure, inventoryStart, inventoryItems, map.getRows(), map.getCols());
+    }
+}
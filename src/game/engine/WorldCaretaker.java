@@ -0,0 +1,77 @@
+package game.engine;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Keeps the most recent {@link WorldSnapshot}s of a world for Save/Restore,
+ * and restarts enemy AI for enemies a restore brings back to life.
+ */
+public class WorldCaretaker {
+    private static final int MAX_HISTORY = 10; // defines the maximum number of saved states
+    private final Deque<WorldSnapshot> history = new ArrayDeque<>();
+    private final GameWorld world;
+    private final EnemyManager enemyManager;
+
+    /**
+     * @param world        the world to save and restore
+     * @param enemyManager the manager running the enemies' AI, or null if there is none
+     */
+    public WorldCaretaker(GameWorld world, EnemyManager enemyManager) {
+        this.world = world;
+        this.enemyManager = enemyManager;
+    }
+
+    public void save() {
+        save(WorldSnapshot.capture(world));
+    }
+
+    /**
+     * Keeps a snapshot taken elsewhere, e.g. on a background thread, as the latest saved state.
+     */
+    public void save(WorldSnapshot snapshot) {
+        if (history.size() >= MAX_HISTORY) {
+            history.removeLast(); // deletes the oldest state if history is full
+        }
+        history.push(snapshot);
+    }
+
+    public void undo() {
+        if (!history.isEmpty()) {
+            apply(history.pop());
+        }
+    }
+
+    /**
+     * Restores a snapshot that did not come from this caretaker's history,
+     * e.g. one loaded from a save file.
+     */
+    public void apply(WorldSnapshot snapshot) {
+        GameJournal journal = GameJournal.active();
+        if (journal == null) {
+            snapshot.restore(world);
+        } else {
+            // Recorded in the same pause as the restore, so a replay sees
+            // no action in between.
+            Lock lock = world.getStateLock().writeLock();
+            lock.lock();
+            try {
+                snapshot.restore(world);
+                journal.checkpoint(snapshot);
+            } catch (IOException e) {
+                GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.WARN, "Journal checkpoint failed: {}", e.toString());
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (enemyManager != null) {
+            enemyManager.reconcile();
+        }
+    }
+
+    public boolean hasHistory() {
+        return !history.isEmpty();
+    }
+}
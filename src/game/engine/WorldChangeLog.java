@@ -0,0 +1,108 @@
+package game.engine;
+
+import game.core.GameEntity;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * What happened to a {@link GameWorld} while a {@link SlicedCapture} was
+ * copying it a slice at a time: entities whose state may have changed, and
+ * entities that joined or left one of the world's lists, in the order they
+ * were reported. Entries are added by actions holding the world's state read
+ * lock and drained by the capture while it holds the write lock.
+ * <p>
+ * Changed entities past a limit are not logged, since copying every entity
+ * again is then no more work than going through the log; the next drain
+ * reports the log incomplete instead. Joins and leaves are always logged.
+ * A restore replaces the whole world and cannot be described entry by entry,
+ * so it marks the log invalid and the capture starts over.
+ */
+final class WorldChangeLog {
+
+    static final byte CHANGED = 0;
+    static final byte JOINED = 1;
+    static final byte LEFT = 2;
+
+    static final class Change {
+        final GameEntity entity;
+        final byte kind;
+        // SlicedCapture.PLAYERS, ENEMIES or ITEMS for JOINED and LEFT.
+        final byte section;
+
+        Change(GameEntity entity, byte kind, byte section) {
+            this.entity = entity;
+            this.kind = kind;
+            this.section = section;
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+    private final int limit;
+    // Changed entities logged since the last drain.
+    private final AtomicInteger changedCount = new AtomicInteger();
+    private volatile boolean overflowed;
+    private volatile boolean invalid;
+
+    /**
+     * @param limit most changed entities logged between two drains
+     */
+    WorldChangeLog(int limit) {
+        this.limit = limit;
+    }
+
+    void changed(GameEntity entity) {
+        if (overflowed) return;
+        if (changedCount.incrementAndGet() > limit) {
+            overflowed = true;
+            return;
+        }
+        changes.add(new Change(entity, CHANGED, (byte) -1));
+    }
+
+    void joined(GameEntity entity, byte section) {
+        changes.add(new Change(entity, JOINED, section));
+    }
+
+    void left(GameEntity entity, byte section) {
+        changes.add(new Change(entity, LEFT, section));
+    }
+
+    void invalidate() {
+        invalid = true;
+    }
+
+    boolean isInvalid() {
+        return invalid;
+    }
+
+    /**
+     * Moves the entries logged so far to the list, oldest first, without
+     * the lock; entries logged meanwhile may or may not be moved. The next
+     * {@link #drainTo(List)} moves the rest and reports on all of them.
+     */
+    void pollTo(List<Change> out) {
+        Change c;
+        while ((c = changes.poll()) != null) {
+            out.add(c);
+        }
+    }
+
+    /**
+     * Moves every entry logged so far to the list, oldest first. Caller holds
+     * the state write lock, so no entries are added meanwhile.
+     *
+     * @return false if changed entities were left out since the last drain
+     */
+    boolean drainTo(List<Change> out) {
+        Change c;
+        while ((c = changes.poll()) != null) {
+            out.add(c);
+        }
+        boolean complete = !overflowed;
+        overflowed = false;
+        changedCount.set(0);
+        return complete;
+    }
+}
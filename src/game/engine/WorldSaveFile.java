@@ -0,0 +1,464 @@
+package game.engine;
+
+import game.characters.Archer;
+import game.characters.Dragon;
+import game.characters.Enemy;
+import game.characters.Goblin;
+import game.characters.Mage;
+import game.characters.Orc;
+import game.characters.PlayerCharacter;
+import game.characters.Warrior;
+import game.combat.MagicElement;
+import game.core.GameEntity;
+import game.items.Potion;
+import game.items.PowerPotion;
+import game.items.Treasure;
+import game.items.Wall;
+import game.map.GameMap;
+import game.map.Position;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads and writes {@link WorldSnapshot}s as compact binary save files.
+ * <p>
+ * Layout (all fixed-size numbers big-endian):
+ * <pre>
+ * header   int magic "DDSV", short version, short flags,
+ *          int mapRows, int mapCols,
+ *          int players, int enemies, int items, int heldItems,
+ *          long tableBytes
+ * table    one record per entity, in snapshot slot order:
+ *          varint length, then byte type, byte flags,
+ *          varint row + 1, varint col + 1 (0 when the entity has no position),
+ *          then type-specific fields
+ * players  per player: zigzag treasure points, varint inventory size,
+ *          varint slot of each inventory item
+ * </pre>
+ * Ints in records are zigzag varints and doubles are 8 bytes. Because every
+ * record carries its length, a reader can skip fields added by later versions.
+ */
+public final class WorldSaveFile {
+
+    static final int MAGIC = 0x44445356; // "DDSV"
+    static final short VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+
+    // Record types.
+    private static final byte WARRIOR = 1;
+    private static final byte MAGE = 2;
+    private static final byte ARCHER = 3;
+    private static final byte GOBLIN = 10;
+    private static final byte ORC = 11;
+    private static final byte DRAGON = 12;
+    private static final byte POTION = 20;
+    private static final byte POWER_POTION = 21;
+    private static final byte TREASURE = 22;
+    private static final byte WALL = 23;
+
+    private WorldSaveFile() {
+    }
+
+    /**
+     * Writes a snapshot to a file. The data goes to a temporary file that is
+     * flushed to disk and then moved over the target, so an interrupted save
+     * leaves the previous file intact.
+     *
+     * @return the number of bytes written
+     */
+    public static long write(WorldSnapshot snapshot, Path file) throws IOException {
+        ByteBuffer data = encode(snapshot);
+        long size = data.remaining();
+
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = dir.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * Encodes a snapshot into a buffer ready to be written.
+     */
+    static ByteBuffer encode(WorldSnapshot s) throws IOException {
+        Encoder out = new Encoder(HEADER_BYTES + s.entities.length * 24 + 64);
+        out.buf.position(HEADER_BYTES);
+
+        int tableStart = out.buf.position();
+        Encoder record = new Encoder(64);
+        for (int i = 0; i < s.entities.length; i++) {
+            record.buf.clear();
+            encodeRecord(s, i, record);
+            record.buf.flip();
+            out.varint(record.buf.remaining());
+            out.put(record.buf);
+        }
+        long tableBytes = out.buf.position() - tableStart;
+
+        for (int p = 0; p < s.playerCount; p++) {
+            out.zigzag(s.treasurePoints[p]);
+            out.varint(s.inventoryStart[p + 1] - s.inventoryStart[p]);
+            for (int k = s.inventoryStart[p]; k < s.inventoryStart[p + 1]; k++) {
+                out.varint(s.inventoryItems[k]);
+            }
+        }
+
+        ByteBuffer buf = out.buf;
+        buf.putInt(0, MAGIC);
+        buf.putShort(4, VERSION);
+        buf.putShort(6, (short) 0);
+        buf.putInt(8, s.mapRows);
+        buf.putInt(12, s.mapCols);
+        buf.putInt(16, s.playerCount);
+        buf.putInt(20, s.enemyCount);
+        buf.putInt(24, s.itemCount);
+        buf.putInt(28, s.entities.length - s.playerCount - s.enemyCount - s.itemCount);
+        buf.putLong(32, tableBytes);
+        buf.flip();
+        return buf;
+    }
+
+    private static void encodeRecord(WorldSnapshot s, int i, Encoder out) throws IOException {
+        GameEntity e = s.entities[i];
+        byte type = typeOf(e);
+        out.put(type);
+        out.put(s.flags[i]);
+        out.varint(s.rows[i] + 1L);
+        out.varint(s.cols[i] + 1L);
+        switch (type) {
+            case WARRIOR, MAGE, ARCHER -> {
+                out.zigzag(s.health[i]);
+                out.zigzag(s.power[i]);
+                byte[] name = ((PlayerCharacter) e).getName().getBytes(StandardCharsets.UTF_8);
+                out.varint(name.length);
+                out.put(name);
+                if (e instanceof Warrior w) out.zigzag(w.getDefense());
+                else if (e instanceof Mage m) out.put(elementByte(m.getElement()));
+                else out.putDouble(((Archer) e).getAccuracy());
+            }
+            case GOBLIN, ORC, DRAGON -> {
+                out.zigzag(s.health[i]);
+                out.zigzag(s.power[i]);
+                out.zigzag(((Enemy) e).getLoot());
+                if (e instanceof Goblin g) out.zigzag(g.getAgility());
+                else if (e instanceof Orc o) out.putDouble(o.getResistance());
+                else out.put(elementByte(((Dragon) e).getElement()));
+            }
+            case POTION, POWER_POTION -> out.zigzag(((Potion) e).getIncreaseAmount());
+            case TREASURE -> out.zigzag(((Treasure) e).getValue());
+            default -> {
+                // Walls carry no state beyond position.
+            }
+        }
+    }
+
+    private static byte typeOf(GameEntity e) throws IOException {
+        // Exact classes, so a subclass added later is reported instead of being saved as its parent.
+        Class<?> c = e.getClass();
+        if (c == Warrior.class) return WARRIOR;
+        if (c == Mage.class) return MAGE;
+        if (c == Archer.class) return ARCHER;
+        if (c == Goblin.class) return GOBLIN;
+        if (c == Orc.class) return ORC;
+        if (c == Dragon.class) return DRAGON;
+        if (c == Potion.class) return POTION;
+        if (c == PowerPotion.class) return POWER_POTION;
+        if (c == Treasure.class) return TREASURE;
+        if (c == Wall.class) return WALL;
+        throw new IOException("Cannot save entity of type " + c.getName());
+    }
+
+    /**
+     * Reads a save file into a snapshot that can be restored into the given
+     * world. The file is memory-mapped and decoded in one pass. Players are
+     * matched by order to the players already in the world, which are reused
+     * (keeping their names) so views holding them stay valid; a saved player
+     * with no counterpart is created anew.
+     *
+     * @throws IOException if the file is not a valid save, was written for a
+     *                     map of another size, or a saved player's class
+     *                     differs from the live player's
+     */
+    public static WorldSnapshot read(Path file, GameWorld world) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buf, world);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Save file is truncated: " + file, e);
+        }
+    }
+
+    /**
+     * Switches the map to the size a save was written for, if it was written
+     * for a bounded map, so that the save can be decoded into it.
+     */
+    static void fitMap(ByteBuffer buf, GameMap map) {
+        int rows = buf.getInt(buf.position() + 8);
+        int cols = buf.getInt(buf.position() + 12);
+        if (rows > 0 && cols > 0) {
+            map.useBoundedGrid(rows, cols);
+        }
+    }
+
+    static WorldSnapshot decode(ByteBuffer buf, GameWorld world) throws IOException {
+        if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC) {
+            throw new IOException("Not a save file");
+        }
+        short version = buf.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported save file version " + version);
+        }
+        buf.getShort(); // flags, none defined yet
+        int mapRows = buf.getInt();
+        int mapCols = buf.getInt();
+        int playerCount = buf.getInt();
+        int enemyCount = buf.getInt();
+        int itemCount = buf.getInt();
+        int heldCount = buf.getInt();
+        long tableBytes = buf.getLong();
+        if (playerCount < 0 || enemyCount < 0 || itemCount < 0 || heldCount < 0
+                || tableBytes > buf.remaining()) {
+            throw new IOException("Corrupt save file header");
+        }
+
+        GameMap map = world.getMap();
+        if (map.isBounded() && (map.getRows() != mapRows || map.getCols() != mapCols)) {
+            throw new IOException("Save is for a " + mapRows + "x" + mapCols + " map, current map is "
+                    + map.getRows() + "x" + map.getCols());
+        }
+
+        int n = playerCount + enemyCount + itemCount + heldCount;
+        GameEntity[] entities = new GameEntity[n];
+        byte[] flags = new byte[n];
+        int[] rows = new int[n];
+        int[] cols = new int[n];
+        int[] health = new int[n];
+        int[] power = new int[n];
+
+        // Saved players are matched to live ones only after the whole file
+        // decoded, so a bad file leaves the running game untouched.
+        byte[] playerTypes = new byte[playerCount];
+        String[] names = new String[playerCount];
+        double[] classStat = new double[playerCount];
+
+        for (int i = 0; i < n; i++) {
+            int length = (int) varint(buf);
+            int end = buf.position() + length;
+            byte type = buf.get();
+            flags[i] = buf.get();
+            rows[i] = (int) varint(buf) - 1;
+            cols[i] = (int) varint(buf) - 1;
+            Position pos = rows[i] >= 0 ? Position.of(rows[i], cols[i]) : null;
+            boolean used = (flags[i] & WorldSnapshot.USED) != 0;
+
+            boolean isPlayer = type == WARRIOR || type == MAGE || type == ARCHER;
+            if (isPlayer != i < playerCount) {
+                throw new IOException("Record " + i + " of type " + type + " is in the wrong section");
+            }
+            if (isPlayer || type == GOBLIN || type == ORC || type == DRAGON) {
+                health[i] = zigzag(buf);
+                power[i] = zigzag(buf);
+            }
+            switch (type) {
+                case WARRIOR, MAGE, ARCHER -> {
+                    byte[] name = new byte[(int) varint(buf)];
+                    buf.get(name);
+                    names[i] = new String(name, StandardCharsets.UTF_8);
+                    playerTypes[i] = type;
+                    classStat[i] = switch (type) {
+                        case WARRIOR -> zigzag(buf);
+                        case MAGE -> buf.get();
+                        default -> buf.getDouble();
+                    };
+                }
+                case GOBLIN -> {
+                    int loot = zigzag(buf);
+                    entities[i] = new Goblin(pos, health[i], power[i], loot, zigzag(buf));
+                }
+                case ORC -> {
+                    int loot = zigzag(buf);
+                    entities[i] = new Orc(pos, health[i], power[i], loot, buf.getDouble());
+                }
+                case DRAGON -> {
+                    int loot = zigzag(buf);
+                    entities[i] = new Dragon(pos, health[i], power[i], loot, element(buf.get()));
+                }
+                case POTION -> entities[i] = new Potion(pos, zigzag(buf), used);
+                case POWER_POTION -> entities[i] = new PowerPotion(pos, zigzag(buf), used);
+                case TREASURE -> entities[i] = new Treasure(pos, zigzag(buf), used);
+                case WALL -> entities[i] = new Wall(pos);
+                default -> throw new IOException("Unknown entity type " + type + " in record " + i);
+            }
+            if (buf.position() > end) throw new IOException("Record " + i + " overruns its length");
+            buf.position(end);
+            if (!isPlayer && (i < playerCount + enemyCount) != (entities[i] instanceof Enemy)) {
+                throw new IOException("Record " + i + " of type " + type + " is in the wrong section");
+            }
+        }
+
+        int[] treasure = new int[playerCount];
+        int[] inventoryStart = new int[playerCount + 1];
+        int[] inventoryItems = new int[heldCount];
+        int heldFirst = playerCount + enemyCount + itemCount;
+        for (int p = 0; p < playerCount; p++) {
+            treasure[p] = zigzag(buf);
+            int size = (int) varint(buf);
+            inventoryStart[p + 1] = inventoryStart[p] + size;
+            if (inventoryStart[p + 1] > heldCount) throw new IOException("Corrupt inventory section");
+            for (int k = inventoryStart[p]; k < inventoryStart[p + 1]; k++) {
+                int slot = (int) varint(buf);
+                if (slot < heldFirst || slot >= n) throw new IOException("Inventory refers to slot " + slot);
+                inventoryItems[k] = slot;
+            }
+        }
+
+        List<PlayerCharacter> live = world.getPlayers();
+        for (int p = 0; p < playerCount; p++) {
+            PlayerCharacter existing = p < live.size() ? live.get(p) : null;
+            if (existing != null && existing.getClass() != playerClass(playerTypes[p])) {
+                throw new IOException("Save holds a " + playerClass(playerTypes[p]).getSimpleName()
+                        + ", current player is a " + existing.getClass().getSimpleName());
+            }
+        }
+        for (int p = 0; p < playerCount; p++) {
+            PlayerCharacter existing = p < live.size() ? live.get(p) : null;
+            entities[p] = player(existing, playerTypes[p], names[p], rows[p], cols[p], health[p], power[p], classStat[p]);
+        }
+
+        return new WorldSnapshot(entities, playerCount, enemyCount, itemCount, flags, rows, cols, health, power,
+                treasure, inventoryStart, inventoryItems, mapRows, mapCols);
+    }
+
+    private static Class<? extends PlayerCharacter> playerClass(byte type) {
+        return switch (type) {
+            case WARRIOR -> Warrior.class;
+            case MAGE -> Mage.class;
+            default -> Archer.class;
+        };
+    }
+
+    private static PlayerCharacter player(PlayerCharacter existing, byte type, String name, int row, int col,
+                                          int health, int power, double classStat) throws IOException {
+        Position pos = row >= 0 ? Position.of(row, col) : null;
+        PlayerCharacter p = existing;
+        switch (type) {
+            case WARRIOR -> {
+                Warrior w = p != null ? (Warrior) p : new Warrior(name, health, power, pos);
+                w.restoreDefense((int) classStat);
+                p = w;
+            }
+            case MAGE -> {
+                Mage m = p != null ? (Mage) p : new Mage(name, health, power, pos);
+                m.restoreElement(element((byte) classStat));
+                p = m;
+            }
+            default -> {
+                Archer a = p != null ? (Archer) p : new Archer(name, health, power, pos);
+                a.restoreAccuracy(classStat);
+                p = a;
+            }
+        }
+        return p;
+    }
+
+    // A character built without an element, as PlayerBuilder builds mages, is saved as -1.
+    private static byte elementByte(MagicElement element) {
+        return element == null ? -1 : (byte) element.ordinal();
+    }
+
+    private static MagicElement element(byte ordinal) throws IOException {
+        MagicElement[] values = MagicElement.values();
+        if (ordinal == -1) return null;
+        if (ordinal < 0 || ordinal >= values.length) throw new IOException("Unknown element " + ordinal);
+        return values[ordinal];
+    }
+
+    static long varint(ByteBuffer buf) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static int zigzag(ByteBuffer buf) throws IOException {
+        int v = (int) varint(buf);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Growable big-endian output buffer with varint helpers.
+     */
+    static final class Encoder {
+        ByteBuffer buf;
+
+        Encoder(int capacity) {
+            buf = ByteBuffer.allocate(capacity);
+        }
+
+        private void ensure(int bytes) {
+            if (buf.remaining() >= bytes) return;
+            int capacity = Math.max(buf.capacity() * 2, buf.position() + bytes);
+            ByteBuffer bigger = ByteBuffer.allocate(capacity);
+            buf.flip();
+            bigger.put(buf);
+            buf = bigger;
+        }
+
+        void put(byte b) {
+            ensure(1);
+            buf.put(b);
+        }
+
+        void put(byte[] bytes) {
+            ensure(bytes.length);
+            buf.put(bytes);
+        }
+
+        void put(ByteBuffer src) {
+            ensure(src.remaining());
+            buf.put(src);
+        }
+
+        void putDouble(double d) {
+            ensure(8);
+            buf.putDouble(d);
+        }
+
+        void putLong(long v) {
+            ensure(8);
+            buf.putLong(v);
+        }
+
+        void varint(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf.put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buf.put((byte) v);
+        }
+
+        void zigzag(int v) {
+            varint(((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package game.engine;
+
+import game.characters.AbstractCharacter;
+import game.characters.Enemy;
+import game.characters.PlayerCharacter;
+import game.core.GameEntity;
+import game.items.GameItem;
+import game.items.Potion;
+import game.items.Treasure;
+import game.map.GameMap;
+import game.map.Position;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A value copy of a whole {@link GameWorld}: every player, enemy and item with
+ * its position, stats and state flags, plus the players' treasure points and
+ * inventories. Entities are kept by reference and their state in primitive
+ * arrays, one slot per entity, so taking a snapshot costs a few array writes
+ * per entity and no per-entity objects.
+ * <p>
+ * Slots are laid out as players, then enemies, then world items, then items
+ * held only in inventories.
+ */
+public final class WorldSnapshot {
+
+    static final byte ON_MAP = 1;
+    static final byte VISIBLE = 2;
+    static final byte USED = 4;
+
+    // Package-private so WorldSaveFile can encode and decode the arrays directly.
+    final GameEntity[] entities;
+    final int playerCount;
+    final int enemyCount;
+    final int itemCount;
+
+    final byte[] flags;
+    final int[] rows;
+    final int[] cols;
+    final int[] health;
+    final int[] power;
+
+    // Per player: treasure points, and the slots of its inventory items in
+    // inventoryItems[inventoryStart[p] .. inventoryStart[p + 1]).
+    final int[] treasurePoints;
+    final int[] inventoryStart;
+    final int[] inventoryItems;
+
+    // Size of the map at capture time; 0 for an unbounded map.
+    final int mapRows;
+    final int mapCols;
+
+    private final long takenAtMillis;
+
+    private WorldSnapshot(GameEntity[] entities, int playerCount, int enemyCount, int itemCount,
+                          int[] treasurePoints, int[] inventoryStart, int[] inventoryItems,
+                          int mapRows, int mapCols) {
+        this(entities, playerCount, enemyCount, itemCount,
+                new byte[entities.length], new int[entities.length], new int[entities.length],
+                new int[entities.length], new int[entities.length],
+                treasurePoints, inventoryStart, inventoryItems, mapRows, mapCols);
+    }
+
+    WorldSnapshot(GameEntity[] entities, int playerCount, int enemyCount, int itemCount,
+                  byte[] flags, int[] rows, int[] cols, int[] health, int[] power,
+                  int[] treasurePoints, int[] inventoryStart, int[] inventoryItems,
+                  int mapRows, int mapCols) {
+        this.entities = entities;
+        this.playerCount = playerCount;
+        this.enemyCount = enemyCount;
+        this.itemCount = itemCount;
+        this.flags = flags;
+        this.rows = rows;
+        this.cols = cols;
+        this.health = health;
+        this.power = power;
+        this.treasurePoints = treasurePoints;
+        this.inventoryStart = inventoryStart;
+        this.inventoryItems = inventoryItems;
+        this.mapRows = mapRows;
+        this.mapCols = mapCols;
+        this.takenAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Captures the current state of the world. Enemy AI is paused while this runs.
+     */
+    public static WorldSnapshot capture(GameWorld world) {
+        Lock lock = world.getStateLock().writeLock();
+        lock.lock();
+        try {
+            return captureLocked(world);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Captures the current state of the world a slice at a time, so enemy AI
+     * and player actions are paused only briefly at a time. Slower than
+     * {@link #capture(GameWorld)}; meant for a background thread.
+     */
+    public static WorldSnapshot captureSliced(GameWorld world) {
+        return SlicedCapture.capture(world, null);
+    }
+
+    private static WorldSnapshot captureLocked(GameWorld world) {
+        // toArray copies the backing array in one go, so a concurrent removal
+        // cannot fail the snapshot; it can only show up as a null slot.
+        PlayerCharacter[] players = world.getPlayers().toArray(new PlayerCharacter[0]);
+        Enemy[] enemies = world.getEnemies().toArray(new Enemy[0]);
+        GameItem[] items = world.getItems().toArray(new GameItem[0]);
+
+        List<GameEntity> table = new ArrayList<>(players.length + enemies.length + items.length);
+        int playerCount = addAll(table, players);
+        int enemyCount = addAll(table, enemies);
+        int itemCount = addAll(table, items);
+
+        int[] treasure = new int[playerCount];
+        int[] inventoryStart = new int[playerCount + 1];
+        List<GameItem> held = new ArrayList<>();
+        for (int p = 0; p < playerCount; p++) {
+            PlayerCharacter player = (PlayerCharacter) table.get(p);
+            treasure[p] = player.getTreasurePoints();
+            List<GameItem> inventory = player.getInventory().getItems();
+            held.addAll(inventory);
+            inventoryStart[p + 1] = inventoryStart[p] + inventory.size();
+        }
+        // A held item is never also on the map or in the world's item list, so it gets its own slot.
+        int[] inventoryItems = new int[held.size()];
+        for (int i = 0; i < inventoryItems.length; i++) {
+            inventoryItems[i] = table.size();
+            table.add(held.get(i));
+        }
+
+        GameMap map = world.getMap();
+        WorldSnapshot snapshot = new WorldSnapshot(table.toArray(new GameEntity[0]),
+                playerCount, enemyCount, itemCount, treasure, inventoryStart, inventoryItems,
+                map.getRows(), map.getCols());
+        snapshot.captureEntities(map);
+        return snapshot;
+    }
+
+    private static int addAll(List<GameEntity> table, GameEntity[] source) {
+        int added = 0;
+        for (GameEntity e : source) {
+            if (e == null) continue;
+            table.add(e);
+            added++;
+        }
+        return added;
+    }
+
+    private void captureEntities(GameMap map) {
+        for (int i = 0; i < entities.length; i++) {
+            captureEntity(map, entities[i], i, flags, rows, cols, health, power);
+        }
+    }
+
+    /**
+     * Copies the state of one entity into slot {@code i} of the arrays.
+     */
+    static void captureEntity(GameMap map, GameEntity e, int i,
+                              byte[] flags, int[] rows, int[] cols, int[] health, int[] power) {
+        Position pos = e.getPosition();
+        byte f = 0;
+        if (pos != null) {
+            rows[i] = pos.getRow();
+            cols[i] = pos.getCol();
+            if (map.isOnMap(e)) f |= ON_MAP;
+        } else {
+            rows[i] = -1;
+            cols[i] = -1;
+        }
+        if (e.isVisible()) f |= VISIBLE;
+        if (e instanceof AbstractCharacter c) {
+            health[i] = c.getHealth();
+            power[i] = c.getPower();
+        } else if (e instanceof Potion p && p.isUsed() || e instanceof Treasure t && t.isCollected()) {
+            f |= USED;
+        }
+        flags[i] = f;
+    }
+
+    /**
+     * Puts the world back into the captured state: entity stats and flags,
+     * inventories, the world lists and the entities on the map. Entities that
+     * were added to the world after the capture are taken off the map.
+     * The same instances are reused, so the live player object is updated in place.
+     * Enemy AI is paused while this runs.
+     */
+    public void restore(GameWorld world) {
+        Lock lock = world.getStateLock().writeLock();
+        lock.lock();
+        try {
+            restoreLocked(world);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void restoreLocked(GameWorld world) {
+        GameMap map = world.getMap();
+
+        // Entities in the world now; whatever is left after removing the
+        // recorded ones was added after the capture.
+        Set<GameEntity> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PlayerCharacter p : world.getPlayers().toArray(new PlayerCharacter[0])) {
+            if (p == null) continue;
+            added.add(p);
+            added.addAll(p.getInventory().getItems());
+        }
+        Collections.addAll(added, world.getEnemies().toArray(new Enemy[0]));
+        Collections.addAll(added, world.getItems().toArray(new GameItem[0]));
+        added.remove(null);
+
+        // Only entities whose cell or presence on the map changed are moved;
+        // all removals happen before any addition.
+        boolean[] putBack = new boolean[entities.length];
+        for (int i = 0; i < entities.length; i++) {
+            GameEntity e = entities[i];
+            added.remove(e);
+            Position pos = e.getPosition();
+            boolean onMapNow = map.isOnMap(e);
+            boolean onMapThen = (flags[i] & ON_MAP) != 0;
+            boolean sameCell = pos != null && pos.getRow() == rows[i] && pos.getCol() == cols[i];
+            if (onMapNow && !(onMapThen && sameCell)) {
+                map.removeEntity(e);
+                putBack[i] = onMapThen;
+            } else if (!onMapNow && onMapThen) {
+                putBack[i] = true;
+            }
+        }
+        for (GameEntity e : added) {
+            if (map.isOnMap(e)) {
+                map.removeEntity(e);
+            }
+        }
+
+        for (int i = 0; i < entities.length; i++) {
+            GameEntity e = entities[i];
+            if (rows[i] >= 0) e.setPosition(Position.of(rows[i], cols[i]));
+            e.setVisible((flags[i] & VISIBLE) != 0);
+            if (e instanceof AbstractCharacter c) {
+                c.restoreStats(health[i], power[i]);
+            } else if (e instanceof Potion p) {
+                p.restoreUsed((flags[i] & USED) != 0);
+            } else if (e instanceof Treasure t) {
+                t.restoreCollected((flags[i] & USED) != 0);
+            }
+            if (putBack[i]) {
+                map.addEntity(e);
+            }
+        }
+
+        List<PlayerCharacter> players = new ArrayList<>(playerCount);
+        for (int p = 0; p < playerCount; p++) {
+            PlayerCharacter player = (PlayerCharacter) entities[p];
+            player.restoreTreasurePoints(treasurePoints[p]);
+            List<GameItem> inventory = new ArrayList<>(inventoryStart[p + 1] - inventoryStart[p]);
+            for (int k = inventoryStart[p]; k < inventoryStart[p + 1]; k++) {
+                inventory.add((GameItem) entities[inventoryItems[k]]);
+            }
+            player.getInventory().setItems(inventory);
+            players.add(player);
+        }
+        List<Enemy> enemies = new ArrayList<>(enemyCount);
+        for (int i = playerCount; i < playerCount + enemyCount; i++) {
+            enemies.add((Enemy) entities[i]);
+        }
+        List<GameItem> items = new ArrayList<>(itemCount);
+        for (int i = playerCount + enemyCount; i < playerCount + enemyCount + itemCount; i++) {
+            items.add((GameItem) entities[i]);
+        }
+        world.restoreContents(players, enemies, items);
+    }
+
+    /**
+     * Returns the number of entities recorded, including inventory items.
+     */
+    public int getEntityCount() {
+        return entities.length;
+    }
+
+    public long getTakenAtMillis() {
+        return takenAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "WorldSnapshot of " + playerCount + " player(s), " + enemyCount + " enemy(ies), "
+                + itemCount + " item(s), " + (entities.length - playerCount - enemyCount - itemCount)
+                + " held item(s)";
+    }
+}
@@ -1,12 +1,12 @@
 package game.gui;
 
 import game.characters.*;
-import game.combat.CombatSystem;
 import game.combat.MeleeFighter;
 import game.combat.RangedFighter;
 import game.core.GameEntity;
 import game.engine.GameLogger;
 import game.engine.GameWorld;
+import game.engine.PlayerActions;
 import game.items.*;
 import game.map.GameMap;
 import game.map.Position;
@@ -75,7 +75,7 @@ public class GameController implements MapPanel.MapClickListener {
      */
     @Override
     public void onLeftClick(int row, int col) {
-        Position target = new Position(row, col);
+        Position target = Position.of(row, col);
         boolean isAdjacent = isWithinMoveRange(player.getPosition(), target);
 
         for (GameEntity entity : gameMap.getEntitiesAt(target)) {
@@ -91,13 +91,7 @@ public class GameController implements MapPanel.MapClickListener {
                 boolean inRange = player instanceof RangedFighter rf && rf.isInRange(player.getPosition(), target);
 
                 if (inMelee || inRange) {
-                    CombatSystem.resolveCombat(player, enemy, world);
-                    if (!enemy.isDead()) {
-                        CombatSystem.resolveCombat(enemy, player, world);
-                    }
-                    if (enemy.isDead()) {
-                        world.removeEnemy(enemy);
-                        gameMap.removeEntity(enemy);
+                    if (PlayerActions.attack(world, player, enemy)) {
                         mapPanel.highlightCell(target, Color.RED);
                         mapPanel.setPlayerPosition(player.getPosition());
                         notifyListeners();
@@ -111,9 +105,7 @@ public class GameController implements MapPanel.MapClickListener {
             }
 
             if (entity instanceof Potion || entity instanceof PowerPotion) {
-                if (player.addToInventory((GameItem) entity)) {
-                    world.removeItem((GameItem) entity);
-                    gameMap.removeEntity(entity);
+                if (PlayerActions.take(world, player, (GameItem) entity)) {
                     mapPanel.highlightCell(target, Color.GREEN);
                 }
                 mapPanel.setPlayerPosition(player.getPosition());
@@ -121,10 +113,8 @@ public class GameController implements MapPanel.MapClickListener {
                 return;
             }
 
-            if (entity instanceof GameItem item && item instanceof Interactable interactable) {
-                interactable.interact(player);
-                world.removeItem(item);
-                gameMap.removeEntity(item);
+            if (entity instanceof GameItem item && item instanceof Interactable) {
+                PlayerActions.take(world, player, item);
                 mapPanel.highlightCell(target, Color.GREEN);
                 notifyListeners();
                 return;
@@ -133,11 +123,9 @@ public class GameController implements MapPanel.MapClickListener {
 
         if (isAdjacent) {
             Position from = player.getPosition();
-            gameMap.removeEntity(player);
-            player.setPosition(target);
-            gameMap.addEntity(player);
+            if (!PlayerActions.move(world, player, target)) return;
             mapPanel.setPlayerPosition(target);
-            GameLogger.log("Player moved from " + from + " to " + target);
+            GameLogger.log(GameLogger.Category.PLAYER, GameLogger.Level.INFO, "Player moved from {} to {}", from, target);
             notifyListeners();
         }
     }
@@ -154,7 +142,7 @@ public class GameController implements MapPanel.MapClickListener {
      */
     @Override
     public void onRightClick(int row, int col, Component invoker, int x, int y) {
-        Position pos = new Position(row, col);
+        Position pos = Position.of(row, col);
         StringBuilder info = new StringBuilder("<html>");
 
         for (GameEntity entity : gameMap.getEntitiesAt(pos)) {
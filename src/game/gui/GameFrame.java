@@ -1,25 +1,69 @@
 package game.gui;
 
 import game.characters.PlayerCharacter;
+import game.engine.AutosaveService;
+import game.engine.EnemyManager;
+import game.engine.GameLogger;
+import game.engine.GameWorld;
+import game.engine.WorldCaretaker;
+import game.engine.WorldSaveFile;
+import game.engine.WorldSnapshot;
 import game.map.GameMap;
 import game.map.memento.GameMapCaretaker;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class GameFrame extends JFrame {
 
+    private static final Path AUTOSAVE_DIR = Path.of(".");
+
     private final GameMapCaretaker caretaker = new GameMapCaretaker();
     private final GameMap map;
     private final MapPanel mapPanel;
     private final PlayerCharacter player;
+    // Saves the whole world when available; otherwise only the map is saved.
+    private final transient GameWorld world;
+    private final transient WorldCaretaker worldCaretaker;
+    private final JFileChooser saveChooser = new JFileChooser(".");
+    // Saves the world in the background; null if there is no world or autosave is off, as it is by default.
+    private final transient AutosaveService autosave;
+    // Captures and writes the saves asked for from the menu, so the event thread never waits on either.
+    private final transient ExecutorService saver = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Save");
+        t.setDaemon(true);
+        return t;
+    });
 
     public GameFrame(MapPanel mapPanel, StatusPanel statusPanel, GameMap map, PlayerCharacter player) {
+        this(mapPanel, statusPanel, map, player, null, null);
+    }
+
+    /**
+     * Creates a frame whose Save/Restore menu snapshots the whole world,
+     * including stats, inventory and items, instead of only the map.
+     *
+     * @param world        the world to save and restore
+     * @param enemyManager the manager running enemy AI, restarted for enemies a restore revives; may be null
+     */
+    public GameFrame(MapPanel mapPanel, StatusPanel statusPanel, GameMap map, PlayerCharacter player,
+                     GameWorld world, EnemyManager enemyManager) {
         super("Dungeons & Dragons");
 
         this.map = map;
         this.mapPanel = mapPanel;
         this.player = player;
+        this.world = world;
+        this.worldCaretaker = world != null ? new WorldCaretaker(world, enemyManager) : null;
+        this.saveChooser.setFileFilter(new FileNameExtensionFilter("Saved games (*.sav)", "sav"));
+        long autosaveMillis = AutosaveService.intervalFromSystemProperty();
+        this.autosave = world != null && autosaveMillis > 0
+                ? new AutosaveService(world, AUTOSAVE_DIR, autosaveMillis) : null;
 
         setLayout(new BorderLayout());
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -32,6 +76,10 @@ public class GameFrame extends JFrame {
 
         pack();
         setLocationRelativeTo(null);
+
+        if (autosave != null) {
+            autosave.start();
+        }
     }
 
     private JMenuBar createMenuBar() {
@@ -43,12 +91,26 @@ public class GameFrame extends JFrame {
         JMenuItem restoreItem = new JMenuItem("Restore State");
 
         saveItem.addActionListener(e -> {
-            caretaker.save(map);
-            JOptionPane.showMessageDialog(this, "Game state saved!");
+            if (worldCaretaker != null) {
+                saver.execute(() -> {
+                    WorldSnapshot snapshot = WorldSnapshot.captureSliced(world);
+                    SwingUtilities.invokeLater(() -> {
+                        worldCaretaker.save(snapshot);
+                        JOptionPane.showMessageDialog(this, "Game state saved!");
+                    });
+                });
+            } else {
+                caretaker.save(map);
+                JOptionPane.showMessageDialog(this, "Game state saved!");
+            }
         });
 
         restoreItem.addActionListener(e -> {
-            if (caretaker.hasHistory()) {
+            if (worldCaretaker != null && worldCaretaker.hasHistory()) {
+                worldCaretaker.undo();
+                mapPanel.refresh(player.getPosition());
+                JOptionPane.showMessageDialog(this, "Game state restored!");
+            } else if (worldCaretaker == null && caretaker.hasHistory()) {
                 caretaker.undo(map);
                 mapPanel.refresh(player.getPosition()); // ← עדכון נכון של התצוגה
                 JOptionPane.showMessageDialog(this, "Game state restored!");
@@ -59,8 +121,68 @@ public class GameFrame extends JFrame {
 
         gameMenu.add(saveItem);
         gameMenu.add(restoreItem);
+
+        if (worldCaretaker != null) {
+            JMenuItem saveFileItem = new JMenuItem("Save to File...");
+            JMenuItem loadFileItem = new JMenuItem("Load from File...");
+            saveFileItem.addActionListener(e -> saveToFile());
+            loadFileItem.addActionListener(e -> loadFromFile());
+            gameMenu.addSeparator();
+            gameMenu.add(saveFileItem);
+            gameMenu.add(loadFileItem);
+
+            JMenuItem loadAutosaveItem = new JMenuItem("Load Autosave");
+            loadAutosaveItem.addActionListener(e -> loadAutosave());
+            gameMenu.add(loadAutosaveItem);
+        }
         menuBar.add(gameMenu);
 
         return menuBar;
     }
+
+    private void saveToFile() {
+        if (saveChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path chosen = saveChooser.getSelectedFile().toPath();
+        Path file = chosen.getFileName().toString().endsWith(".sav")
+                ? chosen : chosen.resolveSibling(chosen.getFileName() + ".sav");
+        saver.execute(() -> {
+            try {
+                long bytes = WorldSaveFile.write(WorldSnapshot.captureSliced(world), file);
+                GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.INFO, "Game saved to {} ({} bytes)", file, bytes);
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, "Game saved to " + file.getFileName()));
+            } catch (IOException ex) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, "Could not save: " + ex.getMessage(),
+                        "Save failed", JOptionPane.ERROR_MESSAGE));
+            }
+        });
+    }
+
+    private void loadAutosave() {
+        try {
+            WorldSnapshot snapshot = AutosaveService.loadLatest(AUTOSAVE_DIR, world);
+            if (snapshot == null) {
+                JOptionPane.showMessageDialog(this, "No autosave found.");
+                return;
+            }
+            worldCaretaker.apply(snapshot);
+            mapPanel.refresh(player.getPosition());
+            GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.INFO, "Autosave loaded ({})", snapshot);
+            JOptionPane.showMessageDialog(this, "Autosave loaded.");
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not load autosave: " + ex.getMessage(), "Load failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void loadFromFile() {
+        if (saveChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = saveChooser.getSelectedFile().toPath();
+        try {
+            worldCaretaker.apply(WorldSaveFile.read(file, world));
+            mapPanel.refresh(player.getPosition());
+            GameLogger.log(GameLogger.Category.GENERAL, GameLogger.Level.INFO, "Game loaded from {}", file);
+            JOptionPane.showMessageDialog(this, "Game loaded from " + file.getFileName());
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not load: " + ex.getMessage(), "Load failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
 }
@@ -0,0 +1,146 @@
+package game.gui;
+
+import game.map.Position;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * A single component that draws the whole map grid itself, used by
+ * {@link MapPanel} in {@link MapPanel.RenderMode#CANVAS} and
+ * {@link MapPanel.RenderMode#VIEWPORT} mode. Only the cells inside the clip
+ * are painted, and clicks are mapped to cells from the mouse coordinates, so
+ * the cost does not depend on the number of cells.
+ */
+class MapCanvas extends JComponent implements Scrollable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Largest number of cells shown across and down when the canvas is scrolled. */
+    static final int VIEWPORT_CELLS = 15;
+
+    private final MapPanel owner;
+    private final transient SpriteAtlas atlas;
+    private final int rows;
+    private final int cols;
+    private final int cellSize;
+    /** The part of the canvas currently on screen, or null if it is shown whole. */
+    private Rectangle visibleArea;
+
+    MapCanvas(MapPanel owner, SpriteAtlas atlas, int rows, int cols) {
+        this.owner = owner;
+        this.atlas = atlas;
+        this.rows = rows;
+        this.cols = cols;
+        this.cellSize = atlas.getCellSize();
+
+        setOpaque(true);
+        setPreferredSize(new Dimension(cols * cellSize, rows * cellSize));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                MapPanel.MapClickListener listener = owner.getClickListener();
+                if (listener == null) return;
+                int row = e.getY() / cellSize;
+                int col = e.getX() / cellSize;
+                if (row < 0 || col < 0 || row >= rows || col >= cols) return;
+                if (SwingUtilities.isLeftMouseButton(e))
+                    listener.onLeftClick(row, col);
+                else if (SwingUtilities.isRightMouseButton(e))
+                    listener.onRightClick(row, col, MapCanvas.this, e.getX(), e.getY());
+            }
+        });
+    }
+
+    /**
+     * Schedules a repaint of one cell. Swing merges the requested areas into a
+     * single paint.
+     */
+    void repaintCell(int row, int col) {
+        int x = col * cellSize;
+        int y = row * cellSize;
+        Rectangle area = visibleArea;
+        if (area != null && (x >= area.x + area.width || x + cellSize <= area.x
+                || y >= area.y + area.height || y + cellSize <= area.y)) {
+            return;
+        }
+        repaint(x, y, cellSize, cellSize);
+    }
+
+    /**
+     * Tells the canvas which part of it is on screen, so changes elsewhere are
+     * not repainted.
+     */
+    void setVisibleArea(Rectangle area) {
+        this.visibleArea = area;
+    }
+
+    /**
+     * Returns the pixel bounds of a cell.
+     */
+    Rectangle cellBounds(Position pos) {
+        return new Rectangle(pos.getCol() * cellSize, pos.getRow() * cellSize, cellSize, cellSize);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(Math.min(cols, VIEWPORT_CELLS) * cellSize, Math.min(rows, VIEWPORT_CELLS) * cellSize);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return cellSize;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int extent = orientation == SwingConstants.HORIZONTAL ? visibleRect.width : visibleRect.height;
+        return Math.max(cellSize, extent - cellSize);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+        g.setColor(Color.BLACK);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        Position playerPos = owner.getCurrentPlayerPosition();
+        if (playerPos == null) return;
+
+        int firstRow = Math.max(0, clip.y / cellSize);
+        int lastRow = Math.min(rows - 1, (clip.y + clip.height - 1) / cellSize);
+        int firstCol = Math.max(0, clip.x / cellSize);
+        int lastCol = Math.min(cols - 1, (clip.x + clip.width - 1) / cellSize);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            int y = row * cellSize;
+            for (int col = firstCol; col <= lastCol; col++) {
+                int x = col * cellSize;
+                Position pos = Position.of(row, col);
+                Color highlight = owner.getHighlight(pos);
+                if (highlight != null) {
+                    g.setColor(highlight);
+                    g.fillRect(x, y, cellSize, cellSize);
+                }
+                String key = owner.spriteKeyAt(pos, playerPos);
+                if (key != null) {
+                    atlas.draw(g, key, x, y);
+                }
+            }
+        }
+    }
+}
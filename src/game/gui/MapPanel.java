@@ -11,8 +11,9 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.HashMap;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The MapPanel class represents the graphical grid-based map of the game.
@@ -21,8 +22,77 @@ import java.util.Map;
  */
 public class MapPanel extends JPanel implements GameEventListener {
 
+    /**
+     * How the map grid is drawn.
+     */
+    public enum RenderMode {
+        /** One JLabel per cell in a GridLayout. */
+        LABELS,
+        /** A single component that paints the grid from a sprite atlas. */
+        CANVAS,
+        /** The canvas inside a scroll pane that shows a window around the player and follows them. */
+        VIEWPORT;
+
+        /** System property used to pick the mode, e.g. {@code -Dgame.mapView=CANVAS}. */
+        public static final String PROPERTY = "game.mapView";
+
+        /** Largest map size shown with {@link #LABELS} when no mode is configured. */
+        public static final int MAX_LABEL_MAP_SIZE = 20;
+
+        /**
+         * Returns the mode named by the {@value #PROPERTY} system property,
+         * or {@link #LABELS} if it is missing or unknown.
+         */
+        public static RenderMode fromSystemProperty() {
+            RenderMode configured = configured();
+            return configured != null ? configured : LABELS;
+        }
+
+        /**
+         * Returns the mode named by the {@value #PROPERTY} system property, or
+         * otherwise {@link #LABELS} for small maps and {@link #VIEWPORT} for
+         * maps larger than {@value #MAX_LABEL_MAP_SIZE}.
+         */
+        public static RenderMode forMapSize(int size) {
+            RenderMode configured = configured();
+            if (configured != null) return configured;
+            return size <= MAX_LABEL_MAP_SIZE ? LABELS : VIEWPORT;
+        }
+
+        private static RenderMode configured() {
+            String value = System.getProperty(PROPERTY);
+            if (value != null) {
+                for (RenderMode m : values()) {
+                    if (m.name().equalsIgnoreCase(value.trim())) return m;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Sprite key to image file; keys are entity class names plus a few special cells. */
+    private static final Map<String, String> SPRITE_FILES = new LinkedHashMap<>();
+    static {
+        SPRITE_FILES.put("Warrior", "figther.png");
+        SPRITE_FILES.put("Mage", "Mage.png");
+        SPRITE_FILES.put("Archer", "archer.png");
+        SPRITE_FILES.put("Goblin", "goblin.png");
+        SPRITE_FILES.put("Orc", "orc.png");
+        SPRITE_FILES.put("Dragon", "dragon.png");
+        SPRITE_FILES.put("Potion", "life_potion.png");
+        SPRITE_FILES.put("PowerPotion", "power_potion.png");
+        SPRITE_FILES.put("Wall", "wall.png");
+        SPRITE_FILES.put("Treasure", "treasure.png");
+        SPRITE_FILES.put("GameBackground", "game_background.png");
+        SPRITE_FILES.put("Unknown", "unknown.png");
+        SPRITE_FILES.put("Empty", "game_background.png");
+    }
+
     private final int size;
+    private final RenderMode renderMode;
     private final JLabel[][] cells;
+    private final MapCanvas canvas;
+    private final JScrollPane scrollPane;
     private final GameMap gameMap;
     private final Map<String, ImageIcon> iconMap = new HashMap<>();
     private final Map<Position, Color> highlights = new HashMap<>();
@@ -31,20 +101,63 @@ public class MapPanel extends JPanel implements GameEventListener {
     private Position currentPlayerPosition;
     private Position lastPlayerPosition = null;
 
+    /** Vision radius around the player; cells further away are drawn as unknown. */
+    private static final int VISION_RADIUS = 2;
+    /** Minimum time between two repaints requested from game threads. */
+    private static final int FRAME_MILLIS = 16;
+
+    private final AtomicBoolean frameRequested = new AtomicBoolean();
+    private final Timer frameTimer;
+    private transient volatile Position pendingPlayerPosition;
+
     /**
-     * Constructs a MapPanel with the specified size and game map.
+     * Constructs a MapPanel with the specified size and game map, drawn in the
+     * mode named by the {@value RenderMode#PROPERTY} system property.
      *
      * @param size    the size of the grid (number of rows and columns).
      * @param gameMap the game map containing entities and their positions.
      */
     public MapPanel(int size, GameMap gameMap) {
+        this(size, gameMap, RenderMode.fromSystemProperty());
+    }
+
+    /**
+     * Constructs a MapPanel with the specified size, game map and render mode.
+     *
+     * @param size       the size of the grid (number of rows and columns).
+     * @param gameMap    the game map containing entities and their positions.
+     * @param renderMode how the grid is drawn.
+     */
+    public MapPanel(int size, GameMap gameMap, RenderMode renderMode) {
         this.size = size;
         this.gameMap = gameMap;
-        this.setLayout(new GridLayout(size, size));
-        this.cells = new JLabel[size][size];
-        loadIcons();
-        initializeGrid();
+        this.renderMode = renderMode;
+        if (renderMode == RenderMode.LABELS) {
+            this.setLayout(new GridLayout(size, size));
+            this.cells = new JLabel[size][size];
+            this.canvas = null;
+            this.scrollPane = null;
+            loadIcons();
+            initializeGrid();
+        } else {
+            this.setLayout(new BorderLayout());
+            this.cells = null;
+            this.canvas = new MapCanvas(this, new SpriteAtlas(cellSize, SPRITE_FILES), size, size);
+            if (renderMode == RenderMode.VIEWPORT) {
+                this.scrollPane = new JScrollPane(canvas);
+                this.scrollPane.getViewport().setBackground(Color.BLACK);
+                this.scrollPane.getViewport().addChangeListener(
+                        e -> canvas.setVisibleArea(scrollPane.getViewport().getViewRect()));
+                this.add(scrollPane, BorderLayout.CENTER);
+            } else {
+                this.scrollPane = null;
+                this.add(canvas, BorderLayout.CENTER);
+            }
+        }
 
+        this.frameTimer = new Timer(FRAME_MILLIS, e -> renderFrame());
+        this.frameTimer.setCoalesce(true);
+        this.frameTimer.start();
     }
 
     /**
@@ -67,15 +180,65 @@ public class MapPanel extends JPanel implements GameEventListener {
     }
 
     /**
-     * Updates the map when the game state changes.
+     * Updates the map when the game state changes. May be called from any thread;
+     * the repaint itself happens on the next frame on the EDT, so a burst of
+     * changes costs a single repaint.
      *
      * @param world the current game world.
      */
     @Override
     public void onGameStateChanged(GameWorld world) {
         if (!world.getPlayers().isEmpty()) {
-            Position pos = world.getPlayers().get(0).getPosition(); // First player's position
-            refresh(pos); // Update based on the current model position
+            pendingPlayerPosition = world.getPlayers().get(0).getPosition(); // First player's position
+            frameRequested.set(true);
+        }
+    }
+
+    /**
+     * Runs on the EDT once per frame. Redraws the cells the map reported as
+     * changed, plus the vision ring around the old and new player positions.
+     */
+    private void renderFrame() {
+        if (!frameRequested.getAndSet(false)) return;
+        Position playerPos = pendingPlayerPosition;
+        if (playerPos == null) return;
+
+        Position previous = lastPlayerPosition;
+        boolean full = gameMap.getDirtyCells().drain((row, col) -> updateCell(row, col, playerPos));
+        if (full || previous == null) {
+            refresh(playerPos);
+            return;
+        }
+
+        this.currentPlayerPosition = playerPos;
+        updateVisionRing(previous, playerPos);
+        if (!previous.equals(playerPos)) {
+            followPlayer(playerPos);
+            updateVisionRing(playerPos, playerPos);
+        }
+        lastPlayerPosition = playerPos;
+    }
+
+    /**
+     * In viewport mode, scrolls so the player and the cells they can see are on screen.
+     */
+    private void followPlayer(Position playerPos) {
+        if (scrollPane == null) return;
+        int margin = (VISION_RADIUS + 1) * cellSize;
+        Rectangle target = new Rectangle(playerPos.getCol() * cellSize - margin, playerPos.getRow() * cellSize - margin,
+                cellSize + 2 * margin, cellSize + 2 * margin);
+        canvas.scrollRectToVisible(target);
+    }
+
+    /**
+     * Redraws the cells within the vision radius of a center position.
+     */
+    private void updateVisionRing(Position center, Position playerPos) {
+        for (int dr = -VISION_RADIUS; dr <= VISION_RADIUS; dr++) {
+            int span = VISION_RADIUS - Math.abs(dr);
+            for (int dc = -span; dc <= span; dc++) {
+                updateCell(center.getRow() + dr, center.getCol() + dc, playerPos);
+            }
         }
     }
 
@@ -83,19 +246,9 @@ public class MapPanel extends JPanel implements GameEventListener {
      * Loads icons for various game entities.
      */
     private void loadIcons() {
-        iconMap.put("Warrior", loadIcon("figther.png"));
-        iconMap.put("Mage", loadIcon("Mage.png"));
-        iconMap.put("Archer", loadIcon("archer.png"));
-        iconMap.put("Goblin", loadIcon("goblin.png"));
-        iconMap.put("Orc", loadIcon("orc.png"));
-        iconMap.put("Dragon", loadIcon("dragon.png"));
-        iconMap.put("Potion", loadIcon("life_potion.png"));
-        iconMap.put("PowerPotion", loadIcon("power_potion.png"));
-        iconMap.put("Wall", loadIcon("wall.png"));
-        iconMap.put("Treasure", loadIcon("treasure.png"));
-        iconMap.put("GameBackground", loadIcon("game_background.png"));
-        iconMap.put("Unknown", loadIcon("unknown.png"));
-        iconMap.put("Empty", loadIcon("game_background.png"));
+        for (Map.Entry<String, String> entry : SPRITE_FILES.entrySet()) {
+            iconMap.put(entry.getKey(), loadIcon(entry.getValue()));
+        }
     }
 
     /**
@@ -151,44 +304,79 @@ public class MapPanel extends JPanel implements GameEventListener {
     public void refresh(Position playerPos) {
         if (playerPos == null) return;
         this.currentPlayerPosition = playerPos;
+        this.lastPlayerPosition = playerPos;
 
+        if (canvas != null) {
+            followPlayer(playerPos);
+            canvas.repaint();
+            return;
+        }
         for (int row = 0; row < size; row++) {
             for (int col = 0; col < size; col++) {
-                Position pos = new Position(row, col);
-                JLabel cell = cells[row][col];
+                updateCell(row, col, playerPos);
+            }
+        }
+    }
 
-                cell.setIcon(null);
+    /**
+     * Redraws a single cell. Cells outside the grid are ignored.
+     */
+    private void updateCell(int row, int col, Position playerPos) {
+        if (row < 0 || col < 0 || row >= size || col >= size) return;
+        if (canvas != null) {
+            canvas.repaintCell(row, col);
+            return;
+        }
+        Position pos = Position.of(row, col);
+        JLabel cell = cells[row][col];
 
-                int distance = playerPos.distanceTo(pos);
-                List<GameEntity> entities = gameMap.getEntitiesAt(pos);
+        String key = spriteKeyAt(pos, playerPos);
+        Icon icon = key == null ? null : iconMap.getOrDefault(key, iconMap.get("Unknown"));
 
-                GameEntity visible = null;
-                if (distance <= 2) {
-                    for (GameEntity e : entities) {
-                        if (e instanceof game.characters.Enemy en && en.isDead()) continue;
-                        e.setVisible(true);
-                        visible = e;
-                        break;
-                    }
-                }
-
-                if (distance > 2) {
-                    cell.setIcon(iconMap.get("Unknown"));
-                } else if (visible != null) {
-                    cell.setIcon(iconMap.getOrDefault(visible.getClass().getSimpleName(), iconMap.get("Unknown")));
-                } else if (!highlights.containsKey(pos)) {
-                    cell.setIcon(iconMap.get("Empty"));
-                }
+        // JLabel repaints on every setter call, even when nothing changed.
+        if (cell.getIcon() != icon) {
+            cell.setIcon(icon);
+        }
+        Color background = highlights.getOrDefault(pos, Color.BLACK);
+        if (!background.equals(cell.getBackground())) {
+            cell.setBackground(background);
+        }
+    }
 
-                if (highlights.containsKey(pos)) {
-                    cell.setBackground(highlights.get(pos));
-                } else {
-                    cell.setBackground(Color.BLACK);
-                }
-            }
+    /**
+     * Returns the sprite key to draw at a position, or null if the cell shows
+     * only its highlight color. Cells the player can see are marked visible.
+     */
+    String spriteKeyAt(Position pos, Position playerPos) {
+        if (playerPos.distanceTo(pos) > VISION_RADIUS) {
+            return "Unknown";
+        }
+        for (GameEntity e : gameMap.getEntitiesAt(pos)) {
+            if (e instanceof game.characters.Enemy en && en.isDead()) continue;
+            e.setVisible(true);
+            return e.getClass().getSimpleName();
         }
+        return highlights.containsKey(pos) ? null : "Empty";
     }
 
+    Color getHighlight(Position pos) {
+        return highlights.get(pos);
+    }
+
+    Position getCurrentPlayerPosition() {
+        return currentPlayerPosition;
+    }
+
+    MapClickListener getClickListener() {
+        return clickListener;
+    }
+
+    /**
+     * Returns how this panel draws the grid.
+     */
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
 
     /**
      * Highlights a specific cell on the map with a given color.
@@ -199,11 +387,11 @@ public class MapPanel extends JPanel implements GameEventListener {
     public void highlightCell(Position pos, Color color) {
         if (pos == null) return;
         highlights.put(pos, color);
-        refresh(currentPlayerPosition);
+        if (currentPlayerPosition != null) updateCell(pos.getRow(), pos.getCol(), currentPlayerPosition);
 
         Timer t = new Timer(3000, e -> {
             highlights.remove(pos);
-            refresh(currentPlayerPosition);
+            if (currentPlayerPosition != null) updateCell(pos.getRow(), pos.getCol(), currentPlayerPosition);
         });
         t.setRepeats(false);
         t.start();
@@ -0,0 +1,75 @@
+package game.gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * All map sprites scaled once to the cell size and packed side by side into a
+ * single image, so a whole map can be drawn from one source image without
+ * scaling anything at paint time.
+ */
+class SpriteAtlas {
+
+    private final int cellSize;
+    private final BufferedImage image;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final int unknownSlot;
+
+    /**
+     * Loads and scales the sprites.
+     *
+     * @param cellSize the width and height of one sprite in pixels
+     * @param files    sprite key to file name under {@code images/}
+     */
+    SpriteAtlas(int cellSize, Map<String, String> files) {
+        this.cellSize = cellSize;
+        this.image = createImage(cellSize * files.size(), cellSize);
+
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        int slot = 0;
+        for (Map.Entry<String, String> entry : files.entrySet()) {
+            Image sprite = load(entry.getValue());
+            if (sprite != null) {
+                g.drawImage(sprite, slot * cellSize, 0, cellSize, cellSize, null);
+            }
+            slots.put(entry.getKey(), slot++);
+        }
+        g.dispose();
+        this.unknownSlot = slots.getOrDefault("Unknown", 0);
+    }
+
+    /**
+     * Draws the sprite with the given key at a pixel position. Unknown keys are
+     * drawn with the "Unknown" sprite.
+     */
+    void draw(Graphics g, String key, int x, int y) {
+        int sx = slots.getOrDefault(key, unknownSlot) * cellSize;
+        g.drawImage(image, x, y, x + cellSize, y + cellSize, sx, 0, sx + cellSize, cellSize, null);
+    }
+
+    int getCellSize() {
+        return cellSize;
+    }
+
+    private static BufferedImage createImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        // An image in the screen's own format is drawn without per-pixel conversion.
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    private Image load(String filename) {
+        var url = getClass().getClassLoader().getResource("images/" + filename);
+        if (url == null) {
+            System.err.println("Missing icon: " + filename);
+            return null;
+        }
+        return new ImageIcon(url).getImage();
+    }
+}
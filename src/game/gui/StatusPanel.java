@@ -2,9 +2,14 @@
 
 package game.gui;
 
+import game.characters.Dragon;
+import game.characters.Goblin;
+import game.characters.Orc;
 import game.characters.PlayerCharacter;
 import game.engine.GameWorld;
+import game.engine.PlayerActions;
 import game.items.GameItem;
+import game.map.GameMap;
 import game.map.Position;
 
 import javax.swing.*;
@@ -21,9 +26,11 @@ public class StatusPanel extends JPanel implements GameEventListener {
     private final JLabel powerLabel;
     private final JLabel treasureLabel;
     private final JLabel potionsLabel;
+    private final JLabel enemiesLabel;
     private final JButton usePotionButton;
     private final JButton usePowerPotionButton;
     private PlayerCharacter player;
+    private transient GameWorld world;
 
     /**
      * Constructs a StatusPanel with labels and buttons to display and interact
@@ -39,18 +46,19 @@ public class StatusPanel extends JPanel implements GameEventListener {
         powerLabel = new JLabel();
         treasureLabel = new JLabel();
         potionsLabel = new JLabel();
+        enemiesLabel = new JLabel();
 
         usePotionButton = new JButton("Use Potion");
         usePowerPotionButton = new JButton("Use Power Potion");
 
         usePotionButton.addActionListener(e -> {
-            if (player != null && player.usePotion()) {
+            if (player != null && usePotion(false)) {
                 updateStatus(player);
             }
         });
 
         usePowerPotionButton.addActionListener(e -> {
-            if (player != null && player.usePowerPotion()) {
+            if (player != null && usePotion(true)) {
                 updateStatus(player);
             }
         });
@@ -60,10 +68,18 @@ public class StatusPanel extends JPanel implements GameEventListener {
         this.add(powerLabel);
         this.add(treasureLabel);
         this.add(potionsLabel);
+        this.add(enemiesLabel);
         this.add(usePotionButton);
         this.add(usePowerPotionButton);
     }
 
+    private boolean usePotion(boolean power) {
+        if (world != null) {
+            return PlayerActions.usePotion(world, player, power);
+        }
+        return power ? player.usePowerPotion() : player.usePotion();
+    }
+
     /**
      * Updates the status panel with the player's current status.
      *
@@ -81,6 +97,11 @@ public class StatusPanel extends JPanel implements GameEventListener {
         long powerPotions = p.getInventory().getItems().stream()
                 .filter(i -> i.getClass().getSimpleName().equals("PowerPotion")).count();
         potionsLabel.setText("Potions: " + potions + " | Power: " + powerPotions);
+
+        GameMap map = world != null ? world.getMap() : GameMap.getInstance();
+        enemiesLabel.setText("Orcs: " + map.getTypeCount(Orc.class)
+                + " | Goblins: " + map.getTypeCount(Goblin.class)
+                + " | Dragons: " + map.getTypeCount(Dragon.class));
     }
 
     /**
@@ -91,6 +112,7 @@ public class StatusPanel extends JPanel implements GameEventListener {
      */
     @Override
     public void onGameStateChanged(GameWorld world) {
+        this.world = world;
         if (player != null) {
             updateStatus(player);
         }
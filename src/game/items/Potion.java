@@ -3,10 +3,9 @@
 package game.items;
 
 import game.characters.PlayerCharacter;
+import game.core.ActionRandom;
 import game.map.Position;
 
-import java.util.Random;
-
 /**
  * Represents a healing potion that can be used by a character to restore health.
  * A potion can be used once. After use, it becomes inactive.
@@ -24,10 +23,31 @@ public class Potion extends GameItem implements Interactable {
      */
     public Potion(Position position) {
         super(position, false, "Healing Potion");
-        this.increaseAmount = new Random().nextInt(41) + 10; // 10–50
+        this.increaseAmount = ActionRandom.nextInt(41) + 10; // 10–50
         this.isUsed = false;
     }
 
+    /**
+     * Constructs a healing potion with a known amount and state, e.g. when a
+     * saved game is loaded.
+     *
+     * @param position       the location of the potion on the map
+     * @param increaseAmount the healing amount
+     * @param used           whether the potion was already used
+     */
+    public Potion(Position position, int increaseAmount, boolean used) {
+        this(position, "Healing Potion", increaseAmount, used);
+    }
+
+    /**
+     * Constructs a potion with the given description, amount and state.
+     */
+    protected Potion(Position position, String description, int increaseAmount, boolean used) {
+        super(position, false, description);
+        this.increaseAmount = increaseAmount;
+        this.isUsed = used;
+    }
+
     /**
      * Heals the character by the potion's healing value, if not already used.
      * Once used, the potion becomes inactive and cannot be reused.
@@ -111,6 +131,15 @@ public class Potion extends GameItem implements Interactable {
         return true;
     }
 
+    /**
+     * Puts back the used state saved in a snapshot.
+     *
+     * @param used the saved state
+     */
+    public void restoreUsed(boolean used) {
+        setUsed(used);
+    }
+
     /**
      * Sets the healing or power-boost value of the potion.
      *
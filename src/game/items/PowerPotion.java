@@ -3,10 +3,9 @@
 package game.items;
 
 import game.characters.PlayerCharacter;
+import game.core.ActionRandom;
 import game.map.Position;
 
-import java.util.Random;
-
 /**
  * A special potion that increases a character's power instead of healing.
  * PowerPotions are single-use and cannot be reused once consumed.
@@ -20,7 +19,7 @@ public class PowerPotion extends Potion {
      */
     public PowerPotion(Position position) {
         super(position);
-        super.setIncreaseAmount(new Random().nextInt(5) + 1); // range: 1–5
+        super.setIncreaseAmount(ActionRandom.nextInt(5) + 1); // range: 1–5
         super.setDescription("Power Potion");
     }
 
@@ -30,6 +29,14 @@ public class PowerPotion extends Potion {
      * @param c the character using the potion
      */
 
+    /**
+     * Constructs a power potion with a known amount and state, e.g. when a
+     * saved game is loaded.
+     */
+    public PowerPotion(Position position, int increaseAmount, boolean used) {
+        super(position, "Power Potion", increaseAmount, used);
+    }
+
     @Override
     public void interact(PlayerCharacter c) {
         if (!isUsed() && c != null) {
@@ -2,10 +2,10 @@
 
 package game.items;
 import game.characters.PlayerCharacter;
+import game.core.ActionRandom;
+import game.core.GameRandom;
 import game.map.Position;
 
-import java.util.Random;
-
 /**
  * Represents a treasure object in the game that may grant potions or treasure points.
  * Each treasure can be interacted with only once.
@@ -21,7 +21,7 @@ public class Treasure extends GameItem implements Interactable{
      */
     public Treasure(Position position) {
         super(position, false, "Shiny Treasure");
-        this.value = new Random().nextInt(201) + 100; // 100–300
+        this.value = GameRandom.nextInt(201) + 100; // 100–300
         this.collected = false;
     }
 
@@ -40,6 +40,20 @@ public class Treasure extends GameItem implements Interactable{
         this.collected = false;
     }
 
+    /**
+     * Constructs a Treasure with a known value and state, e.g. when a saved
+     * game is loaded.
+     *
+     * @param position  the location on the map
+     * @param value     the amount of treasure points
+     * @param collected whether the treasure was already collected
+     */
+    public Treasure(Position position, int value, boolean collected) {
+        super(position, false, "Shiny Treasure");
+        this.value = value;
+        this.collected = collected;
+    }
+
     /**
      * Interacts with the treasure. If it hasn't been collected yet, it will apply one of the following:
      * - 1/3 chance: adds a normal potion to the inventory
@@ -52,8 +66,7 @@ public class Treasure extends GameItem implements Interactable{
     public void interact(PlayerCharacter c) {
         if (collected || c == null) return;
 
-        Random rand = new Random();
-        int roll = rand.nextInt(6); // 0 to 5
+        int roll = ActionRandom.nextInt(6); // 0 to 5
 
         switch (roll) {
             case 0:
@@ -90,6 +103,15 @@ public class Treasure extends GameItem implements Interactable{
         return collected;
     }
 
+    /**
+     * Puts back the collected state saved in a snapshot.
+     *
+     * @param collected the saved state
+     */
+    public void restoreCollected(boolean collected) {
+        this.collected = collected;
+    }
+
     @Override
     public String getDisplaySymbol() {
         return "T";
@@ -0,0 +1,116 @@
+package game.map;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks for map cells.
+ * A fixed array of locks is shared by all cells; a cell is mapped to a stripe by
+ * its index in the grid, so equal positions always use the same lock no matter
+ * which Position instance the caller holds. Moves lock the source and target
+ * cells in stripe order, which prevents deadlocks between opposite moves.
+ */
+public class CellLockManager {
+
+    private static final int DEFAULT_STRIPES = 1024;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private volatile int cols; // 0 while the map is unbounded
+
+    public CellLockManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripeCount number of locks, rounded up to a power of two
+     */
+    public CellLockManager(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Sets the width of the grid used to compute cell indexes.
+     * Must not be called while any cell is locked.
+     */
+    void setColumns(int cols) {
+        this.cols = cols;
+    }
+
+    /**
+     * Tries to lock a single cell.
+     *
+     * @return true if the lock was acquired within the timeout
+     */
+    public boolean tryLock(Position pos, long timeoutMillis) {
+        return tryAcquire(stripes[stripeOf(pos)], timeoutMillis);
+    }
+
+    public void unlock(Position pos) {
+        release(stripes[stripeOf(pos)]);
+    }
+
+    /**
+     * Tries to lock two cells, typically the source and target of a move.
+     * The locks are taken in stripe order; if both cells share a stripe it is locked once.
+     *
+     * @return true if both cells were locked within the timeout; on false nothing is held
+     */
+    public boolean tryLockBoth(Position a, Position b, long timeoutMillis) {
+        int first = stripeOf(a);
+        int second = stripeOf(b);
+        if (first == second) {
+            return tryAcquire(stripes[first], timeoutMillis);
+        }
+        if (first > second) {
+            int tmp = first;
+            first = second;
+            second = tmp;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        if (!tryAcquire(stripes[first], timeoutMillis)) return false;
+
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (!tryAcquire(stripes[second], Math.max(0, remaining))) {
+            stripes[first].unlock();
+            return false;
+        }
+        return true;
+    }
+
+    public void unlockBoth(Position a, Position b) {
+        int first = stripeOf(a);
+        int second = stripeOf(b);
+        release(stripes[first]);
+        if (first != second) {
+            release(stripes[second]);
+        }
+    }
+
+    private int stripeOf(Position pos) {
+        int width = cols;
+        int key = width > 0 ? pos.getRow() * width + pos.getCol() : pos.hashCode();
+        return (key ^ (key >>> 16)) & mask;
+    }
+
+    private static boolean tryAcquire(ReentrantLock lock, long timeoutMillis) {
+        try {
+            return lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void release(ReentrantLock lock) {
+        if (lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package game.map;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A change counter per cell, so a caller that looked at some cells can later
+ * tell whether any of them changed without watching the whole map. On a
+ * bounded map every cell has its own counter; on an unbounded map positions
+ * share a fixed set of counters by hash, which can only report a change that
+ * did not happen, never miss one. Bulk changes move every cell on at once.
+ */
+public class CellVersions {
+
+    private static final int UNBOUNDED_SLOTS = 4096; // power of two
+
+    private volatile int cols;
+    private volatile int rows;
+    private volatile AtomicIntegerArray counters = new AtomicIntegerArray(UNBOUNDED_SLOTS);
+    // Bumped by bulk changes; the high half of every version.
+    private final AtomicInteger epoch = new AtomicInteger();
+
+    /**
+     * Resizes to a bounded grid, or to unbounded when rows or cols is 0.
+     * Counts as a change of every cell.
+     */
+    void reset(int rows, int cols) {
+        this.counters = new AtomicIntegerArray(rows > 0 && cols > 0 ? rows * cols : UNBOUNDED_SLOTS);
+        this.rows = rows;
+        this.cols = cols;
+        bumpAll();
+    }
+
+    void bump(Position pos) {
+        AtomicIntegerArray c = counters;
+        int index = indexOf(pos, c);
+        if (index >= 0) c.incrementAndGet(index);
+    }
+
+    void bumpAll() {
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * Returns a value that changes only on bulk changes: clear, restore, resize.
+     */
+    public int bulkVersion() {
+        return epoch.get();
+    }
+
+    /**
+     * Returns a value that differs from any earlier one for this cell once the cell has changed.
+     */
+    public long versionOf(Position pos) {
+        long high = (long) epoch.get() << 32;
+        AtomicIntegerArray c = counters;
+        int index = indexOf(pos, c);
+        return index < 0 ? high : high | (c.get(index) & 0xFFFFFFFFL);
+    }
+
+    private int indexOf(Position pos, AtomicIntegerArray c) {
+        int cl = cols;
+        if (cl == 0) {
+            int h = pos.getRow() * 31 + pos.getCol();
+            return (h ^ (h >>> 16)) & (UNBOUNDED_SLOTS - 1);
+        }
+        int row = pos.getRow();
+        int col = pos.getCol();
+        if (row < 0 || col < 0 || row >= rows || col >= cl) return -1;
+        int index = row * cl + col;
+        return index < c.length() ? index : -1;
+    }
+}
@@ -0,0 +1,211 @@
+package game.map;
+
+import game.core.GameEntity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded storage for a map of known size.
+ * Cells live in a flat row-major array indexed by {@code row * cols + col}.
+ * Each cell holds a small immutable array of entities that is replaced on every
+ * change, so readers never see a half-updated cell and never need a lock.
+ * Every change is passed on to the storage's {@link SpatialIndex}, and cells
+ * turning empty or occupied to its {@link FreeCellSet}.
+ */
+class DenseGridStorage implements MapStorage {
+
+    private static final GameEntity[] EMPTY = new GameEntity[0];
+
+    private final int rows;
+    private final int cols;
+    private final AtomicReferenceArray<GameEntity[]> cells;
+    private final AtomicInteger occupied = new AtomicInteger();
+    private final SpatialIndex index;
+    private final FreeCellSet freeCells;
+
+    DenseGridStorage(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid must be at least 1x1, got " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new AtomicReferenceArray<>(rows * cols);
+        this.index = new SpatialIndex(this);
+        this.freeCells = new FreeCellSet(this);
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    int getCols() {
+        return cols;
+    }
+
+    SpatialIndex getIndex() {
+        return index;
+    }
+
+    FreeCellSet getFreeCells() {
+        return freeCells;
+    }
+
+    /**
+     * Returns the flat index of a position, or -1 if it lies outside the grid.
+     */
+    int indexOf(Position pos) {
+        return indexOf(pos.getRow(), pos.getCol());
+    }
+
+    int indexOf(int row, int col) {
+        if (row < 0 || col < 0 || row >= rows || col >= cols) return -1;
+        return row * cols + col;
+    }
+
+    @Override
+    public boolean add(Position pos, GameEntity entity) {
+        int index = indexOf(pos);
+        if (index < 0) return false;
+        while (true) {
+            GameEntity[] current = cells.get(index);
+            GameEntity[] updated;
+            if (current == null) {
+                updated = new GameEntity[]{entity};
+            } else {
+                updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = entity;
+            }
+            if (cells.compareAndSet(index, current, updated)) {
+                if (current == null) {
+                    occupied.incrementAndGet();
+                    freeCells.sync(index);
+                }
+                this.index.added(pos.getRow(), pos.getCol(), entity);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Position pos, GameEntity entity) {
+        int index = indexOf(pos);
+        if (index < 0) return false;
+        while (true) {
+            GameEntity[] current = cells.get(index);
+            if (current == null) return false;
+            int at = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == entity) {
+                    at = i;
+                    break;
+                }
+            }
+            if (at < 0) return false;
+
+            GameEntity[] updated = null;
+            if (current.length > 1) {
+                updated = new GameEntity[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, at);
+                System.arraycopy(current, at + 1, updated, at, current.length - at - 1);
+            }
+            if (cells.compareAndSet(index, current, updated)) {
+                if (updated == null) {
+                    occupied.decrementAndGet();
+                    freeCells.sync(index);
+                }
+                this.index.removed(pos.getRow(), pos.getCol(), current[at]);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public List<GameEntity> entitiesAt(Position pos) {
+        int index = indexOf(pos);
+        if (index < 0) return Collections.emptyList();
+        return entitiesAt(index);
+    }
+
+    List<GameEntity> entitiesAt(int index) {
+        GameEntity[] current = cells.get(index);
+        if (current == null) return Collections.emptyList();
+        return Collections.unmodifiableList(Arrays.asList(current));
+    }
+
+    @Override
+    public boolean holds(Position pos, GameEntity entity) {
+        int index = indexOf(pos);
+        if (index < 0) return false;
+        for (GameEntity e : slotsAt(index)) {
+            if (e == entity) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the raw entity slot of a cell; empty cells return an empty array.
+     * The array is shared and must not be modified.
+     */
+    GameEntity[] slotsAt(int index) {
+        GameEntity[] current = cells.get(index);
+        return current == null ? EMPTY : current;
+    }
+
+    @Override
+    public boolean isOccupied(Position pos) {
+        int index = indexOf(pos);
+        // Cells outside the grid count as occupied so nothing can move off the map.
+        return index < 0 || cells.get(index) != null;
+    }
+
+    @Override
+    public boolean contains(Position pos) {
+        return indexOf(pos) >= 0;
+    }
+
+    @Override
+    public Set<Position> occupiedPositions() {
+        Set<Position> result = new HashSet<>();
+        for (int i = 0; i < cells.length(); i++) {
+            if (cells.get(i) != null) {
+                result.add(Position.of(i / cols, i % cols));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Position, List<GameEntity>> asMap() {
+        Map<Position, List<GameEntity>> result = new HashMap<>();
+        for (int i = 0; i < cells.length(); i++) {
+            GameEntity[] current = cells.get(i);
+            if (current != null) {
+                result.put(Position.of(i / cols, i % cols), Arrays.asList(current.clone()));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int occupiedCount() {
+        return occupied.get();
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, null);
+        }
+        occupied.set(0);
+        index.clear();
+        freeCells.reset();
+    }
+}
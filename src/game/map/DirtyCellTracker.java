@@ -0,0 +1,129 @@
+package game.map;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records which cells of a bounded map changed since the last drain.
+ * A bitset keeps each cell from being queued twice per frame, so marking a
+ * cell that is already dirty costs a single read. Unbounded maps and bulk
+ * changes (clear, restore, resize) are reported as a full refresh instead.
+ */
+public class DirtyCellTracker {
+
+    /**
+     * Receives the cells drained from the tracker.
+     */
+    public interface CellVisitor {
+        void visit(int row, int col);
+    }
+
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private volatile int cols;
+    private volatile AtomicLongArray bits = new AtomicLongArray(0);
+    private int[] queue = new int[64];
+    private int queued;
+    private int[] spare = new int[64];
+    private volatile boolean fullRefresh = true;
+
+    /**
+     * Resizes the tracker to a bounded grid, or to unbounded when rows or cols is 0.
+     * Always requests a full refresh.
+     */
+    void reset(int rows, int cols) {
+        queueLock.lock();
+        try {
+            this.cols = cols;
+            this.bits = new AtomicLongArray((rows * cols + 63) >>> 6);
+            this.queued = 0;
+            this.fullRefresh = true;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Marks a single cell as changed.
+     */
+    void mark(Position pos) {
+        int c = cols;
+        if (c == 0) {
+            fullRefresh = true;
+            return;
+        }
+        int index = pos.getRow() * c + pos.getCol();
+        AtomicLongArray b = bits;
+        int word = index >>> 6;
+        if (pos.getRow() < 0 || pos.getCol() < 0 || pos.getCol() >= c || word >= b.length()) return;
+
+        long mask = 1L << (index & 63);
+        long old;
+        do {
+            old = b.get(word);
+            if ((old & mask) != 0) return;
+        } while (!b.compareAndSet(word, old, old | mask));
+
+        queueLock.lock();
+        try {
+            if (b != bits) return;
+            if (queued == queue.length) {
+                queue = Arrays.copyOf(queue, queued * 2);
+            }
+            queue[queued++] = index;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Requests that the next drain reports a full refresh.
+     */
+    void markAll() {
+        fullRefresh = true;
+    }
+
+    /**
+     * Hands every cell marked since the previous drain to the visitor and clears them.
+     * Meant for a single consumer, normally the map view on the EDT.
+     *
+     * @return true if the caller should redraw everything instead; the visitor
+     *         is not called in that case
+     */
+    public boolean drain(CellVisitor visitor) {
+        int[] drained;
+        int count;
+        int c;
+        AtomicLongArray b;
+        boolean full;
+        queueLock.lock();
+        try {
+            drained = queue;
+            count = queued;
+            queue = spare;
+            queued = 0;
+            spare = drained;
+            c = cols;
+            b = bits;
+            full = fullRefresh;
+            fullRefresh = false;
+        } finally {
+            queueLock.unlock();
+        }
+
+        for (int i = 0; i < count; i++) {
+            int index = drained[i];
+            // Clear before visiting so a change made during the visit is queued again.
+            int word = index >>> 6;
+            long mask = 1L << (index & 63);
+            long old;
+            do {
+                old = b.get(word);
+            } while (!b.compareAndSet(word, old, old & ~mask));
+            if (!full) {
+                visitor.visit(index / c, index % c);
+            }
+        }
+        return full;
+    }
+}
@@ -0,0 +1,163 @@
+package game.map;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+
+/**
+ * The empty cells of a bounded map, kept in dense arrays so one can be
+ * picked uniformly at random in constant time. A second array holds each
+ * cell's slot in the first, so a cell that fills up is swapped with the last
+ * free cell and dropped, also in constant time.
+ * <p>
+ * The map is split into at most {@value #MAX_REGIONS} bands of whole rows,
+ * each with its own arrays and lock, so moves in different parts of the map
+ * never wait on each other here. {@link DenseGridStorage} calls
+ * {@link #sync(int)} whenever a cell may have turned empty or occupied.
+ * Those calls can arrive out of order from threads racing on the same cell,
+ * so sync looks at the cell itself instead of trusting the caller, under the
+ * lock of the cell's band.
+ */
+class FreeCellSet {
+
+    /** Most bands the map is split into. */
+    static final int MAX_REGIONS = 64;
+    // Picks that lose a race with moves before giving up on finding a free cell.
+    private static final int PICK_ATTEMPTS = 4;
+
+    private final DenseGridStorage cells;
+    private final int cols;
+    private final int regionCells; // cells per band; the last band may have fewer
+    private final Region[] regions;
+
+    FreeCellSet(DenseGridStorage cells) {
+        this.cells = cells;
+        this.cols = cells.getCols();
+        int rows = cells.getRows();
+        int regionRows = (rows + MAX_REGIONS - 1) / MAX_REGIONS;
+        this.regionCells = regionRows * cols;
+        int count = rows * cols;
+        this.regions = new Region[(rows + regionRows - 1) / regionRows];
+        for (int i = 0; i < regions.length; i++) {
+            int base = i * regionCells;
+            regions[i] = new Region(base, Math.min(regionCells, count - base));
+        }
+        reset();
+    }
+
+    /**
+     * Marks every cell free.
+     */
+    void reset() {
+        for (Region region : regions) {
+            region.lock.lock();
+            try {
+                region.reset();
+            } finally {
+                region.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Brings one cell's membership in line with whether it is empty now.
+     */
+    void sync(int index) {
+        Region region = regions[index / regionCells];
+        region.lock.lock();
+        try {
+            region.sync(index - region.base, cells.slotsAt(index).length == 0);
+        } finally {
+            region.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of free cells. Read without locking, so it may be
+     * off while moves are under way.
+     */
+    int size() {
+        int total = 0;
+        for (Region region : regions) {
+            total += region.size;
+        }
+        return total;
+    }
+
+    /**
+     * Returns a free cell picked uniformly at random, or null if there is none.
+     */
+    Position pick(RandomGenerator random) {
+        for (int attempt = 0; attempt < PICK_ATTEMPTS; attempt++) {
+            int total = size();
+            if (total == 0) return null;
+            int n = random.nextInt(total);
+            for (Region region : regions) {
+                int size = region.size;
+                if (n >= size) {
+                    n -= size;
+                    continue;
+                }
+                int index = region.pick(n, random);
+                if (index >= 0) return Position.of(index / cols, index % cols);
+                break; // the band filled up meanwhile; pick again
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The free cells of one band, guarded by its lock. Cells are numbered
+     * from the start of the band.
+     */
+    private static final class Region {
+        private final int base;
+        private final int[] free;   // free cells; the first size are valid
+        private final int[] slotOf; // slot of a cell in free, or -1 if occupied
+        private volatile int size;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        Region(int base, int count) {
+            this.base = base;
+            this.free = new int[count];
+            this.slotOf = new int[count];
+        }
+
+        void reset() {
+            for (int i = 0; i < free.length; i++) {
+                free[i] = i;
+                slotOf[i] = i;
+            }
+            size = free.length;
+        }
+
+        void sync(int cell, boolean empty) {
+            int slot = slotOf[cell];
+            if (empty && slot < 0) {
+                free[size] = cell;
+                slotOf[cell] = size;
+                size = size + 1;
+            } else if (!empty && slot >= 0) {
+                int last = free[size - 1];
+                free[slot] = last;
+                slotOf[last] = slot;
+                slotOf[cell] = -1;
+                size = size - 1;
+            }
+        }
+
+        /**
+         * Returns the map index of the n-th free cell, or of a random one if
+         * the band has shrunk below n since its size was read; -1 if it is full.
+         */
+        int pick(int n, RandomGenerator random) {
+            lock.lock();
+            try {
+                if (size == 0) return -1;
+                if (n >= size) n = random.nextInt(size);
+                return base + free[n];
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -1,24 +1,50 @@
 package game.map;
 
+import game.characters.Enemy;
 import game.characters.PlayerCharacter;
+import game.combat.Combatant;
 import game.core.GameEntity;
 import game.items.GameItem;
+import game.map.memento.DeltaMapMemento;
 import game.map.memento.GameMapMemento;
+import game.map.memento.MapMemento;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
 
 public class GameMap {
 
     private static GameMap instance;
 
-    private Map<Position, List<GameEntity>> grid;
+    private volatile MapStorage storage;
 
     private final List<Runnable> listeners = new ArrayList<>();
 
+    private final CellLockManager cellLocks = new CellLockManager();
+
+    private final DirtyCellTracker dirtyCells = new DirtyCellTracker();
+
+    private final CellVersions cellVersions = new CellVersions();
+
+    private final TypeRegistry types = new TypeRegistry();
+
+    // Change journal behind the delta snapshots; null while no snapshot needs it.
+    // Changes append to it under its stripe locks; journalLock guards the snapshots
+    // and is held to create, roll back, re-base, compact or drop the journal.
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private volatile MapJournal journal;
+    private final List<DeltaMapMemento> liveSnapshots = new ArrayList<>();
+    // Live snapshots too old for the journal, with the grid they stand for. Guarded by journalLock.
+    private final Map<DeltaMapMemento, GameMapMemento> rebased = new IdentityHashMap<>();
+
+    // Smallest journal length that triggers a re-base; see rebaseSnapshots().
+    private static final int MIN_JOURNAL_LIMIT = 4096;
+
     // === Singleton constructor ===
     private GameMap() {
-        this.grid = new HashMap<>();
+        this.storage = new SparseMapStorage();
     }
 
 
@@ -39,33 +65,278 @@ public class GameMap {
         return instance;
     }
 
+    /**
+     * Switches the map to bounded grid storage of the given size.
+     * Entities already on the map are moved into the new storage; entities
+     * outside the new bounds are dropped. Calling this again with the same
+     * size is a no-op.
+     *
+     * @param rows number of rows in the map
+     * @param cols number of columns in the map
+     */
+    public synchronized void useBoundedGrid(int rows, int cols) {
+        MapStorage current = storage;
+        if (current instanceof DenseGridStorage dense && dense.getRows() == rows && dense.getCols() == cols) {
+            return;
+        }
+
+        DenseGridStorage dense = new DenseGridStorage(rows, cols);
+        for (Map.Entry<Position, List<GameEntity>> entry : current.asMap().entrySet()) {
+            for (GameEntity entity : entry.getValue()) {
+                dense.add(entry.getKey(), entity);
+            }
+        }
+        // Entities outside the new bounds were dropped.
+        types.clear();
+        for (List<GameEntity> entities : dense.asMap().values()) {
+            for (GameEntity entity : entities) {
+                types.added(entity);
+            }
+        }
+        Position.useTable(rows, cols);
+        cellLocks.setColumns(cols);
+        storage = dense;
+        dirtyCells.reset(rows, cols);
+        cellVersions.reset(rows, cols);
+        dropSnapshots();
+    }
+
+    /**
+     * Returns true if the map uses bounded grid storage.
+     */
+    public boolean isBounded() {
+        return storage instanceof DenseGridStorage;
+    }
+
+    /**
+     * Returns the number of rows of a bounded map, or 0 if the map is unbounded.
+     */
+    public int getRows() {
+        return storage instanceof DenseGridStorage dense ? dense.getRows() : 0;
+    }
+
+    /**
+     * Returns the number of columns of a bounded map, or 0 if the map is unbounded.
+     */
+    public int getCols() {
+        return storage instanceof DenseGridStorage dense ? dense.getCols() : 0;
+    }
+
+    /**
+     * Returns true if the position can hold entities. Always true for an unbounded map.
+     */
+    public boolean isInBounds(Position pos) {
+        return pos != null && storage.contains(pos);
+    }
+
+    /**
+     * Removes every entity from the map, keeping the current storage layout.
+     */
+    public void clear() {
+        storage.clear();
+        types.clear();
+        dirtyCells.markAll();
+        cellVersions.bumpAll();
+        dropSnapshots();
+    }
+
     public boolean addEntity(GameEntity entity) {
         if (entity == null || entity.getPosition() == null) return false;
-        Position pos = entity.getPosition();
-        grid.computeIfAbsent(pos, k -> new ArrayList<>()).add(entity);
-        return true;
+        return change(true, entity.getPosition(), entity);
     }
 
     public boolean removeEntity(GameEntity entity) {
         if (entity == null || entity.getPosition() == null) return false;
-        List<GameEntity> entities = grid.get(entity.getPosition());
-        return entities != null && entities.remove(entity);
+        return change(false, entity.getPosition(), entity);
+    }
+
+    /**
+     * Applies an add or remove. While a delta snapshot is live the change is
+     * made and journaled together under the lock of the cell's journal
+     * stripe, so a rollback, which takes every stripe, never sees a change
+     * that is in the storage but not yet in the journal; changes to other
+     * cells go on meanwhile. With no snapshot live, changes stay lock-free;
+     * one that races with {@link #saveState()} and is not journaled counts as
+     * made before the snapshot, which is also what a rollback leaves in place.
+     */
+    private boolean change(boolean add, Position pos, GameEntity entity) {
+        MapJournal j;
+        while ((j = journal) != null) {
+            MapJournal.Stripe stripe = j.stripeFor(pos);
+            stripe.lock();
+            try {
+                if (journal != j) continue; // dropped or replaced meanwhile
+                if (!apply(add, pos, entity)) return false;
+                j.record(stripe, add, pos, entity);
+            } finally {
+                stripe.unlock();
+            }
+            if (j.length() > journalLimit()) rebaseSnapshots(j);
+            return true;
+        }
+        return apply(add, pos, entity);
+    }
+
+    private boolean apply(boolean add, Position pos, GameEntity entity) {
+        if (add) {
+            if (!storage.add(pos, entity)) return false;
+            types.added(entity);
+        } else {
+            if (!storage.remove(pos, entity)) return false;
+            types.removed(entity);
+        }
+        dirtyCells.mark(pos);
+        cellVersions.bump(pos);
+        return true;
     }
 
+    /**
+     * Returns the tracker of cells changed since the view last drained it.
+     */
+    public DirtyCellTracker getDirtyCells() {
+        return dirtyCells;
+    }
+
+    /**
+     * Returns a value that changes whenever an entity enters or leaves the cell,
+     * e.g. to tell whether a path found earlier is still clear.
+     */
+    public long getCellVersion(Position pos) {
+        return cellVersions.versionOf(pos);
+    }
+
+    /**
+     * Returns a value that changes whenever the map is changed wholesale
+     * (cleared, restored or resized) rather than cell by cell.
+     */
+    public int getBulkVersion() {
+        return cellVersions.bulkVersion();
+    }
+
+    /**
+     * Returns the entities at a position. The list must be treated as read-only.
+     */
     public List<GameEntity> getEntitiesAt(Position pos) {
-        return grid.getOrDefault(pos, new ArrayList<>());
+        return storage.entitiesAt(pos);
+    }
+
+    /**
+     * Returns true if this very instance is on the map at its current position.
+     * Unlike {@code getEntitiesAt(pos).contains(entity)} it ignores other
+     * entities that are merely equal to it, and allocates nothing.
+     */
+    public boolean isOnMap(GameEntity entity) {
+        Position pos = entity.getPosition();
+        return pos != null && storage.holds(pos, entity);
     }
 
+    /**
+     * Returns true if the cell holds any entity. On a bounded map, cells outside
+     * the bounds are reported as occupied.
+     */
     public boolean isOccupied(Position pos) {
-        return grid.containsKey(pos) && !grid.get(pos).isEmpty();
+        return storage.isOccupied(pos);
+    }
+
+    /**
+     * Returns the spatial index of a bounded map, or null if the map is unbounded.
+     */
+    public SpatialIndex getSpatialIndex() {
+        return storage instanceof DenseGridStorage dense ? dense.getIndex() : null;
+    }
+
+    /**
+     * Returns every combatant within Manhattan distance {@code radius} of a position.
+     */
+    public List<Combatant> getCombatantsWithin(Position center, int radius) {
+        SpatialIndex index = getSpatialIndex();
+        if (index != null) return index.combatantsWithin(center, radius);
+
+        List<Combatant> result = new ArrayList<>();
+        for (Map.Entry<Position, List<GameEntity>> entry : storage.asMap().entrySet()) {
+            if (entry.getKey().distanceTo(center) > radius) continue;
+            for (GameEntity entity : entry.getValue()) {
+                if (entity instanceof Combatant c) result.add(c);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the living enemy of a type nearest to a position, no further
+     * than {@code maxRadius} away, or null if there is none.
+     */
+    public <T extends Enemy> T findNearestEnemy(Position from, Class<T> type, int maxRadius) {
+        SpatialIndex index = getSpatialIndex();
+        if (index != null) return index.nearestEnemy(from, type, maxRadius);
+
+        T best = null;
+        int bestDistance = maxRadius + 1;
+        for (Map.Entry<Position, List<GameEntity>> entry : storage.asMap().entrySet()) {
+            int distance = entry.getKey().distanceTo(from);
+            if (distance >= bestDistance) continue;
+            for (GameEntity entity : entry.getValue()) {
+                if (type.isInstance(entity) && !((Enemy) entity).isDead()) {
+                    best = type.cast(entity);
+                    bestDistance = distance;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns a free cell of a bounded map picked uniformly at random in
+     * constant time, or null if the map is full or unbounded.
+     */
+    public Position getRandomFreeCell(RandomGenerator random) {
+        return storage instanceof DenseGridStorage dense ? dense.getFreeCells().pick(random) : null;
+    }
+
+    /**
+     * Returns the number of free cells of a bounded map, or 0 if the map is unbounded.
+     */
+    public int getFreeCellCount() {
+        return storage instanceof DenseGridStorage dense ? dense.getFreeCells().size() : 0;
+    }
+
+    /**
+     * Returns the number of entities of exactly the given class on the map,
+     * e.g. {@code Orc.class}, without walking the map.
+     */
+    public int getTypeCount(Class<? extends GameEntity> type) {
+        return types.count(type);
+    }
+
+    /**
+     * Returns a copy of the entities of exactly the given class on the map,
+     * without walking the map.
+     */
+    public <T extends GameEntity> List<T> getEntitiesOfType(Class<T> type) {
+        return types.entitiesOf(type);
+    }
+
+    /**
+     * Returns the number of cells holding at least one entity, without copying anything.
+     */
+    public int getOccupiedCount() {
+        return storage.occupiedCount();
     }
 
     public Set<Position> getAllOccupiedPositions() {
-        return grid.keySet();
+        return storage.occupiedPositions();
     }
 
+    /**
+     * Returns the map content keyed by position. On an unbounded map this is the
+     * live storage; on a bounded map it is a copy built on each call, which
+     * walks every cell and allocates a list per occupied one. Avoid it on hot
+     * paths: {@link #getOccupiedCount()}, {@link #getEntitiesAt(Position)} and
+     * the spatial queries answer the common questions without the copy.
+     */
     public Map<Position, List<GameEntity>> getGrid() {
-        return grid;
+        return storage.asMap();
     }
 
     public boolean canMoveTo(Position pos, PlayerCharacter player) {
@@ -76,7 +347,7 @@ public class GameMap {
                 return false;
             }
 
-            if (entity instanceof game.combat.Combatant combatant && combatant != player) {
+            if (entity instanceof Combatant combatant && combatant != player) {
                 return false;
             }
         }
@@ -85,16 +356,33 @@ public class GameMap {
     }
 
     public boolean tryLockPosition(Position pos, long timeoutMillis) {
-        return pos.tryLock(timeoutMillis);
+        return cellLocks.tryLock(pos, timeoutMillis);
     }
 
     public void unlockPosition(Position pos) {
-        pos.unlock();
+        cellLocks.unlock(pos);
+    }
+
+    /**
+     * Locks the source and target cells of a move, in a fixed order.
+     *
+     * @return true if both cells were locked within the timeout
+     */
+    public boolean tryLockMove(Position from, Position to, long timeoutMillis) {
+        return cellLocks.tryLockBoth(from, to, timeoutMillis);
+    }
+
+    public void unlockMove(Position from, Position to) {
+        cellLocks.unlockBoth(from, to);
+    }
+
+    public CellLockManager getCellLocks() {
+        return cellLocks;
     }
 
     @Override
     public String toString() {
-        return "GameMap with " + grid.size() + " active positions.";
+        return "GameMap with " + storage.occupiedCount() + " active positions.";
     }
 
     @Override
@@ -102,17 +390,106 @@ public class GameMap {
         if (this == obj) return true;
         if (!(obj instanceof GameMap)) return false;
         GameMap other = (GameMap) obj;
-        return Objects.equals(this.grid, other.grid);
+        return Objects.equals(this.getGrid(), other.getGrid());
+    }
+
+    /**
+     * Takes a delta snapshot of the map in O(1). From now on every change is
+     * journaled until the snapshot is restored or released with
+     * {@link #releaseState(MapMemento)}.
+     */
+    public MapMemento saveState() {
+        journalLock.lock();
+        try {
+            if (journal == null) journal = new MapJournal();
+            DeltaMapMemento memento = new DeltaMapMemento(journal.version());
+            liveSnapshots.add(memento);
+            return memento;
+        } finally {
+            journalLock.unlock();
+        }
     }
 
-    public GameMapMemento saveState() {
-        return new GameMapMemento(this.grid);
+    /**
+     * Takes a snapshot that copies the whole grid and stays valid on its own.
+     */
+    public GameMapMemento saveFullState() {
+        return new GameMapMemento(getGrid());
     }
 
-    public void restoreState(GameMapMemento memento) {
-        this.grid.clear(); // שלב 1: נקה את המפה הקודמת
+    /**
+     * Tells the map a delta snapshot will not be restored, so the journal
+     * entries only it needed can be dropped. Does nothing for full snapshots.
+     */
+    public void releaseState(MapMemento memento) {
+        if (!(memento instanceof DeltaMapMemento delta)) return;
+        journalLock.lock();
+        try {
+            liveSnapshots.remove(delta);
+            rebased.remove(delta);
+            MapJournal j = journal;
+            if (j != null) {
+                j.lockAll();
+                try {
+                    compactJournal();
+                } finally {
+                    j.unlockAll();
+                }
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
 
-        Map<Position, List<GameEntity>> restored = memento.getSavedGrid();
+    /**
+     * Restores a snapshot. A delta snapshot is restored by undoing the changes
+     * made since it was taken; this releases it along with any snapshot taken
+     * after it.
+     *
+     * @throws IllegalStateException if the delta snapshot was already restored,
+     *                               released or invalidated by {@link #clear()}
+     */
+    public void restoreState(MapMemento memento) {
+        if (memento instanceof DeltaMapMemento delta) {
+            journalLock.lock();
+            try {
+                if (!liveSnapshots.contains(delta)) {
+                    throw new IllegalStateException("Snapshot is no longer valid for this map");
+                }
+                GameMapMemento grid = rebased.get(delta);
+                // Null if every live snapshot is re-based.
+                MapJournal j = journal;
+                if (j != null) j.lockAll();
+                try {
+                    if (grid == null) {
+                        j.rollBack(delta.getVersion(), storage, dirtyCells, types);
+                        cellVersions.bumpAll();
+                    }
+                    liveSnapshots.remove(delta);
+                    liveSnapshots.removeIf(m -> m.getVersion() > delta.getVersion());
+                    rebased.keySet().retainAll(liveSnapshots);
+                    compactJournal();
+                } finally {
+                    if (j != null) j.unlockAll();
+                }
+                if (grid != null) {
+                    // Every snapshot left is older, so re-based too, and the journal is gone.
+                    replaceContents(grid.getSavedGrid());
+                }
+            } finally {
+                journalLock.unlock();
+            }
+            notifyListeners();
+            return;
+        }
+
+        if (!(memento instanceof GameMapMemento full)) {
+            throw new IllegalArgumentException("Unknown snapshot type: " + memento);
+        }
+
+        clear(); // שלב 1: נקה את המפה הקודמת
+
+        Map<Position, List<GameEntity>> restored = full.getSavedGrid();
 
         // שלב 2: החזר את כל הישויות המשוחזרות
         for (Map.Entry<Position, List<GameEntity>> entry : restored.entrySet()) {
@@ -126,5 +503,102 @@ public class GameMap {
         notifyListeners(); // שלב 3: עדכן תצוגה
     }
 
+    // Caller holds journalLock and every stripe of the journal.
+    private void compactJournal() {
+        long oldest = Long.MAX_VALUE;
+        for (DeltaMapMemento m : liveSnapshots) {
+            if (!rebased.containsKey(m)) oldest = Math.min(oldest, m.getVersion());
+        }
+        if (oldest == Long.MAX_VALUE) {
+            journal = null;
+            return;
+        }
+        journal.discardBefore(oldest);
+    }
+
+    /**
+     * Journal length past which the oldest snapshots are re-based. It grows
+     * with the map, so the grid copies a re-base makes cost a constant amount
+     * per journaled change.
+     */
+    private int journalLimit() {
+        return Math.max(MIN_JOURNAL_LIMIT, 2 * storage.occupiedCount());
+    }
+
+    /**
+     * Keeps the journal bounded while snapshots stay live for a long time,
+     * e.g. in the caretaker's history. Snapshots taken more than half a
+     * journal limit ago get the grid they stand for, rebuilt by unwinding the
+     * journal on a copy of the current grid, and the entries only they needed
+     * are dropped. Skipped if another thread is at the snapshots already; the
+     * next change past the limit tries again.
+     */
+    private void rebaseSnapshots(MapJournal j) {
+        if (!journalLock.tryLock()) return;
+        try {
+            if (journal != j) return;
+            j.lockAll();
+            try {
+                if (j.length() > journalLimit()) rebaseSnapshots();
+            } finally {
+                j.unlockAll();
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // Caller holds journalLock and every stripe of the journal.
+    private void rebaseSnapshots() {
+        long cutoff = journal.version() - journalLimit() / 2;
+        List<DeltaMapMemento> old = new ArrayList<>();
+        for (DeltaMapMemento m : liveSnapshots) {
+            if (m.getVersion() < cutoff && !rebased.containsKey(m)) old.add(m);
+        }
+        old.sort(Comparator.comparingLong(DeltaMapMemento::getVersion).reversed());
+
+        Map<Position, List<GameEntity>> grid = new HashMap<>();
+        for (Map.Entry<Position, List<GameEntity>> entry : storage.asMap().entrySet()) {
+            grid.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        long at = journal.version();
+        for (DeltaMapMemento m : old) {
+            journal.unwind(grid, at, m.getVersion());
+            at = m.getVersion();
+            rebased.put(m, new GameMapMemento(grid));
+        }
+        compactJournal();
+    }
+
+    /**
+     * Replaces everything on the map with the given grid without touching
+     * the snapshots. Caller holds journalLock and no journal is live.
+     */
+    private void replaceContents(Map<Position, List<GameEntity>> grid) {
+        storage.clear();
+        types.clear();
+        for (Map.Entry<Position, List<GameEntity>> entry : grid.entrySet()) {
+            Position pos = entry.getKey();
+            for (GameEntity entity : entry.getValue()) {
+                entity.setPosition(pos);
+                apply(true, pos, entity);
+            }
+        }
+        dirtyCells.markAll();
+        cellVersions.bumpAll();
+    }
+
+    // Bulk changes are not journaled, so no earlier snapshot can be rolled back to.
+    private void dropSnapshots() {
+        journalLock.lock();
+        try {
+            liveSnapshots.clear();
+            rebased.clear();
+            journal = null;
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
 
 }
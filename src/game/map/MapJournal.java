@@ -0,0 +1,236 @@
+package game.map;
+
+import game.core.GameEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Log of the entity additions and removals made to a map, used to roll the map
+ * back to an earlier snapshot. Each change is numbered from one atomic
+ * sequence; a snapshot is the journal version, the number the next change
+ * gets, at the time it was taken. Entries older than the oldest live
+ * snapshot are dropped with {@link #discardBefore(long)}.
+ * <p>
+ * The entries are split into {@value #STRIPES} stripes by cell, each with its
+ * own lock, like the cell locks. A change is made and recorded under the lock
+ * of its cell's stripe, so the changes to one cell are numbered in the order
+ * they were made, and changes to different cells rarely wait on each other.
+ * Rolling back, unwinding and discarding read every stripe, so their callers
+ * hold every stripe lock, taken with {@link #lockAll()}.
+ */
+class MapJournal {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong nextVersion = new AtomicLong();
+    /** Version of the first entry kept. */
+    private volatile long firstVersion;
+
+    MapJournal() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Returns the version after the last recorded change.
+     */
+    long version() {
+        return nextVersion.get();
+    }
+
+    /**
+     * Returns the number of changes kept. Read without locking, so it may be
+     * off while changes are under way.
+     */
+    int length() {
+        return (int) (nextVersion.get() - firstVersion);
+    }
+
+    /**
+     * Returns the stripe whose lock a change to the cell is made under.
+     */
+    Stripe stripeFor(Position pos) {
+        int h = pos.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Records a change that was just made. Caller holds the stripe's lock.
+     */
+    void record(Stripe stripe, boolean add, Position pos, GameEntity entity) {
+        stripe.append(nextVersion.getAndIncrement(), add, pos, entity);
+    }
+
+    /**
+     * Locks every stripe, in order, waiting for the changes under way.
+     */
+    void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+    }
+
+    void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            stripes[i].lock.unlock();
+        }
+    }
+
+    /**
+     * Undoes every change after the given version on the storage, newest first,
+     * and forgets them. Caller holds every stripe.
+     *
+     * @return the number of changes undone
+     */
+    int rollBack(long version, MapStorage storage, DirtyCellTracker dirty, TypeRegistry types) {
+        int undone = 0;
+        Stripe stripe;
+        while ((stripe = newest(version)) != null) {
+            int i = --stripe.size;
+            Position pos = stripe.positions[i];
+            GameEntity entity = stripe.entities[i];
+            if (stripe.added[i]) {
+                if (storage.remove(pos, entity)) types.removed(entity);
+            } else {
+                entity.setPosition(pos);
+                if (storage.add(pos, entity)) types.added(entity);
+            }
+            dirty.mark(pos);
+            stripe.positions[i] = null;
+            stripe.entities[i] = null;
+            undone++;
+        }
+        nextVersion.set(version);
+        return undone;
+    }
+
+    /**
+     * Undoes the changes between two versions on a copy of the grid instead
+     * of the storage, newest first, keeping them in the journal. Entities
+     * are matched by identity. Caller holds every stripe.
+     */
+    void unwind(Map<Position, List<GameEntity>> grid, long from, long to) {
+        // Per stripe, the number of its entries not yet looked at.
+        int[] ends = new int[STRIPES];
+        for (int s = 0; s < STRIPES; s++) {
+            ends[s] = stripes[s].countBefore(from);
+        }
+        while (true) {
+            int best = -1;
+            long bestVersion = to - 1;
+            for (int s = 0; s < STRIPES; s++) {
+                if (ends[s] > 0 && stripes[s].versions[ends[s] - 1] > bestVersion) {
+                    best = s;
+                    bestVersion = stripes[s].versions[ends[s] - 1];
+                }
+            }
+            if (best < 0) return;
+            Stripe stripe = stripes[best];
+            int i = --ends[best];
+            Position pos = stripe.positions[i];
+            GameEntity entity = stripe.entities[i];
+            if (stripe.added[i]) {
+                List<GameEntity> cell = grid.get(pos);
+                if (cell == null) continue;
+                for (int k = 0; k < cell.size(); k++) {
+                    if (cell.get(k) == entity) {
+                        cell.remove(k);
+                        break;
+                    }
+                }
+                if (cell.isEmpty()) grid.remove(pos);
+            } else {
+                grid.computeIfAbsent(pos, k -> new ArrayList<>()).add(entity);
+            }
+        }
+    }
+
+    /**
+     * Drops the entries recorded before the given version. Caller holds every stripe.
+     */
+    void discardBefore(long version) {
+        if (version <= firstVersion) return;
+        for (Stripe stripe : stripes) {
+            stripe.discard(stripe.countBefore(version));
+        }
+        firstVersion = Math.min(version, nextVersion.get());
+    }
+
+    // The stripe holding the newest entry at or after the version, or null if none has one.
+    private Stripe newest(long version) {
+        Stripe best = null;
+        long bestVersion = version - 1;
+        for (Stripe stripe : stripes) {
+            if (stripe.size > 0 && stripe.versions[stripe.size - 1] > bestVersion) {
+                best = stripe;
+                bestVersion = stripe.versions[stripe.size - 1];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The entries of the cells mapped to one stripe, oldest first, guarded by its lock.
+     */
+    static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] versions = new long[16];
+        private boolean[] added = new boolean[16];
+        private Position[] positions = new Position[16];
+        private GameEntity[] entities = new GameEntity[16];
+        private int size;
+
+        void lock() {
+            lock.lock();
+        }
+
+        void unlock() {
+            lock.unlock();
+        }
+
+        private void append(long version, boolean add, Position pos, GameEntity entity) {
+            if (size == versions.length) {
+                int capacity = size * 2;
+                versions = Arrays.copyOf(versions, capacity);
+                added = Arrays.copyOf(added, capacity);
+                positions = Arrays.copyOf(positions, capacity);
+                entities = Arrays.copyOf(entities, capacity);
+            }
+            versions[size] = version;
+            added[size] = add;
+            positions[size] = pos;
+            entities[size] = entity;
+            size++;
+        }
+
+        // Entries are appended in version order, so this is a binary search.
+        private int countBefore(long version) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (versions[mid] < version) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private void discard(int drop) {
+            if (drop <= 0) return;
+            System.arraycopy(versions, drop, versions, 0, size - drop);
+            System.arraycopy(added, drop, added, 0, size - drop);
+            System.arraycopy(positions, drop, positions, 0, size - drop);
+            System.arraycopy(entities, drop, entities, 0, size - drop);
+            Arrays.fill(positions, size - drop, size, null);
+            Arrays.fill(entities, size - drop, size, null);
+            size -= drop;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package game.map;
+
+import game.core.GameEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Backing store for the entities placed on a {@link GameMap}.
+ * GameMap delegates all cell bookkeeping to one of these, so the public
+ * map API stays the same whichever layout is in use.
+ */
+interface MapStorage {
+
+    /**
+     * Places an entity in the cell at the given position.
+     *
+     * @return true if the entity was stored, false if the position cannot hold entities
+     */
+    boolean add(Position pos, GameEntity entity);
+
+    /**
+     * Removes an entity from the cell at the given position. Like
+     * {@link #holds}, only this very instance is removed, never an equal one.
+     *
+     * @return true if the entity was found and removed
+     */
+    boolean remove(Position pos, GameEntity entity);
+
+    /**
+     * Returns the entities in a cell. The returned list must not be modified by callers.
+     */
+    List<GameEntity> entitiesAt(Position pos);
+
+    /**
+     * Returns true if this very instance is stored in the cell at the given position.
+     */
+    boolean holds(Position pos, GameEntity entity);
+
+    boolean isOccupied(Position pos);
+
+    /**
+     * Returns true if the position can hold entities in this storage.
+     */
+    boolean contains(Position pos);
+
+    Set<Position> occupiedPositions();
+
+    /**
+     * Returns the content of the storage as a position-to-entities map.
+     */
+    Map<Position, List<GameEntity>> asMap();
+
+    /**
+     * Returns the number of cells that currently hold at least one entity.
+     */
+    int occupiedCount();
+
+    void clear();
+}
@@ -2,51 +2,66 @@
 
 package game.map;
 
-import java.util.Objects;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represents a position on the game map using row and column coordinates.
- * Includes internal locking for synchronized access to this location.
+ * Positions are immutable values; use {@link #of(int, int)} to get a shared
+ * instance instead of allocating a new one for every lookup.
+ * Locking a location is done through {@link CellLockManager}.
  */
 public class Position {
-    private int row, col;
-    private final ReentrantLock lock = new ReentrantLock(true); // fair locking
+    private static volatile Table table;
+
+    private final int row, col;
+    private final int hash;
 
     public Position(int row, int col) {
         this.row = row;
         this.col = col;
+        this.hash = (row << 16) ^ col;
     }
 
-    public Position copy() {
-        return new Position(this.row, this.col);
-    }
-
-
-    public boolean tryLock(long timeoutMillis) {
-        try {
-            return lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
+    /**
+     * Returns the shared Position for the given coordinates.
+     * Coordinates inside the current map table always return the same instance;
+     * coordinates outside it fall back to a new Position.
+     *
+     * @param row the row index
+     * @param col the column index
+     * @return a Position equal to {@code new Position(row, col)}
+     */
+    public static Position of(int row, int col) {
+        Table t = table;
+        if (t == null || row < 0 || col < 0 || row >= t.rows || col >= t.cols) {
+            return new Position(row, col);
         }
-    }
+        int index = row * t.cols + col;
+        Position cached = t.cells.get(index);
+        if (cached != null) return cached;
 
-    public void lock() {
-        lock.lock();
+        Position created = new Position(row, col);
+        return t.cells.compareAndSet(index, null, created) ? created : t.cells.get(index);
     }
 
-    public void unlock() {
-        if (lock.isHeldByCurrentThread()) {
-            lock.unlock();
-        }
+    /**
+     * Sizes the shared table used by {@link #of(int, int)} to the bounds of a map.
+     * Called by {@link GameMap} when it switches to bounded storage.
+     */
+    static void useTable(int rows, int cols) {
+        Table t = table;
+        if (t != null && t.rows == rows && t.cols == cols) return;
+        table = new Table(rows, cols);
     }
 
-    public boolean isLocked() {
-        return lock.isLocked();
+    /**
+     * Positions are immutable, so a copy is the position itself.
+     */
+    public Position copy() {
+        return this;
     }
 
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -57,7 +72,7 @@ public class Position {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return hash;
     }
 
     @Override
@@ -76,4 +91,19 @@ public class Position {
     public int distanceTo(Position other) {
         return Math.abs(this.row - other.row) + Math.abs(this.col - other.col);
     }
+
+    /**
+     * Lazily filled table of shared positions for one map.
+     */
+    private static final class Table {
+        final int rows;
+        final int cols;
+        final AtomicReferenceArray<Position> cells;
+
+        Table(int rows, int cols) {
+            this.rows = rows;
+            this.cols = cols;
+            this.cells = new AtomicReferenceArray<>(rows * cols);
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package game.map;
+
+import game.core.GameEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Unbounded storage keyed by {@link Position}.
+ * Used until the size of the map is known; only occupied cells take memory.
+ * Safe for concurrent use: moves on different cells do not block each other.
+ */
+class SparseMapStorage implements MapStorage {
+
+    private final Map<Position, List<GameEntity>> grid = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean add(Position pos, GameEntity entity) {
+        grid.computeIfAbsent(pos, k -> new CopyOnWriteArrayList<>()).add(entity);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Position pos, GameEntity entity) {
+        List<GameEntity> entities = grid.get(pos);
+        return entities != null && entities.removeIf(e -> e == entity);
+    }
+
+    @Override
+    public List<GameEntity> entitiesAt(Position pos) {
+        return grid.getOrDefault(pos, new ArrayList<>());
+    }
+
+    @Override
+    public boolean holds(Position pos, GameEntity entity) {
+        List<GameEntity> entities = grid.get(pos);
+        if (entities == null) return false;
+        for (GameEntity e : entities) {
+            if (e == entity) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isOccupied(Position pos) {
+        List<GameEntity> entities = grid.get(pos);
+        return entities != null && !entities.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Position pos) {
+        return true;
+    }
+
+    @Override
+    public Set<Position> occupiedPositions() {
+        return grid.keySet();
+    }
+
+    @Override
+    public Map<Position, List<GameEntity>> asMap() {
+        return grid;
+    }
+
+    @Override
+    public int occupiedCount() {
+        return grid.size();
+    }
+
+    @Override
+    public void clear() {
+        grid.clear();
+    }
+}
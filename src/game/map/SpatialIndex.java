@@ -0,0 +1,174 @@
+package game.map;
+
+import game.characters.Enemy;
+import game.combat.Combatant;
+import game.core.GameEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Groups the cells of a bounded map into square buckets of
+ * {@value #BUCKET_SIZE} x {@value #BUCKET_SIZE} cells and keeps, per bucket,
+ * the combatants standing in it.
+ * Range queries then look at the few buckets a radius touches instead of the
+ * whole map. {@link DenseGridStorage} keeps it up to date on every add and
+ * remove.
+ * <p>
+ * Like the cells, each bucket holds an immutable array replaced on every
+ * change, so queries never lock. A combatant half-way through a move may be
+ * missed by a query that runs at that moment.
+ */
+public class SpatialIndex {
+
+    /** Side of a bucket in cells. */
+    public static final int BUCKET_SIZE = 8;
+    private static final int SHIFT = 3;
+
+    private static final Combatant[] NONE = new Combatant[0];
+
+    private final int rows;
+    private final int cols;
+    private final int bucketRows;
+    private final int bucketCols;
+    private final AtomicReferenceArray<Combatant[]> combatants;
+
+    SpatialIndex(DenseGridStorage cells) {
+        this.rows = cells.getRows();
+        this.cols = cells.getCols();
+        this.bucketRows = (rows + BUCKET_SIZE - 1) >> SHIFT;
+        this.bucketCols = (cols + BUCKET_SIZE - 1) >> SHIFT;
+        this.combatants = new AtomicReferenceArray<>(bucketRows * bucketCols);
+    }
+
+    private int bucketOf(int row, int col) {
+        return (row >> SHIFT) * bucketCols + (col >> SHIFT);
+    }
+
+    /**
+     * Called after an entity was stored in the cell at (row, col).
+     */
+    void added(int row, int col, GameEntity entity) {
+        if (!(entity instanceof Combatant combatant)) return;
+        int bucket = bucketOf(row, col);
+        while (true) {
+            Combatant[] current = combatants.get(bucket);
+            Combatant[] updated;
+            if (current == null) {
+                updated = new Combatant[]{combatant};
+            } else {
+                updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = combatant;
+            }
+            if (combatants.compareAndSet(bucket, current, updated)) return;
+        }
+    }
+
+    /**
+     * Called after an entity was taken out of the cell at (row, col).
+     */
+    void removed(int row, int col, GameEntity entity) {
+        if (!(entity instanceof Combatant)) return;
+        int bucket = bucketOf(row, col);
+        while (true) {
+            Combatant[] current = combatants.get(bucket);
+            if (current == null) return;
+            int at = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == entity) {
+                    at = i;
+                    break;
+                }
+            }
+            if (at < 0) return;
+            Combatant[] updated = null;
+            if (current.length > 1) {
+                updated = new Combatant[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, at);
+                System.arraycopy(current, at + 1, updated, at, current.length - at - 1);
+            }
+            if (combatants.compareAndSet(bucket, current, updated)) return;
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < combatants.length(); i++) {
+            combatants.set(i, null);
+        }
+    }
+
+    /**
+     * Calls the action for every combatant within Manhattan distance
+     * {@code radius} of the center.
+     */
+    public void forEachCombatantWithin(Position center, int radius, Consumer<Combatant> action) {
+        int firstRow = Math.max(0, center.getRow() - radius) >> SHIFT;
+        int lastRow = Math.min(rows - 1, center.getRow() + radius) >> SHIFT;
+        int firstCol = Math.max(0, center.getCol() - radius) >> SHIFT;
+        int lastCol = Math.min(cols - 1, center.getCol() + radius) >> SHIFT;
+        for (int br = firstRow; br <= lastRow; br++) {
+            for (int bc = firstCol; bc <= lastCol; bc++) {
+                for (Combatant c : bucket(br * bucketCols + bc)) {
+                    Position pos = c.getPosition();
+                    if (pos != null && pos.distanceTo(center) <= radius) action.accept(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns every combatant within Manhattan distance {@code radius} of the center.
+     */
+    public List<Combatant> combatantsWithin(Position center, int radius) {
+        List<Combatant> result = new ArrayList<>();
+        forEachCombatantWithin(center, radius, result::add);
+        return result;
+    }
+
+    /**
+     * Returns the living enemy of the given type (subclasses included) closest
+     * to a position by Manhattan distance, looking no further than
+     * {@code maxRadius}, or null if there is none. Buckets are searched in
+     * rings outward from the position, so a near enemy is found without
+     * looking at far buckets.
+     */
+    public <T extends Enemy> T nearestEnemy(Position from, Class<T> type, int maxRadius) {
+        int centerRow = Math.min(Math.max(from.getRow(), 0), rows - 1) >> SHIFT;
+        int centerCol = Math.min(Math.max(from.getCol(), 0), cols - 1) >> SHIFT;
+        int maxRing = Math.max(bucketRows, bucketCols);
+        T best = null;
+        int bestDistance = maxRadius + 1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every cell in this ring is at least (ring - 1) buckets away in some direction.
+            if (ring > 0 && (ring - 1) * BUCKET_SIZE + 1 > Math.min(bestDistance, maxRadius)) break;
+            for (int br = centerRow - ring; br <= centerRow + ring; br++) {
+                if (br < 0 || br >= bucketRows) continue;
+                boolean edgeRow = br == centerRow - ring || br == centerRow + ring;
+                int step = edgeRow ? 1 : 2 * ring; // inner rows only have their two end buckets
+                for (int bc = centerCol - ring; bc <= centerCol + ring; bc += step) {
+                    if (bc < 0 || bc >= bucketCols) continue;
+                    for (Combatant c : bucket(br * bucketCols + bc)) {
+                        if (!type.isInstance(c) || c.isDead()) continue;
+                        Position pos = c.getPosition();
+                        if (pos == null) continue;
+                        int distance = pos.distanceTo(from);
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            best = type.cast(c);
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private Combatant[] bucket(int index) {
+        Combatant[] current = combatants.get(index);
+        return current == null ? NONE : current;
+    }
+}
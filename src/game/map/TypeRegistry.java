@@ -0,0 +1,139 @@
+package game.map;
+
+import game.core.GameEntity;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The entities on the map grouped by their exact class, so the number of
+ * orcs, potions and so on, and the orcs themselves, can be read without
+ * walking the map.
+ * <p>
+ * {@link GameMap} reports every successful add and remove. An entity counts
+ * as present while it has more adds than removes; counting instead of
+ * flagging keeps the result right when a move's remove and add are reported
+ * by different threads in the other order.
+ * <p>
+ * Each type's members are split into {@value #STRIPES} stripes by identity
+ * hash, each with its own lock, like the cell locks, so moves of the same
+ * type rarely wait on each other. Entities are matched by identity: their
+ * equals compares health and position, which change while they are on the
+ * map. The count of each type is a {@link LongAdder} read without locking.
+ */
+class TypeRegistry {
+
+    private static final int STRIPES = 16;
+
+    private final ConcurrentHashMap<Class<?>, Members> types = new ConcurrentHashMap<>();
+
+    void added(GameEntity entity) {
+        membersOf(entity).adjust(entity, 1);
+    }
+
+    void removed(GameEntity entity) {
+        membersOf(entity).adjust(entity, -1);
+    }
+
+    void clear() {
+        for (Members members : types.values()) {
+            members.clear();
+        }
+    }
+
+    /**
+     * Returns the number of entities of exactly this class on the map.
+     */
+    int count(Class<?> type) {
+        Members members = types.get(type);
+        return members == null ? 0 : (int) Math.max(0, members.count.sum());
+    }
+
+    /**
+     * Returns a copy of the entities of exactly this class on the map.
+     */
+    <T> List<T> entitiesOf(Class<T> type) {
+        Members members = types.get(type);
+        if (members == null) return new ArrayList<>();
+        List<T> result = new ArrayList<>(count(type));
+        for (Stripe stripe : members.stripes) {
+            stripe.lock.lock();
+            try {
+                for (Map.Entry<GameEntity, Integer> entry : stripe.balance.entrySet()) {
+                    if (entry.getValue() > 0) result.add(type.cast(entry.getKey()));
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    private Members membersOf(GameEntity entity) {
+        Class<?> type = entity.getClass();
+        Members members = types.get(type);
+        return members != null ? members : types.computeIfAbsent(type, k -> new Members());
+    }
+
+    /**
+     * The members of one type.
+     */
+    private static final class Members {
+        private final Stripe[] stripes = new Stripe[STRIPES];
+        private final LongAdder count = new LongAdder();
+
+        Members() {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        void adjust(GameEntity entity, int delta) {
+            Stripe stripe = stripes[System.identityHashCode(entity) & (STRIPES - 1)];
+            stripe.lock.lock();
+            try {
+                // Balances stay within the cached Integer range, so this does not allocate.
+                int before = stripe.balance.getOrDefault(entity, 0);
+                int after = before + delta;
+                if (after == 0) {
+                    stripe.balance.remove(entity);
+                } else {
+                    stripe.balance.put(entity, after);
+                }
+                if (before <= 0 && after > 0) {
+                    count.increment();
+                } else if (before > 0 && after <= 0) {
+                    count.decrement();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        void clear() {
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    stripe.balance.clear();
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            count.reset();
+        }
+    }
+
+    /**
+     * Adds minus removes for each entity in one stripe whose balance is not
+     * zero; the entity is on the map while it is positive.
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final IdentityHashMap<GameEntity, Integer> balance = new IdentityHashMap<>();
+    }
+}
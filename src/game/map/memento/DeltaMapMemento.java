@@ -0,0 +1,20 @@
+package game.map.memento;
+
+/**
+ * A snapshot that stores no grid data, only the point in the map's change
+ * journal at which it was taken. Taking one costs O(1); restoring it undoes
+ * the changes made since, so it costs time proportional to the difference
+ * between the two states.
+ * Only valid for the map that created it, until it is restored or released.
+ */
+public class DeltaMapMemento implements MapMemento {
+    private final long version;
+
+    public DeltaMapMemento(long version) {
+        this.version = version;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -4,11 +4,12 @@ import game.core.GameEntity;
 import game.map.Position;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class GameMapMemento {
+public class GameMapMemento implements MapMemento {
     private final Map<Position, List<GameEntity>> savedGrid;
 
     public GameMapMemento(Map<Position, List<GameEntity>> currentGrid) {
@@ -16,8 +17,11 @@ public class GameMapMemento {
         this.savedGrid = deepCopy(currentGrid);
     }
 
+    /**
+     * Returns the saved grid. The map and its lists must be treated as read-only.
+     */
     public Map<Position, List<GameEntity>> getSavedGrid() {
-        return deepCopy(savedGrid);
+        return Collections.unmodifiableMap(savedGrid);
     }
 
     private Map<Position, List<GameEntity>> deepCopy(Map<Position, List<GameEntity>> original) {
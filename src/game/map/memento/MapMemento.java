@@ -0,0 +1,10 @@
+package game.map.memento;
+
+/**
+ * A saved state of a {@link game.map.GameMap}, handed back to the map's
+ * {@code restoreState} to return to it. {@link GameMapMemento} holds a copy of
+ * the grid that anyone can read; {@link DeltaMapMemento} only marks a point in
+ * the map's change journal and can be restored by that map alone.
+ */
+public interface MapMemento {
+}
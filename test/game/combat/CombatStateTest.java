@@ -0,0 +1,96 @@
+package game.combat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * However many threads hit a combatant at once, no hit may be lost and its
+ * defeat must be claimed exactly once per life.
+ */
+class CombatStateTest {
+
+    private static final int THREADS = 8;
+    private static final int LIVES = 300;
+
+    @Test
+    void defeatIsClaimedOnceWhenManyHitsLandTogether() throws Exception {
+        CombatState state = new CombatState(100);
+        AtomicInteger claims = new AtomicInteger();
+        // Every thread hits until the life is over, then tries to claim it; the barrier starts each life together.
+        CyclicBarrier barrier = new CyclicBarrier(THREADS, () -> {
+            assertEquals(1, claims.getAndSet(0), "claims of one life");
+            state.setHealth(100);
+        });
+        runConcurrently(() -> {
+            for (int life = 0; life < LIVES; life++) {
+                int left;
+                do {
+                    left = state.damage(7);
+                } while (left > 0);
+                if (state.claimDefeat()) claims.incrementAndGet();
+                barrier.await(10, TimeUnit.SECONDS);
+            }
+            return null;
+        });
+    }
+
+    @Test
+    void concurrentHitsAreNeverLost() throws Exception {
+        int hitsPerThread = 5_000;
+        CombatState state = new CombatState(THREADS * hitsPerThread + 1);
+        runConcurrently(() -> {
+            for (int i = 0; i < hitsPerThread; i++) {
+                state.damage(1);
+            }
+            return null;
+        });
+        assertEquals(1, state.getHealth());
+        assertFalse(state.claimDefeat());
+    }
+
+    @Test
+    void claimedDefeatStaysUntilRevived() {
+        CombatState state = new CombatState(10);
+        assertFalse(state.claimDefeat(), "health left");
+        state.damage(25);
+        assertTrue(state.claimDefeat());
+        assertFalse(state.claimDefeat(), "already claimed");
+
+        state.heal(50, 100);
+        assertEquals(0, state.getHealth(), "a claimed defeat is not healed");
+        assertTrue(state.isDefeated());
+
+        state.setHealth(30);
+        assertFalse(state.isDefeated(), "a revive starts a new life");
+        state.damage(30);
+        assertTrue(state.claimDefeat());
+    }
+
+    private static void runConcurrently(Callable<Void> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> done = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                done.add(pool.submit(task));
+            }
+            for (Future<Void> f : done) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
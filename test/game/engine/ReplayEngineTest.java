@@ -0,0 +1,133 @@
+package game.engine;
+
+import game.characters.Enemy;
+import game.characters.PlayerCharacter;
+import game.characters.Warrior;
+import game.core.GameEntity;
+import game.core.GameRandom;
+import game.map.GameMap;
+import game.map.Position;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A session recorded while enemy AI runs on its own threads must replay on
+ * one thread with every check value matching, and the same way every time.
+ */
+class ReplayEngineTest {
+
+    private static final long SEED = 7;
+    private static final int SIZE = 30;
+    private static final int BOT_STEPS = 150;
+    private static final int REVIVE = 100;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        // Revive a defeated player, in the recording and in the replay alike.
+        PlayerCharacter.setDefeatHandler(p -> p.setHealth(REVIVE));
+    }
+
+    @AfterEach
+    void tearDown() {
+        GameMap.getInstance().clear();
+    }
+
+    @Test
+    void recordedSessionReplaysWithoutDivergence() throws Exception {
+        Path file = dir.resolve("session.journal");
+        record(file);
+
+        StringWriter firstTrace = new StringWriter();
+        ReplayEngine first = replay(file, firstTrace);
+        assertEquals(0, first.getDivergenceCount(), first.getFirstDivergence());
+        assertTrue(first.getEventCount() > BOT_STEPS, "events replayed: " + first.getEventCount());
+
+        StringWriter secondTrace = new StringWriter();
+        ReplayEngine second = replay(file, secondTrace);
+        assertEquals(0, second.getDivergenceCount(), second.getFirstDivergence());
+        assertEquals(firstTrace.toString(), secondTrace.toString());
+    }
+
+    /**
+     * Runs a small game the way SimulationRunner does: enemies on the
+     * scheduler, and a bot that attacks a neighbouring enemy or steps aside.
+     */
+    private static void record(Path file) throws IOException, InterruptedException {
+        GameRandom.setSeed(SEED);
+        RandomGenerator random = GameRandom.current();
+        GameMap map = GameMap.getInstance();
+        GameWorld world = new GameWorld(map);
+
+        Position start = Position.of(random.nextInt(SIZE), random.nextInt(SIZE));
+        PlayerCharacter player = new Warrior("Bot", 100, 10, start);
+        world.addPlayer(player);
+        map.addEntity(player);
+        MapPopulator.populateMap(world, SIZE, start, random, MapPopulator.DEFAULT_ENEMY_PERCENT);
+
+        EnemyManager enemies = new EnemyManager(world.getEnemies(), player, map, world, EnemyManager.Mode.SCHEDULED);
+        GameJournal journal = GameJournal.start(world, file);
+        enemies.startAll();
+        try {
+            for (int step = 0; step < BOT_STEPS; step++) {
+                botStep(world, player, random);
+                Thread.sleep(5);
+            }
+        } finally {
+            enemies.stopAll();
+            journal.close();
+        }
+    }
+
+    private static void botStep(GameWorld world, PlayerCharacter player, RandomGenerator random) {
+        GameMap map = world.getMap();
+        Position pos = player.getPosition();
+        int first = random.nextInt(4);
+        for (int i = 0; i < 4; i++) {
+            for (GameEntity entity : map.getEntitiesAt(neighbour(pos, (first + i) % 4))) {
+                if (entity instanceof Enemy enemy && !enemy.isDead()) {
+                    PlayerActions.attack(world, player, enemy);
+                    return;
+                }
+            }
+        }
+        for (int i = 0; i < 4; i++) {
+            Position target = neighbour(pos, (first + i) % 4);
+            if (!map.isInBounds(target) || !map.canMoveTo(target, player)) continue;
+            if (PlayerActions.move(world, player, target)) return;
+        }
+    }
+
+    private static Position neighbour(Position pos, int direction) {
+        return switch (direction) {
+            case 0 -> Position.of(pos.getRow() + 1, pos.getCol());
+            case 1 -> Position.of(pos.getRow() - 1, pos.getCol());
+            case 2 -> Position.of(pos.getRow(), pos.getCol() + 1);
+            default -> Position.of(pos.getRow(), pos.getCol() - 1);
+        };
+    }
+
+    private static ReplayEngine replay(Path file, StringWriter trace) throws IOException {
+        // Starts from an empty map, as a replay in its own process does.
+        GameMap.getInstance().clear();
+        ReplayEngine engine = new ReplayEngine(new GameWorld(GameMap.getInstance()));
+        try (PrintWriter out = new PrintWriter(trace)) {
+            engine.setTrace(out);
+            engine.replay(file);
+        }
+        return engine;
+    }
+}
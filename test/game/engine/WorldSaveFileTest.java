@@ -0,0 +1,194 @@
+package game.engine;
+
+import game.characters.Dragon;
+import game.characters.Goblin;
+import game.characters.Mage;
+import game.characters.Orc;
+import game.characters.Warrior;
+import game.combat.MagicElement;
+import game.items.Potion;
+import game.items.PowerPotion;
+import game.items.Treasure;
+import game.items.Wall;
+import game.map.GameMap;
+import game.map.Position;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A save file must read back as the snapshot that was written, and a file
+ * that is cut short or damaged must be rejected rather than half applied.
+ */
+class WorldSaveFileTest {
+
+    private static final int ROWS = 12;
+    private static final int COLS = 16;
+
+    @TempDir
+    Path dir;
+
+    private GameMap map;
+    private GameWorld world;
+
+    @BeforeEach
+    void setUp() {
+        map = GameMap.getInstance();
+        map.useBoundedGrid(ROWS, COLS);
+        map.clear();
+        world = new GameWorld(map);
+
+        Warrior warrior = new Warrior("Aria", 90, 12, Position.of(1, 1));
+        // Built without an element, as PlayerBuilder builds mages.
+        Mage mage = new Mage("Bren", 60, 8, Position.of(2, 3));
+        map.addEntity(warrior);
+        map.addEntity(mage);
+        world.addPlayer(warrior);
+        world.addPlayer(mage);
+        warrior.addToInventory(new Potion(null, 25, false));
+        warrior.addToInventory(new PowerPotion(null, 5, true));
+
+        Goblin goblin = new Goblin(Position.of(4, 4), 30, 6, 3, 7);
+        Orc orc = new Orc(Position.of(5, 9), 55, 9, 4, 0.25);
+        Dragon dragon = new Dragon(Position.of(10, 14), 120, 20, 9, MagicElement.ICE);
+        map.addEntity(goblin);
+        world.addEnemy(goblin);
+        map.addEntity(orc);
+        world.addEnemy(orc);
+        map.addEntity(dragon);
+        world.addEnemy(dragon);
+        // An enemy that was defeated and taken off the map is still in the world's list.
+        world.addEnemy(new Goblin(Position.of(7, 7), 0, 5, 1, 2));
+
+        Treasure treasure = new Treasure(Position.of(3, 12), 40, false);
+        Wall wall = new Wall(Position.of(6, 6));
+        map.addEntity(treasure);
+        map.addEntity(wall);
+        world.addItem(treasure);
+        world.addItem(wall);
+        world.addItem(new Potion(Position.of(8, 2), 10, true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        map.clear();
+    }
+
+    @Test
+    void writtenFileReadsBackAsTheSameSnapshot() throws IOException {
+        WorldSnapshot saved = WorldSnapshot.capture(world);
+        Path file = dir.resolve("game.sav");
+        long bytes = WorldSaveFile.write(saved, file);
+        assertEquals(Files.size(file), bytes);
+
+        // Read into an empty world, so every entity is created from the file.
+        WorldSnapshot loaded = WorldSaveFile.read(file, new GameWorld(map));
+        assertSameState(saved, loaded);
+        assertEquals(((Warrior) saved.entities[0]).getName(), ((Warrior) loaded.entities[0]).getName());
+        assertEquals(((Mage) saved.entities[1]).getElement(), ((Mage) loaded.entities[1]).getElement());
+        assertEquals(((Orc) saved.entities[3]).getResistance(), ((Orc) loaded.entities[3]).getResistance());
+        assertEquals(((Dragon) saved.entities[4]).getElement(), ((Dragon) loaded.entities[4]).getElement());
+
+        // Encoding what was read gives the same bytes.
+        assertEquals(WorldSaveFile.encode(saved), WorldSaveFile.encode(loaded));
+    }
+
+    @Test
+    void readingIntoTheRunningWorldReusesItsPlayers() throws IOException {
+        WorldSnapshot saved = WorldSnapshot.capture(world);
+        Path file = dir.resolve("game.sav");
+        WorldSaveFile.write(saved, file);
+
+        WorldSnapshot loaded = WorldSaveFile.read(file, world);
+        assertSame(world.getPlayers().get(0), loaded.entities[0]);
+        assertSame(world.getPlayers().get(1), loaded.entities[1]);
+        assertSameState(saved, loaded);
+    }
+
+    @Test
+    void everyTruncatedFileIsRejected() throws IOException {
+        byte[] data = bytes(WorldSaveFile.encode(WorldSnapshot.capture(world)));
+        Path file = dir.resolve("cut.sav");
+        for (int length = 0; length < data.length; length++) {
+            Files.write(file, Arrays.copyOf(data, length));
+            int cut = length;
+            assertThrows(IOException.class, () -> WorldSaveFile.read(file, new GameWorld(map)),
+                    "file cut to " + cut + " of " + data.length + " bytes");
+        }
+    }
+
+    @Test
+    void damagedHeaderIsRejected() throws IOException {
+        byte[] data = bytes(WorldSaveFile.encode(WorldSnapshot.capture(world)));
+
+        assertRejected(with(data, 0, (byte) 'X'));                      // magic
+        assertRejected(with(data, 5, (byte) (WorldSaveFile.VERSION + 1))); // version
+        assertRejected(with(data, 16, (byte) 0x80));                    // negative player count
+        assertRejected(with(data, 32, (byte) 0x7f));                    // table longer than the file
+    }
+
+    @Test
+    void unknownEntityTypeIsRejected() throws IOException {
+        byte[] data = bytes(WorldSaveFile.encode(WorldSnapshot.capture(world)));
+        // The first record starts right after the 40-byte header with a one-byte length.
+        assertRejected(with(data, 41, (byte) 99));
+    }
+
+    @Test
+    void saveForAnotherMapSizeIsRejected() throws IOException {
+        Path file = dir.resolve("game.sav");
+        WorldSaveFile.write(WorldSnapshot.capture(world), file);
+        map.useBoundedGrid(ROWS + 1, COLS);
+        assertThrows(IOException.class, () -> WorldSaveFile.read(file, new GameWorld(map)));
+    }
+
+    private void assertRejected(byte[] data) throws IOException {
+        Path file = dir.resolve("bad.sav");
+        Files.write(file, data);
+        assertThrows(IOException.class, () -> WorldSaveFile.read(file, new GameWorld(map)));
+    }
+
+    private static void assertSameState(WorldSnapshot expected, WorldSnapshot actual) {
+        assertEquals(expected.playerCount, actual.playerCount);
+        assertEquals(expected.enemyCount, actual.enemyCount);
+        assertEquals(expected.itemCount, actual.itemCount);
+        assertEquals(expected.entities.length, actual.entities.length);
+        for (int i = 0; i < expected.entities.length; i++) {
+            assertEquals(expected.entities[i].getClass(), actual.entities[i].getClass(), "class of slot " + i);
+        }
+        assertArrayEquals(expected.flags, actual.flags);
+        assertArrayEquals(expected.rows, actual.rows);
+        assertArrayEquals(expected.cols, actual.cols);
+        assertArrayEquals(expected.health, actual.health);
+        assertArrayEquals(expected.power, actual.power);
+        assertArrayEquals(expected.treasurePoints, actual.treasurePoints);
+        assertArrayEquals(expected.inventoryStart, actual.inventoryStart);
+        assertArrayEquals(expected.inventoryItems, actual.inventoryItems);
+        assertEquals(expected.mapRows, actual.mapRows);
+        assertEquals(expected.mapCols, actual.mapCols);
+    }
+
+    private static byte[] bytes(ByteBuffer buf) {
+        byte[] data = new byte[buf.remaining()];
+        buf.get(data);
+        return data;
+    }
+
+    private static byte[] with(byte[] data, int index, byte value) {
+        byte[] copy = data.clone();
+        copy[index] = value;
+        return copy;
+    }
+}
@@ -0,0 +1,181 @@
+package game.map;
+
+import game.core.GameEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The free-cell set must hold exactly the empty cells of the grid, across
+ * every band, however the adds and removes of racing threads interleave.
+ */
+class FreeCellSetTest {
+
+    // 130 rows make bands of 3 rows and a last band of 1.
+    private static final int ROWS = 130;
+    private static final int COLS = 7;
+    private static final int THREADS = 8;
+    // Few cells for the racing moves, so threads often meet on one.
+    private static final int RACE_ROWS = 66;
+    private static final int RACE_COLS = 2;
+    private static final int ROUNDS = 1000;
+    private static final int MOVES_PER_ROUND = 20;
+
+    @Test
+    void picksOnlyAndEveryFreeCell() {
+        DenseGridStorage grid = new DenseGridStorage(ROWS, COLS);
+        SplittableRandom random = new SplittableRandom(1);
+        Set<Position> free = new HashSet<>();
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                Position pos = Position.of(row, col);
+                // Leave a few cells free, at least one in the first and last bands.
+                if (row == 0 && col == 0 || row == ROWS - 1 && col == COLS - 1 || random.nextInt(40) == 0) {
+                    free.add(pos);
+                } else {
+                    grid.add(pos, new Token());
+                }
+            }
+        }
+        assertFreeCells(grid, free);
+    }
+
+    @Test
+    void fullMapHasNoFreeCell() {
+        DenseGridStorage grid = new DenseGridStorage(ROWS, COLS);
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                grid.add(Position.of(row, col), new Token());
+            }
+        }
+        assertEquals(0, grid.getFreeCells().size());
+        assertNull(grid.getFreeCells().pick(new SplittableRandom(2)));
+
+        grid.clear();
+        assertEquals(ROWS * COLS, grid.getFreeCells().size());
+    }
+
+    @Test
+    void racingMovesLeaveTheSetMatchingTheGrid() throws Exception {
+        DenseGridStorage grid = new DenseGridStorage(RACE_ROWS, RACE_COLS);
+        List<List<Token>> tokens = new ArrayList<>();
+        SplittableRandom placement = new SplittableRandom(3);
+        for (int t = 0; t < THREADS; t++) {
+            List<Token> own = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Token token = new Token();
+                token.position = Position.of(placement.nextInt(RACE_ROWS), placement.nextInt(RACE_COLS));
+                grid.add(token.position, token);
+                own.add(token);
+            }
+            tokens.add(own);
+        }
+
+        // Threads move their own tokens between random cells, so cells
+        // empty and fill under several threads at once. The set is checked
+        // after each round, before later moves can mend a wrong entry.
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> done = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    List<Token> own = tokens.get(t);
+                    SplittableRandom random = new SplittableRandom(round * THREADS + t);
+                    done.add(pool.submit(() -> {
+                        start.await();
+                        for (int m = 0; m < MOVES_PER_ROUND; m++) {
+                            Token token = own.get(random.nextInt(own.size()));
+                            grid.remove(token.position, token);
+                            token.position = Position.of(random.nextInt(RACE_ROWS), random.nextInt(RACE_COLS));
+                            grid.add(token.position, token);
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> f : done) {
+                    f.get(60, TimeUnit.SECONDS);
+                }
+                assertFreeCells(grid, emptyCells(grid));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Set<Position> emptyCells(DenseGridStorage grid) {
+        Set<Position> free = new HashSet<>();
+        for (int row = 0; row < grid.getRows(); row++) {
+            for (int col = 0; col < grid.getCols(); col++) {
+                Position pos = Position.of(row, col);
+                if (!grid.isOccupied(pos)) free.add(pos);
+            }
+        }
+        assertEquals(grid.getRows() * grid.getCols() - grid.occupiedCount(), free.size());
+        return free;
+    }
+
+    /**
+     * Picks until every expected cell has come up, failing on any other cell.
+     */
+    private static void assertFreeCells(DenseGridStorage grid, Set<Position> expected) {
+        FreeCellSet set = grid.getFreeCells();
+        assertEquals(expected.size(), set.size());
+        SplittableRandom random = new SplittableRandom(4);
+        Set<Position> seen = new HashSet<>();
+        for (int i = 0; i < expected.size() * 100 && seen.size() < expected.size(); i++) {
+            Position pos = set.pick(random);
+            if (!expected.contains(pos)) {
+                throw new AssertionError("picked " + pos + ", which is not free");
+            }
+            seen.add(pos);
+        }
+        assertEquals(expected, seen);
+    }
+
+    /**
+     * An entity that is equal only to itself.
+     */
+    private static final class Token implements GameEntity {
+        private Position position;
+
+        @Override
+        public Position getPosition() {
+            return position;
+        }
+
+        @Override
+        public boolean setPosition(Position newPos) {
+            position = newPos;
+            return true;
+        }
+
+        @Override
+        public String getDisplaySymbol() {
+            return "T";
+        }
+
+        @Override
+        public boolean setVisible(boolean visible) {
+            return true;
+        }
+
+        @Override
+        public boolean isVisible() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package game.map;
+
+import game.core.GameEntity;
+import game.map.memento.GameMapMemento;
+import game.map.memento.MapMemento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restoring a delta snapshot must leave the map exactly as a full snapshot
+ * taken at the same moment has it, however many threads moved entities
+ * in between.
+ */
+class GameMapJournalTest {
+
+    private static final int ROWS = 40;
+    private static final int COLS = 40;
+    private static final int THREADS = 8;
+    private static final int ENTITIES_PER_THREAD = 25;
+
+    private GameMap map;
+    private List<List<Token>> tokens;
+
+    @BeforeEach
+    void setUp() {
+        map = GameMap.getInstance();
+        map.useBoundedGrid(ROWS, COLS);
+        map.clear();
+        SplittableRandom random = new SplittableRandom(42);
+        tokens = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Token> own = new ArrayList<>();
+            for (int i = 0; i < ENTITIES_PER_THREAD; i++) {
+                Token token = new Token(Position.of(random.nextInt(ROWS), random.nextInt(COLS)));
+                assertTrue(map.addEntity(token));
+                own.add(token);
+            }
+            tokens.add(own);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        map.clear();
+    }
+
+    @Test
+    void deltaRestoreRollsBackConcurrentMoves() throws Exception {
+        // Few enough changes that the journal is rolled back rather than re-based.
+        assertRestoreMatchesFullSnapshot(150);
+    }
+
+    @Test
+    void deltaRestoreAfterRebaseMatchesFullSnapshot() throws Exception {
+        // Enough changes to go past the journal limit, so the snapshot is re-based.
+        assertRestoreMatchesFullSnapshot(2000);
+    }
+
+    @Test
+    void laterSnapshotsStayRestorableWhileMovesGoOn() throws Exception {
+        MapMemento first = map.saveState();
+        moveConcurrently(100, 1);
+        GameMapMemento expected = map.saveFullState();
+        Map<Token, Position> positions = positions();
+        MapMemento second = map.saveState();
+        moveConcurrently(100, 2);
+
+        map.restoreState(second);
+        assertGridEquals(expected.getSavedGrid(), map.getGrid());
+        assertPositions(positions);
+        map.releaseState(first);
+    }
+
+    private void assertRestoreMatchesFullSnapshot(int movesPerThread) throws Exception {
+        MapMemento delta = map.saveState();
+        GameMapMemento expected = map.saveFullState();
+        Map<Token, Position> positions = positions();
+
+        moveConcurrently(movesPerThread, 7);
+
+        map.restoreState(delta);
+        assertGridEquals(expected.getSavedGrid(), map.getGrid());
+        assertPositions(positions);
+    }
+
+    /**
+     * Each thread moves its own entities one cell at a time, locking both
+     * cells the way the game does.
+     */
+    private void moveConcurrently(int movesPerThread, long seed) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                List<Token> own = tokens.get(t);
+                SplittableRandom random = new SplittableRandom(seed * 31 + t);
+                done.add(pool.submit(() -> {
+                    start.await();
+                    for (int m = 0; m < movesPerThread; m++) {
+                        move(own.get(random.nextInt(own.size())), random);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : done) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void move(Token token, SplittableRandom random) {
+        Position from = token.getPosition();
+        int row = Math.floorMod(from.getRow() + random.nextInt(3) - 1, ROWS);
+        int col = Math.floorMod(from.getCol() + random.nextInt(3) - 1, COLS);
+        Position to = Position.of(row, col);
+        if (!map.tryLockMove(from, to, 1000)) return;
+        try {
+            if (map.removeEntity(token)) {
+                token.setPosition(to);
+                map.addEntity(token);
+            }
+        } finally {
+            map.unlockMove(from, to);
+        }
+    }
+
+    private Map<Token, Position> positions() {
+        Map<Token, Position> positions = new IdentityHashMap<>();
+        for (List<Token> own : tokens) {
+            for (Token token : own) {
+                positions.put(token, token.getPosition());
+            }
+        }
+        return positions;
+    }
+
+    private void assertPositions(Map<Token, Position> expected) {
+        for (Map.Entry<Token, Position> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), entry.getKey().getPosition());
+            assertTrue(map.isOnMap(entry.getKey()));
+        }
+    }
+
+    private static void assertGridEquals(Map<Position, List<GameEntity>> expected, Map<Position, List<GameEntity>> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<Position, List<GameEntity>> entry : expected.entrySet()) {
+            List<GameEntity> want = sorted(entry.getValue());
+            List<GameEntity> got = sorted(actual.get(entry.getKey()));
+            assertEquals(want.size(), got.size(), "entities at " + entry.getKey());
+            for (int i = 0; i < want.size(); i++) {
+                assertSame(want.get(i), got.get(i), "entities at " + entry.getKey());
+            }
+        }
+    }
+
+    private static List<GameEntity> sorted(List<GameEntity> cell) {
+        List<GameEntity> copy = new ArrayList<>(cell);
+        copy.sort((a, b) -> Integer.compare(((Token) a).id, ((Token) b).id));
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * An entity that is equal only to itself.
+     */
+    private static final class Token implements GameEntity {
+        private static int nextId;
+
+        private final int id = nextId++;
+        private volatile Position position;
+
+        Token(Position position) {
+            this.position = position;
+        }
+
+        @Override
+        public Position getPosition() {
+            return position;
+        }
+
+        @Override
+        public boolean setPosition(Position newPos) {
+            position = newPos;
+            return true;
+        }
+
+        @Override
+        public String getDisplaySymbol() {
+            return "T";
+        }
+
+        @Override
+        public boolean setVisible(boolean visible) {
+            return true;
+        }
+
+        @Override
+        public boolean isVisible() {
+            return true;
+        }
+    }
+}